@@ -0,0 +1,71 @@
+package net.mysterria.silkroad.benchmark;
+
+import net.mysterria.silkroad.SilkRoad;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots SilkRoad on a MockBukkit server once per benchmark JVM, with a stand-in for the SacredOrder dependency
+ */
+public final class BenchmarkServer {
+
+    private static ServerMock server;
+    private static SilkRoad plugin;
+
+    private BenchmarkServer() {
+    }
+
+    public static synchronized SilkRoad start() {
+        if (plugin == null) {
+            server = MockBukkit.mock();
+            MockBukkit.createMockPlugin("SacredOrder");
+            plugin = MockBukkit.load(SilkRoad.class);
+        }
+        return plugin;
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            MockBukkit.unmock();
+            server = null;
+            plugin = null;
+        }
+    }
+
+    public static ServerMock getServer() {
+        return server;
+    }
+
+    public static World world(String name) {
+        World world = server.getWorld(name);
+        return world != null ? world : server.addSimpleWorld(name);
+    }
+
+    /**
+     * Stacks that never merge with each other, each a different stackable material with a display name
+     */
+    public static List<ItemStack> distinctStacks(int count, int amount) {
+        List<ItemStack> stacks = new ArrayList<>(count);
+        for (Material material : Material.values()) {
+            if (stacks.size() == count) {
+                break;
+            }
+            if (material.isLegacy() || !material.isItem() || material.isAir() || material.getMaxStackSize() != 64) {
+                continue;
+            }
+            ItemStack stack = new ItemStack(material, amount);
+            ItemMeta meta = stack.getItemMeta();
+            meta.setDisplayName("Benchmark " + stacks.size());
+            stack.setItemMeta(meta);
+            stacks.add(stack);
+        }
+        return stacks;
+    }
+}
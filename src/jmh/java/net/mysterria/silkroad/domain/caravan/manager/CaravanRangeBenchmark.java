@@ -0,0 +1,80 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import net.mysterria.silkroad.benchmark.BenchmarkServer;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Range and nearest-caravan lookups with caravans spread over a 10000 x 10000 block area
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CaravanRangeBenchmark {
+
+    private static final int AREA = 10_000;
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "500", "1000"})
+    public int caravanCount;
+
+    @Param({"64", "1000"})
+    public double range;
+
+    private CaravanManager manager;
+    private final Location[] queries = new Location[QUERIES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        manager = BenchmarkServer.start().getCaravanManager();
+        World world = BenchmarkServer.world("world");
+        Random random = new Random(42);
+        for (int i = 0; i < caravanCount; i++) {
+            manager.createCaravan("bench-" + i, "Bench " + i, randomLocation(world, random));
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = randomLocation(world, random);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public List<Caravan> getCaravansInRange() {
+        return manager.getCaravansInRange(nextQuery(), range);
+    }
+
+    @Benchmark
+    public Optional<Caravan> getNearestCaravan() {
+        return manager.getNearestCaravan(nextQuery(), range);
+    }
+
+    private Location nextQuery() {
+        Location query = queries[next];
+        next = (next + 1) % QUERIES;
+        return query;
+    }
+
+    private static Location randomLocation(World world, Random random) {
+        return new Location(world, random.nextInt(AREA) - AREA / 2.0, 64, random.nextInt(AREA) - AREA / 2.0);
+    }
+}
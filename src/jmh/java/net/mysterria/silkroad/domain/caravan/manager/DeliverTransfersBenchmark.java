@@ -0,0 +1,74 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.benchmark.BenchmarkServer;
+import net.mysterria.silkroad.domain.caravan.model.CaravanStorage;
+import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The processor run in which every in-flight transfer arrives at once, including the journal writes
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DeliverTransfersBenchmark {
+
+    @Param({"10000", "100000"})
+    public int transferCount;
+
+    private SilkRoad plugin;
+    private Path dataDir;
+    private List<ResourceTransfer> transfers;
+    private CaravanManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        plugin = BenchmarkServer.start();
+        dataDir = Files.createTempDirectory("silkroad-bench");
+        CaravanStorage storage = ProcessTransfersBenchmark.openStorage(dataDir);
+        ProcessTransfersBenchmark.writeCaravans(storage);
+        storage.close();
+        transfers = ProcessTransfersBenchmark.createTransfers(transferCount, 0L);
+    }
+
+    @Setup(Level.Invocation)
+    public void arm() {
+        // Store every transfer as in transit and already due again, then restart so they are all scheduled
+        CaravanStorage storage = ProcessTransfersBenchmark.openStorage(dataDir);
+        ProcessTransfersBenchmark.writeTransfers(storage, transfers);
+        manager = ProcessTransfersBenchmark.startManager(plugin, storage, dataDir);
+    }
+
+    @TearDown(Level.Invocation)
+    public void stopManager() {
+        // Writes the deliveries and removes the journal segments, so they do not pile up across invocations
+        manager.shutdown();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkServer.stop();
+        ProcessTransfersBenchmark.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public void deliverAll() {
+        BenchmarkServer.getServer().getScheduler().performTicks(ProcessTransfersBenchmark.PROCESSOR_PERIOD_TICKS);
+    }
+}
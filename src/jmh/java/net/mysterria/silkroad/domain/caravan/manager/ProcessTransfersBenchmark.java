@@ -0,0 +1,144 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.benchmark.BenchmarkServer;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.domain.caravan.model.CaravanStorage;
+import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.domain.caravan.storage.CaravanPersistence;
+import net.mysterria.silkroad.domain.caravan.storage.SqliteCaravanRepository;
+import net.mysterria.silkroad.domain.caravan.storage.StorageBatch;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * One second of server ticks with many transfers in flight and none of them due, the steady state of a busy server.
+ * The transfers are loaded from storage by a starting manager and processed by its scheduled task, as on a server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProcessTransfersBenchmark {
+
+    private static final long FAR_FUTURE = Long.MAX_VALUE / 2;
+    // The transfer processor runs once every 20 ticks
+    static final int PROCESSOR_PERIOD_TICKS = 20;
+
+    @Param({"10000", "100000"})
+    public int transferCount;
+
+    private Path dataDir;
+    private CaravanManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SilkRoad plugin = BenchmarkServer.start();
+        dataDir = Files.createTempDirectory("silkroad-bench");
+        CaravanStorage storage = openStorage(dataDir);
+        writeCaravans(storage);
+        writeTransfers(storage, createTransfers(transferCount, FAR_FUTURE));
+        manager = startManager(plugin, storage, dataDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.shutdown();
+        BenchmarkServer.stop();
+        deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public void idleSecond() {
+        BenchmarkServer.getServer().getScheduler().performTicks(PROCESSOR_PERIOD_TICKS);
+    }
+
+    /**
+     * Opens the benchmark database in the data directory, creating it on first use
+     */
+    static CaravanStorage openStorage(Path dataDir) {
+        try {
+            return new CaravanStorage(new SqliteCaravanRepository(dataDir.resolve("silkroad.db").toFile()));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not open the benchmark database", e);
+        }
+    }
+
+    /**
+     * Stores the source and destination caravan the transfers travel between
+     */
+    static void writeCaravans(CaravanStorage storage) {
+        World world = BenchmarkServer.world("world");
+        storage.saveCaravan(new Caravan("bench-source", "Bench Source", new Location(world, 0, 64, 0)));
+        storage.saveCaravan(new Caravan("bench-destination", "Bench Destination", new Location(world, 1000, 64, 1000)));
+    }
+
+    /**
+     * Creates in-transit transfers between the benchmark caravans, arriving at the given time.
+     * The transfers belong to an offline player, so deliveries send no messages.
+     */
+    static List<ResourceTransfer> createTransfers(int count, long deliveryTime) {
+        List<ItemStack> cargo = BenchmarkServer.distinctStacks(3, 16);
+        long now = System.currentTimeMillis();
+        List<ResourceTransfer> transfers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ResourceTransfer transfer = new ResourceTransfer(UUID.randomUUID().toString(), "bench-source", "bench-destination",
+                    UUID.randomUUID(), "Bench", cargo, now, deliveryTime, 1414.2, 10);
+            transfer.setStatus(ResourceTransfer.TransferStatus.IN_TRANSIT);
+            transfers.add(transfer);
+        }
+        return transfers;
+    }
+
+    /**
+     * Stores the transfers in a single batch, overwriting earlier versions of them
+     */
+    static void writeTransfers(CaravanStorage storage, List<ResourceTransfer> transfers) {
+        StorageBatch batch = new StorageBatch();
+        for (ResourceTransfer transfer : transfers) {
+            batch.writeTransfer(transfer.getId(), storage.snapshotTransfer(transfer));
+        }
+        storage.writeBatch(batch);
+    }
+
+    /**
+     * Starts a manager on the storage, which loads and schedules the stored transfers like the plugin does on enable
+     */
+    static CaravanManager startManager(SilkRoad plugin, CaravanStorage storage, Path dataDir) {
+        File journalDir = dataDir.resolve("journal").toFile();
+        return new CaravanManager(storage, new CaravanPersistence(storage, plugin.getPluginConfig(), journalDir));
+    }
+
+    static void deleteRecursively(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
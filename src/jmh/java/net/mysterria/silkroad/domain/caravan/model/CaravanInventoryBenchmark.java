@@ -0,0 +1,77 @@
+package net.mysterria.silkroad.domain.caravan.model;
+
+import net.mysterria.silkroad.benchmark.BenchmarkServer;
+import org.bukkit.Location;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item operations on a caravan holding a full inventory of {@link Caravan#MAX_INVENTORY_SLOTS} distinct stacks
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CaravanInventoryBenchmark {
+
+    private Caravan caravan;
+    private ItemStack lastStored;
+    private ItemStack single;
+    private ItemStack missing;
+
+    @Setup
+    public void setUp() {
+        BenchmarkServer.start();
+        caravan = new Caravan("bench", "Bench", new Location(BenchmarkServer.world("world"), 0, 64, 0));
+
+        List<ItemStack> stacks = BenchmarkServer.distinctStacks(Caravan.MAX_INVENTORY_SLOTS + 1, 32);
+        for (int i = 0; i < Caravan.MAX_INVENTORY_SLOTS; i++) {
+            caravan.addItemStack(stacks.get(i));
+        }
+        lastStored = stacks.get(Caravan.MAX_INVENTORY_SLOTS - 1);
+        single = lastStored.clone();
+        single.setAmount(1);
+        missing = stacks.get(Caravan.MAX_INVENTORY_SLOTS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public int getItemStackAmount() {
+        return caravan.getItemStackAmount(lastStored);
+    }
+
+    @Benchmark
+    public int getItemStackAmountMissing() {
+        return caravan.getItemStackAmount(missing);
+    }
+
+    /**
+     * Merges one item into the last stack and takes it out again, so the inventory stays full
+     */
+    @Benchmark
+    public boolean addThenRemoveItemStack() {
+        caravan.addItemStack(single);
+        return caravan.removeItemStack(single, 1);
+    }
+
+    /**
+     * A full inventory rejects an item it has no stack for
+     */
+    @Benchmark
+    public boolean addItemStackRejected() {
+        return caravan.addItemStack(missing);
+    }
+}
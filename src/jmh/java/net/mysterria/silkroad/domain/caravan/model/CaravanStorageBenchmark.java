@@ -0,0 +1,93 @@
+package net.mysterria.silkroad.domain.caravan.model;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.benchmark.BenchmarkServer;
+import org.bukkit.Location;
+import org.bukkit.inventory.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Synchronous save and load of a caravan with a full inventory, per storage backend and item format
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CaravanStorageBenchmark {
+
+    @Param({"yaml", "sqlite"})
+    public String backend;
+
+    @Param({"map", "binary"})
+    public String itemFormat;
+
+    private CaravanStorage storage;
+    private Caravan caravan;
+
+    @Setup
+    public void setUp() {
+        SilkRoad plugin = BenchmarkServer.start();
+        plugin.getConfig().set("storage.backend", backend);
+        plugin.getConfig().set("storage.item_format", itemFormat);
+        storage = new CaravanStorage();
+
+        caravan = new Caravan("bench-storage", "Bench Storage", new Location(BenchmarkServer.world("world"), 100, 64, -200));
+        for (ItemStack stack : BenchmarkServer.distinctStacks(Caravan.MAX_INVENTORY_SLOTS, 64)) {
+            caravan.addItemStack(stack);
+        }
+        for (int i = 0; i < 20; i++) {
+            caravan.addMember(UUID.randomUUID());
+        }
+        for (int x = 0; x < 8; x++) {
+            for (int z = 0; z < 8; z++) {
+                caravan.getTerritory().add("world", x, z);
+            }
+        }
+        storage.saveCaravan(caravan);
+    }
+
+    @TearDown
+    public void tearDown() {
+        storage.deleteCaravan(caravan.getId());
+        storage.close();
+        BenchmarkServer.stop();
+    }
+
+    @Benchmark
+    public void save() {
+        for (Caravan.Section section : Caravan.Section.values()) {
+            caravan.markDirty(section);
+        }
+        storage.saveCaravan(caravan);
+    }
+
+    /**
+     * A member joining, only the members section and metadata are written
+     */
+    @Benchmark
+    public void saveMembers() {
+        caravan.markDirty(Caravan.Section.MEMBERS);
+        storage.saveCaravan(caravan);
+    }
+
+    @Benchmark
+    public Caravan load() {
+        return storage.loadCaravan(caravan.getId());
+    }
+
+    @Benchmark
+    public Caravan roundTrip() {
+        save();
+        return storage.loadCaravan(caravan.getId());
+    }
+}
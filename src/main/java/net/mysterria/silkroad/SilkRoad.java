@@ -10,8 +10,13 @@ import net.mysterria.silkroad.config.SilkRoadConfig;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
 import net.mysterria.silkroad.listeners.CaravanInteractionListener;
 import net.mysterria.silkroad.listeners.CaravanWandListener;
+import net.mysterria.silkroad.listeners.ChatPromptListener;
+import net.mysterria.silkroad.listeners.ShardCacheListener;
+import net.mysterria.silkroad.listeners.TownClaimListener;
 import net.mysterria.silkroad.listeners.TownMembershipListener;
-import net.mysterria.silkroad.utils.ShardUtils;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
+import net.mysterria.silkroad.scheduler.TaskScheduler;
+import net.mysterria.silkroad.utils.ShardService;
 import net.mysterria.silkroad.utils.TranslationManager;
 import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
@@ -29,25 +34,44 @@ public final class SilkRoad extends JavaPlugin {
     private static SilkRoad instance;
 
     @Getter
-    private ShardUtils shardUtils;
+    private ShardService shardService;
+
+    @Getter
+    private TaskScheduler taskScheduler;
+
+    @Getter
+    private SilkRoadMetrics metrics;
+
+    @Getter
+    private ChatPromptListener chatPrompts;
 
     @Override
     public void onEnable() {
         instance = this;
 
+        this.taskScheduler = TaskScheduler.create(this);
+        this.metrics = new SilkRoadMetrics();
+
         createDataFolders();
         this.pluginConfig = new SilkRoadConfig();
 
         // Initialize translation system
         TranslationManager.initialize();
 
+        this.shardService = new ShardService();
         this.caravanManager = new CaravanManager();
 
         Bukkit.getPluginManager().registerEvents(new CaravanInteractionListener(caravanManager), this);
         Bukkit.getPluginManager().registerEvents(new CaravanWandListener(caravanManager), this);
         Bukkit.getPluginManager().registerEvents(new TownMembershipListener(caravanManager), this);
+        Bukkit.getPluginManager().registerEvents(new TownClaimListener(), this);
+        Bukkit.getPluginManager().registerEvents(new ShardCacheListener(shardService), this);
+        this.chatPrompts = new ChatPromptListener();
+        Bukkit.getPluginManager().registerEvents(chatPrompts, this);
 
-        this.shardUtils = new ShardUtils();
+        if (pluginConfig.isMetricsDumpEnabled()) {
+            metrics.startDump(taskScheduler, getDataFolder(), pluginConfig.getMetricsDumpFormat(), pluginConfig.getMetricsDumpIntervalTicks());
+        }
 
         this.liteCommands = LiteBukkitFactory.builder("silkroad", this)
                 .commands(new CaravanCommand(this), new CaravanPlayerCommand(this))
@@ -78,6 +102,10 @@ public final class SilkRoad extends JavaPlugin {
     public void onDisable() {
         getLogger().info("Disabling SilkRoad");
 
+        if (metrics != null) {
+            metrics.stopDump();
+        }
+
         if (caravanManager != null) {
             getLogger().info("Shutting down caravan system...");
             caravanManager.shutdown();
@@ -7,6 +7,8 @@ import dev.rollczi.litecommands.annotations.execute.Execute;
 import dev.rollczi.litecommands.annotations.permission.Permission;
 import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
+import net.mysterria.silkroad.metrics.LatencyHistogram;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import net.mysterria.silkroad.utils.ResourcePackGenerator;
 import net.mysterria.silkroad.utils.TranslationManager;
@@ -14,7 +16,9 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanCreationResult;
+import net.mysterria.silkroad.domain.caravan.manager.CaravanMoveResult;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.domain.caravan.model.ChunkTerritory;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
 import org.bukkit.Material;
 import org.bukkit.command.CommandSender;
@@ -23,15 +27,19 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
 @Command(name = "silkroad", aliases = "sr")
 @Permission("silkroad.caravan.admin")
 public class CaravanCommand {
 
     private final CaravanManager caravanManager;
+    private final SilkRoadMetrics metrics;
 
     public CaravanCommand(SilkRoad plugin) {
         this.caravanManager = plugin.getCaravanManager();
+        this.metrics = plugin.getMetrics();
     }
 
     @Execute(name = "wand")
@@ -63,7 +71,7 @@ public class CaravanCommand {
             return;
         }
 
-        CaravanCreationResult result = caravanManager.createCaravanWithValidation(id, name, sender.getLocation(), new java.util.HashSet<>(selection));
+        CaravanCreationResult result = caravanManager.createCaravanWithValidation(id, name, sender.getLocation(), new ChunkTerritory(selection));
         
         if (result.isSuccess()) {
             sender.sendMessage(TranslationUtil.translatable("command.caravan.created", NamedTextColor.GREEN, name, selection.size()));
@@ -83,6 +91,12 @@ public class CaravanCommand {
         }
     }
 
+    @Execute(name = "move")
+    public void moveCaravan(@Context Player sender, @Arg("name") String id) {
+        CaravanMoveResult result = caravanManager.moveCaravan(id, sender.getLocation());
+        sender.sendMessage(TranslationUtil.translatable(result.getMessageKey(), result.isSuccess() ? NamedTextColor.GREEN : NamedTextColor.RED, id));
+    }
+
     @Execute(name = "list")
     public void listCaravans(@Context CommandSender sender) {
         var caravans = caravanManager.getAllCaravans();
@@ -128,13 +142,14 @@ public class CaravanCommand {
             sb.append(TranslationUtil.translate("command.caravan.info.town.none")).append("\n");
         }
         
-        sb.append(TranslationUtil.translate("command.caravan.info.chunks", String.valueOf(caravan.getTerritoryChunks().size()))).append("\n");
+        sb.append(TranslationUtil.translate("command.caravan.info.chunks", String.valueOf(caravan.getTerritory().size()))).append("\n");
         sb.append(TranslationUtil.translate("command.caravan.info.resources")).append(" ");
-        if (caravan.getInventory().isEmpty()) {
+        Map<Material, Integer> resources = caravan.snapshotResources();
+        if (resources.isEmpty()) {
             sb.append(TranslationUtil.translate("command.caravan.info.resources.none"));
         } else {
             sb.append("\n");
-            for (var entry : caravan.getInventory().entrySet()) {
+            for (var entry : resources.entrySet()) {
                 sb.append(TranslationUtil.translate("command.caravan.info.resource.entry", entry.getKey().name(), String.valueOf(entry.getValue()))).append("\n");
             }
         }
@@ -247,6 +262,21 @@ public class CaravanCommand {
         }
     }
 
+    @Execute(name = "stats")
+    public void showStats(@Context CommandSender sender) {
+        sender.sendMessage(TranslationUtil.translatable("command.stats.header", NamedTextColor.GOLD));
+        for (Map.Entry<String, Long> counter : metrics.getCounters().entrySet()) {
+            sender.sendMessage(TranslationUtil.translatable("command.stats.counter", NamedTextColor.GRAY, counter.getKey(), counter.getValue()));
+        }
+        for (Map.Entry<String, LatencyHistogram> timer : metrics.getTimers().entrySet()) {
+            LatencyHistogram histogram = timer.getValue();
+            sender.sendMessage(TranslationUtil.translatable("command.stats.timer", NamedTextColor.GRAY,
+                    timer.getKey(), histogram.getCount(), String.format(Locale.ROOT, "%.1f", histogram.getMeanMicros()),
+                    histogram.getPercentileMicros(0.50), histogram.getPercentileMicros(0.95),
+                    histogram.getPercentileMicros(0.99), histogram.getMaxMicros()));
+        }
+    }
+
     private String formatTime(long millis) {
         if (millis <= 0) return TranslationUtil.translate("time.ready");
 
@@ -7,6 +7,7 @@ import dev.rollczi.litecommands.annotations.execute.Execute;
 import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.gui.TransferClaimGUI;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
+import net.mysterria.silkroad.domain.caravan.manager.ClaimAllResult;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -200,6 +201,21 @@ public class CaravanPlayerCommand {
         }
     }
     
+    @Execute(name = "claim all")
+    public void claimAllTransfers(@Context Player sender) {
+        ClaimAllResult result = caravanManager.claimAllTransfers(sender);
+        if (result.getClaimed() == 0 && result.getSkipped() == 0) {
+            sender.sendMessage(TranslationUtil.translatable("transfer.claim.all.none", NamedTextColor.GRAY));
+            return;
+        }
+        if (result.getClaimed() > 0) {
+            sender.sendMessage(TranslationUtil.translatable("transfer.claim.all.success", NamedTextColor.GREEN, result.getClaimed()));
+        }
+        if (result.getSkipped() > 0) {
+            sender.sendMessage(TranslationUtil.translatable("transfer.claim.all.skipped", NamedTextColor.YELLOW, result.getSkipped()));
+        }
+    }
+    
     private String getStatusColor(ResourceTransfer.TransferStatus status) {
         return switch (status) {
             case PENDING -> "§e";
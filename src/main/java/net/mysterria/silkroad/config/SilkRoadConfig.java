@@ -42,6 +42,52 @@ public class SilkRoadConfig {
         return config.getLong("delivery.time_per_block_ms", 1000L); // 1 second per block
     }
     
+    // Storage settings
+    public String getStorageBackend() {
+        return config.getString("storage.backend", "yaml").toLowerCase();
+    }
+    
+    public String getSqliteFile() {
+        return config.getString("storage.sqlite.file", "silkroad.db");
+    }
+    
+    public String getItemFormat() {
+        return config.getString("storage.item_format", "map");
+    }
+    
+    public int getItemFormatConversionBatchSize() {
+        return Math.max(1, config.getInt("storage.item_format_conversion_batch_size", 50));
+    }
+    
+    public boolean isWriteBehindEnabled() {
+        return config.getBoolean("storage.write_behind.enabled", true);
+    }
+    
+    public long getWriteBehindFlushIntervalTicks() {
+        return Math.max(1L, config.getLong("storage.write_behind.flush_interval_ticks", 20L)); // 1 second
+    }
+    
+    public int getWriteBehindQueueCapacity() {
+        return Math.max(1, config.getInt("storage.write_behind.queue_capacity", 1024));
+    }
+    
+    public long getJournalSyncIntervalTicks() {
+        return Math.max(0L, config.getLong("storage.write_behind.journal_sync_interval_ticks", 1L)); // 0 = every record
+    }
+    
+    // Metrics settings
+    public boolean isMetricsDumpEnabled() {
+        return config.getBoolean("metrics.dump.enabled", false);
+    }
+    
+    public long getMetricsDumpIntervalTicks() {
+        return Math.max(1L, config.getLong("metrics.dump.interval_seconds", 300L)) * 20L;
+    }
+    
+    public String getMetricsDumpFormat() {
+        return config.getString("metrics.dump.format", "csv");
+    }
+    
     // Debug settings
     public boolean isTransferDebugEnabled() {
         return config.getBoolean("debug.transfer_debug", true);
@@ -7,12 +7,15 @@ import dev.triumphteam.gui.guis.PaginatedGui;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
+import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 
+import java.util.List;
 import java.util.Map;
 
 public class CaravanInventoryGUI {
@@ -21,6 +24,7 @@ public class CaravanInventoryGUI {
     private final Player player;
     private final Caravan caravan;
     private final PaginatedGui gui;
+    private final long buildStart = System.nanoTime();
     
     public CaravanInventoryGUI(CaravanManager caravanManager, Player player, Caravan caravan) {
         this.caravanManager = caravanManager;
@@ -63,7 +67,8 @@ public class CaravanInventoryGUI {
     }
     
     private void addInventoryItems() {
-        if (caravan.getItemInventory().isEmpty()) {
+        List<org.bukkit.inventory.ItemStack> items = caravan.snapshotItemInventory();
+        if (items.isEmpty()) {
             GuiItem emptyItem = ItemBuilder.from(Material.GRAY_STAINED_GLASS_PANE)
                     .name(TranslationUtil.translatable("gui.empty.inventory")
                             .color(NamedTextColor.GRAY)
@@ -76,7 +81,7 @@ public class CaravanInventoryGUI {
             return;
         }
         
-        for (org.bukkit.inventory.ItemStack itemStack : caravan.getItemInventory()) {
+        for (org.bukkit.inventory.ItemStack itemStack : items) {
             if (itemStack == null || itemStack.getType() == Material.AIR) continue;
             
             String itemName = itemStack.hasItemMeta() && itemStack.getItemMeta().hasDisplayName() 
@@ -99,5 +104,6 @@ public class CaravanInventoryGUI {
     
     public void open() {
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, buildStart);
     }
 }
\ No newline at end of file
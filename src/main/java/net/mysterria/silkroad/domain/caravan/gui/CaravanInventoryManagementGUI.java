@@ -2,9 +2,12 @@ package net.mysterria.silkroad.domain.caravan.gui;
 
 import dev.triumphteam.gui.builder.item.PaperItemBuilder;
 import dev.triumphteam.gui.guis.Gui;
+import dev.triumphteam.gui.components.GuiAction;
 import dev.triumphteam.gui.guis.GuiItem;
+import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
@@ -17,17 +20,37 @@ import org.bukkit.event.inventory.InventoryDragEvent;
 import org.bukkit.event.inventory.InventoryClickEvent;
 import org.bukkit.event.inventory.DragType;
 
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
 
+/**
+ * Drag-and-drop view of a caravan's item inventory. Static items are built once per GUI; the caravan
+ * reports changed slots through {@link Caravan.SlotListener} and only those slots are repainted.
+ */
 public class CaravanInventoryManagementGUI {
 
+    private static final int FIRST_CARAVAN_SLOT = 9;
+    private static final int EMPTY_NOTICE_SLOT = 22;
+    private static final int INFO_SLOT = 0;
+
     private final CaravanManager caravanManager;
     private final Player player;
     private final Caravan caravan;
+    private final Caravan.SlotListener slotListener = this::markSlotsChanged;
     private boolean isProcessing = false;
+    private Gui gui;
+    private GuiItem emptyItem;
+    // One withdrawal action per caravan slot, reused by every repaint of that slot
+    private final GuiAction<InventoryClickEvent>[] withdrawActions = createWithdrawActions();
+    // Untagged copy of the stack painted in each caravan slot, what a withdrawal click refers to
+    private final ItemStack[] shownStacks = new ItemStack[Caravan.MAX_INVENTORY_SLOTS];
+    private int shownUsedSlots = -1;
+    private boolean showingEmptyNotice;
+    // Caravan slot range changed since the last repaint, -1 when there is none
+    private int pendingFrom = -1;
+    private int pendingTo = -1;
+    private boolean repaintScheduled;
     
     public CaravanInventoryManagementGUI(CaravanManager caravanManager, Player player, Caravan caravan) {
         this.caravanManager = caravanManager;
@@ -36,7 +59,8 @@ public class CaravanInventoryManagementGUI {
     }
     
     public void open() {
-        Gui gui = Gui.gui()
+        long start = System.nanoTime();
+        gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.inventory.management.title", NamedTextColor.GOLD, caravan.getName()))
                 .rows(6)
                 .create();
@@ -74,126 +98,152 @@ public class CaravanInventoryManagementGUI {
             }
         });
 
-        setupInventoryGUI(gui);
-        gui.open(player);
-    }
-    
-    private void setupInventoryGUI(Gui gui) {
-        // Clear all items to ensure clean state
-        for (int i = 0; i < 54; i++) {
-            gui.removeItem(i);
-        }
+        gui.setCloseGuiAction(event -> caravan.removeSlotListener(slotListener));
 
-        // Add glass pane fillers first
         setupGlassPaneFillers(gui);
-
-        // Set up caravan inventory view
-        setupCaravanInventoryView(gui);
-
-        // Set navigation items
         setupNavigationItems(gui);
+        emptyItem = PaperItemBuilder.from(Material.BARRIER)
+                .name(TranslationUtil.translatable("gui.no.items").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
+                .lore(TranslationUtil.translatable("gui.caravan.empty").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
+                .asGuiItem(event -> event.setCancelled(true));
+        renderCaravanSlots(0, Caravan.MAX_INVENTORY_SLOTS - 1);
 
-        // Update the GUI to refresh all items
-        gui.update();
+        caravan.addSlotListener(slotListener);
+        gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
     }
     
     private void setupNavigationItems(Gui gui) {
-        // Get caravan status for info header
-        var optionalCaravan = caravanManager.getCaravan(caravan.getId());
-        Caravan currentCaravan = optionalCaravan.orElse(caravan);
-        int usedSlots = currentCaravan.getItemInventory().size();
-        int maxSlots = Caravan.MAX_INVENTORY_SLOTS;
-
-        // Info header
-        GuiItem infoItem = PaperItemBuilder.from(Material.CHEST)
-                .name(TranslationUtil.translatable("gui.caravan.inventory.label").color(NamedTextColor.GOLD).decoration(TextDecoration.ITALIC, false))
-                .lore(TranslationUtil.translatable("gui.drag.drop.instruction").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                      TranslationUtil.translatable("gui.slots.usage", String.valueOf(usedSlots), String.valueOf(maxSlots), (usedSlots >= maxSlots ? TranslationUtil.translate("gui.slots.full") : "")).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> event.setCancelled(true));
-        gui.setItem(0, infoItem);
-
         // Control buttons - Help/Tutorial
-        GuiItem helpItem = PaperItemBuilder.from(Material.BOOK)
-                .name(Component.text("How to Use", NamedTextColor.AQUA).decoration(TextDecoration.ITALIC, false))
-                .lore(Component.text("━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GRAY).decoration(TextDecoration.ITALIC, false),
-                      Component.text("Deposit Items:", NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false),
-                      Component.text("  • Click item, then click GUI", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                      Component.text("  • Right-click = deposit half", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                      Component.text("  • Shift-click = deposit all", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                      Component.empty(),
-                      Component.text("Withdraw Items:", NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false),
-                      Component.text("  • Left-click = withdraw all", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                      Component.text("  • Right-click = withdraw half", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                      Component.text("━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GRAY).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> event.setCancelled(true));
+        GuiItem helpItem = new GuiItem(GuiTemplates.inventoryHelp(), event -> event.setCancelled(true));
         gui.setItem(49, helpItem);
         
-        GuiItem backItem = PaperItemBuilder.from(Material.ARROW)
-                .name(TranslationUtil.translatable("gui.back.arrow").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> {
+        GuiItem backItem = new GuiItem(GuiTemplates.backArrow(), event -> {
                     event.setCancelled(true);
                     CaravanManagementGUI managementGUI = new CaravanManagementGUI(caravanManager, player);
                     managementGUI.open();
                 });
         gui.setItem(45, backItem);
 
-        GuiItem closeItem = PaperItemBuilder.from(Material.BARRIER)
-                .name(TranslationUtil.translatable("gui.close").color(NamedTextColor.RED).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> {
+        GuiItem closeItem = new GuiItem(GuiTemplates.close(), event -> {
                     event.setCancelled(true);
                     player.closeInventory();
                 });
         gui.setItem(53, closeItem);
     }
 
+    private GuiItem createInfoItem(int usedSlots) {
+        int maxSlots = Caravan.MAX_INVENTORY_SLOTS;
+        return PaperItemBuilder.from(Material.CHEST)
+                .name(TranslationUtil.translatable("gui.caravan.inventory.label").color(NamedTextColor.GOLD).decoration(TextDecoration.ITALIC, false))
+                .lore(TranslationUtil.translatable("gui.drag.drop.instruction").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                      TranslationUtil.translatable("gui.slots.usage", String.valueOf(usedSlots), String.valueOf(maxSlots), (usedSlots >= maxSlots ? TranslationUtil.translate("gui.slots.full") : "")).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
+                .asGuiItem(event -> event.setCancelled(true));
+    }
+
     private void setupGlassPaneFillers(Gui gui) {
         // Fill non-interactive slots with glass panes to prevent incorrect deposits
         int[] glassSlots = {1, 2, 3, 4, 5, 6, 7, 8, 46, 47, 48, 50, 51, 52};
 
-        GuiItem glassPane = PaperItemBuilder.from(Material.GRAY_STAINED_GLASS_PANE)
-                .name(Component.text("").decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> event.setCancelled(true));
+        GuiItem glassPane = new GuiItem(GuiTemplates.glassPane(), event -> event.setCancelled(true));
 
         for (int slot : glassSlots) {
             gui.setItem(slot, glassPane);
         }
     }
 
-    private void setupCaravanInventoryView(Gui gui) {
-        // Display caravan inventory items (drag-and-drop enabled)
-        // Get the latest caravan state to ensure we show current inventory
-        var optionalCaravan = caravanManager.getCaravan(caravan.getId());
-        Caravan currentCaravan = optionalCaravan.orElse(caravan);
+    @SuppressWarnings("unchecked")
+    private GuiAction<InventoryClickEvent>[] createWithdrawActions() {
+        GuiAction<InventoryClickEvent>[] actions = new GuiAction[Caravan.MAX_INVENTORY_SLOTS];
+        for (int i = 0; i < actions.length; i++) {
+            int caravanSlot = i;
+            actions[i] = event -> handleWithdrawal(caravanSlot, event);
+        }
+        return actions;
+    }
 
-        // Available slots: rows 2-5 (slots 9-44)
-        int[] availableSlots = {
-            9, 10, 11, 12, 13, 14, 15, 16, 17,  // Row 2
-            18, 19, 20, 21, 22, 23, 24, 25, 26, // Row 3
-            27, 28, 29, 30, 31, 32, 33, 34, 35,  // Row 4
-            36, 37, 38, 39, 40, 41, 42, 43, 44 // Row 5
-        };
+    /**
+     * Repaints caravan slots {@code from} to {@code to} (rows 2-5, GUI slots 9-44) plus the info header
+     * and empty notice when they changed. Stacks come from a snapshot since the GUI items get tagged by
+     * triumph-gui and must never share an ItemStack with the caravan. A change after the snapshot
+     * reports its slots again, so the next repaint catches up.
+     */
+    private void renderCaravanSlots(int from, int to) {
+        List<ItemStack> stacks = caravan.snapshotItemInventory(from, to);
+        int usedSlots = caravan.getUsedSlots();
+
+        for (int i = from; i <= to && i < Caravan.MAX_INVENTORY_SLOTS; i++) {
+            int slot = FIRST_CARAVAN_SLOT + i;
+            if (i - from < stacks.size()) {
+                shownStacks[i] = stacks.get(i - from);
+                setSlot(slot, new GuiItem(shownStacks[i].clone(), withdrawActions[i]));
+            } else {
+                shownStacks[i] = null;
+                if (slot != EMPTY_NOTICE_SLOT || usedSlots > 0) {
+                    clearSlot(slot);
+                }
+            }
+        }
 
-        // Display caravan items in GUI slots
-        // For withdrawals: player clicks item, then places it in their inventory
-        int slotIndex = 0;
-        for (ItemStack itemStack : currentCaravan.getItemInventory()) {
-            if (slotIndex >= availableSlots.length) break;
+        boolean empty = usedSlots == 0;
+        if (empty != showingEmptyNotice) {
+            showingEmptyNotice = empty;
+            if (empty) {
+                setSlot(EMPTY_NOTICE_SLOT, emptyItem);
+            } else if (EMPTY_NOTICE_SLOT - FIRST_CARAVAN_SLOT >= usedSlots) {
+                clearSlot(EMPTY_NOTICE_SLOT);
+            }
+        }
+        if (usedSlots != shownUsedSlots) {
+            shownUsedSlots = usedSlots;
+            setSlot(INFO_SLOT, createInfoItem(usedSlots));
+        }
+    }
 
-            final ItemStack currentItem = itemStack;
-            GuiItem item = PaperItemBuilder.from(itemStack)
-                    .asGuiItem(event -> handleWithdrawal(currentItem, event, gui));
+    // Writes through to the open inventory, no full gui.update() needed
+    private void setSlot(int slot, GuiItem item) {
+        gui.setItem(slot, item);
+        gui.getInventory().setItem(slot, item.getItemStack());
+    }
 
-            gui.setItem(availableSlots[slotIndex], item);
-            slotIndex++;
+    private void clearSlot(int slot) {
+        gui.removeItem(slot);
+        gui.getInventory().clear(slot);
+    }
+
+    /**
+     * Records a changed slot range, may be called from any thread. The repaint runs a tick later on
+     * the player's thread, so a burst of deposits is painted once.
+     */
+    private synchronized void markSlotsChanged(int fromSlot, int toSlot) {
+        int from = Math.max(0, fromSlot);
+        pendingFrom = pendingFrom < 0 ? from : Math.min(pendingFrom, from);
+        pendingTo = Math.max(pendingTo, toSlot);
+        scheduleRepaint();
+    }
+
+    private synchronized void scheduleRepaint() {
+        if (repaintScheduled) {
+            return;
         }
+        repaintScheduled = true;
+        SilkRoad.getInstance().getTaskScheduler().runForEntityLater(player, this::repaint, 1L);
+    }
 
-        if (currentCaravan.getItemInventory().isEmpty()) {
-            GuiItem emptyItem = PaperItemBuilder.from(Material.BARRIER)
-                    .name(TranslationUtil.translatable("gui.no.items").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
-                    .lore(TranslationUtil.translatable("gui.caravan.empty").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
-                    .asGuiItem(event -> event.setCancelled(true));
-            gui.setItem(22, emptyItem);
+    private void repaint() {
+        int from;
+        int to;
+        synchronized (this) {
+            from = pendingFrom;
+            to = pendingTo;
+            pendingFrom = -1;
+            pendingTo = -1;
+            repaintScheduled = false;
+        }
+        if (from >= 0 && from <= to) {
+            renderCaravanSlots(from, to);
         }
+        isProcessing = false;
     }
 
     private void handleDragEvent(InventoryDragEvent event, Gui gui) {
@@ -298,7 +348,7 @@ public class CaravanInventoryManagementGUI {
         if (!currentCaravan.canAddItemStack(toDeposit)) {
             event.setCancelled(true);
             player.sendMessage(TranslationUtil.translate("inventory.full",
-                    String.valueOf(currentCaravan.getItemInventory().size()),
+                    String.valueOf(currentCaravan.getUsedSlots()),
                     String.valueOf(Caravan.MAX_INVENTORY_SLOTS)));
             return;
         }
@@ -308,19 +358,7 @@ public class CaravanInventoryManagementGUI {
         event.setCancelled(true);
 
         // Add directly to caravan (item is on cursor, not in inventory!)
-        boolean added = currentCaravan.addItemStack(toDeposit);
-        if (!added) {
-            isProcessing = false;
-            player.sendMessage(TranslationUtil.translate("inventory.deposit.failed"));
-            return;
-        }
-
-        // Save caravan
-        try {
-            caravanManager.saveCaravan(currentCaravan);
-        } catch (Exception e) {
-            // Rollback on save failure
-            currentCaravan.removeItemStack(toDeposit, toDeposit.getAmount());
+        if (!caravanManager.depositItemStack(currentCaravan, toDeposit)) {
             isProcessing = false;
             player.sendMessage(TranslationUtil.translate("inventory.deposit.failed"));
             return;
@@ -338,15 +376,8 @@ public class CaravanInventoryManagementGUI {
         player.sendMessage(TranslationUtil.translate("inventory.deposited",
                 String.valueOf(totalAmount), getItemDisplayName(toDeposit)));
 
-        // Refresh GUI after 1 tick
-        org.bukkit.Bukkit.getScheduler().runTaskLater(
-                net.mysterria.silkroad.SilkRoad.getInstance(),
-                () -> {
-                    setupInventoryGUI(gui);
-                    isProcessing = false;
-                },
-                1L
-        );
+        // Changed slots repaint after 1 tick, which also releases the processing flag
+        scheduleRepaint();
     }
 
     private void handleShiftClickDeposit(ItemStack itemStack, InventoryClickEvent event, Gui gui) {
@@ -364,15 +395,8 @@ public class CaravanInventoryManagementGUI {
             player.sendMessage(TranslationUtil.translate("inventory.deposited",
                     String.valueOf(itemStack.getAmount()), getItemDisplayName(itemStack)));
 
-            // Refresh GUI after 1 tick
-            org.bukkit.Bukkit.getScheduler().runTaskLater(
-                    net.mysterria.silkroad.SilkRoad.getInstance(),
-                    () -> {
-                        setupInventoryGUI(gui);
-                        isProcessing = false;
-                    },
-                    1L
-            );
+            // Changed slots repaint after 1 tick, which also releases the processing flag
+            scheduleRepaint();
         } else {
             // Failed - send error message
             isProcessing = false;
@@ -381,7 +405,7 @@ public class CaravanInventoryManagementGUI {
                 Caravan currentCaravan = optionalCaravan.get();
                 if (!currentCaravan.canAddItemStack(itemStack)) {
                     player.sendMessage(TranslationUtil.translate("inventory.full",
-                            String.valueOf(currentCaravan.getItemInventory().size()),
+                            String.valueOf(currentCaravan.getUsedSlots()),
                             String.valueOf(Caravan.MAX_INVENTORY_SLOTS)));
                 } else {
                     player.sendMessage(TranslationUtil.translate("inventory.deposit.failed"));
@@ -431,7 +455,7 @@ public class CaravanInventoryManagementGUI {
         // Check if caravan can accept the item
         if (!currentCaravan.canAddItemStack(toDeposit)) {
             player.sendMessage(TranslationUtil.translate("inventory.full",
-                    String.valueOf(currentCaravan.getItemInventory().size()),
+                    String.valueOf(currentCaravan.getUsedSlots()),
                     String.valueOf(Caravan.MAX_INVENTORY_SLOTS)));
             return;
         }
@@ -440,19 +464,7 @@ public class CaravanInventoryManagementGUI {
         isProcessing = true;
 
         // Add directly to caravan (item is on cursor, not in inventory!)
-        boolean added = currentCaravan.addItemStack(toDeposit);
-        if (!added) {
-            isProcessing = false;
-            player.sendMessage(TranslationUtil.translate("inventory.deposit.failed"));
-            return;
-        }
-
-        // Save caravan
-        try {
-            caravanManager.saveCaravan(currentCaravan);
-        } catch (Exception e) {
-            // Rollback on save failure
-            currentCaravan.removeItemStack(toDeposit, toDeposit.getAmount());
+        if (!caravanManager.depositItemStack(currentCaravan, toDeposit)) {
             isProcessing = false;
             player.sendMessage(TranslationUtil.translate("inventory.deposit.failed"));
             return;
@@ -470,18 +482,11 @@ public class CaravanInventoryManagementGUI {
         player.sendMessage(TranslationUtil.translate("inventory.deposited",
                 String.valueOf(amount), getItemDisplayName(toDeposit)));
 
-        // Refresh GUI after 1 tick
-        org.bukkit.Bukkit.getScheduler().runTaskLater(
-                net.mysterria.silkroad.SilkRoad.getInstance(),
-                () -> {
-                    setupInventoryGUI(gui);
-                    isProcessing = false;
-                },
-                1L
-        );
+        // Changed slots repaint after 1 tick, which also releases the processing flag
+        scheduleRepaint();
     }
 
-    private void handleWithdrawal(ItemStack itemStack, InventoryClickEvent event, Gui gui) {
+    private void handleWithdrawal(int caravanSlot, InventoryClickEvent event) {
         // Prevent rapid clicks while processing
         if (isProcessing) {
             event.setCancelled(true);
@@ -491,6 +496,11 @@ public class CaravanInventoryManagementGUI {
         // Cancel the default event - we'll handle the withdrawal manually
         event.setCancelled(true);
 
+        ItemStack itemStack = shownStacks[caravanSlot];
+        if (itemStack == null) {
+            return;
+        }
+
         // Determine amount based on click type
         int amount = 0;
         int available = itemStack.getAmount();
@@ -521,20 +531,27 @@ public class CaravanInventoryManagementGUI {
         // Set processing flag
         isProcessing = true;
 
-        // Attempt withdrawal
-        if (caravanManager.removeItemStackFromCaravan(caravan.getId(), player, itemStack, amount)) {
+        // Attempt withdrawal, only of the stack the player saw in that slot
+        boolean withdrawn;
+        caravan.getLock().lock();
+        try {
+            if (!isStillShown(caravanSlot, itemStack)) {
+                // The slot changed since it was painted and its repaint is already on the way
+                isProcessing = false;
+                player.sendMessage(TranslationUtil.translate("inventory.withdraw.changed"));
+                return;
+            }
+            withdrawn = caravanManager.removeItemStackFromCaravan(caravan.getId(), player, itemStack, amount);
+        } finally {
+            caravan.getLock().unlock();
+        }
+
+        if (withdrawn) {
             player.sendMessage(TranslationUtil.translate("inventory.withdrew",
                     String.valueOf(amount), getItemDisplayName(itemStack)));
 
-            // Refresh GUI after 1 tick
-            org.bukkit.Bukkit.getScheduler().runTaskLater(
-                    net.mysterria.silkroad.SilkRoad.getInstance(),
-                    () -> {
-                        setupInventoryGUI(gui);
-                        isProcessing = false;
-                    },
-                    1L
-            );
+            // Changed slots repaint after 1 tick, which also releases the processing flag
+            scheduleRepaint();
         } else {
             // Failed - send error message
             isProcessing = false;
@@ -542,6 +559,18 @@ public class CaravanInventoryManagementGUI {
         }
     }
 
+    /**
+     * Whether the caravan still holds the shown stack at that slot, must be called under the caravan lock
+     */
+    private boolean isStillShown(int caravanSlot, ItemStack shown) {
+        List<ItemStack> items = caravan.getItemInventory();
+        if (caravanSlot >= items.size()) {
+            return false;
+        }
+        ItemStack current = items.get(caravanSlot);
+        return current.getAmount() == shown.getAmount() && current.isSimilar(shown);
+    }
+
     private String getItemDisplayName(ItemStack itemStack) {
         if (itemStack.hasItemMeta() && itemStack.getItemMeta().hasDisplayName()) {
             return LegacyComponentSerializer.legacySection()
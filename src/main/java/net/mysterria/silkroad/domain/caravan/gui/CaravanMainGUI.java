@@ -6,8 +6,10 @@ import dev.triumphteam.gui.guis.GuiItem;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
+import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -21,6 +23,7 @@ public class CaravanMainGUI {
     private final Player player;
     private final Caravan currentCaravan;
     private final Gui gui;
+    private final long buildStart = System.nanoTime();
     
     public CaravanMainGUI(CaravanManager caravanManager, Player player, Caravan currentCaravan) {
         this.caravanManager = caravanManager;
@@ -104,5 +107,6 @@ public class CaravanMainGUI {
     
     public void open() {
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, buildStart);
     }
 }
\ No newline at end of file
@@ -3,11 +3,13 @@ package net.mysterria.silkroad.domain.caravan.gui;
 import dev.triumphteam.gui.builder.item.PaperItemBuilder;
 import dev.triumphteam.gui.guis.Gui;
 import dev.triumphteam.gui.guis.GuiItem;
+import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextDecoration;
 import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
@@ -16,12 +18,20 @@ import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
 
 public class CaravanManagementGUI {
     
+    private static final int PREVIOUS_PAGE_SLOT = 46;
+    private static final int NEXT_PAGE_SLOT = 52;
+    private static final int NO_RESULTS_SLOT = 22;
+    
     private final CaravanManager caravanManager;
     private final Player player;
+    private GuiPager<Caravan> caravanPager;
     
     public CaravanManagementGUI(CaravanManager caravanManager, Player player) {
         this.caravanManager = caravanManager;
@@ -36,39 +46,26 @@ public class CaravanManagementGUI {
             return;
         }
         
+        caravanPager = new GuiPager<>(playerCaravans, CaravanManagementGUI::matchesSearch);
+        openMainMenu();
+    }
+    
+    private void openMainMenu() {
+        long start = System.nanoTime();
         Gui gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.caravan.management").decoration(TextDecoration.ITALIC, false))
                 .rows(6)
                 .create();
         
-        setupMainMenu(gui, playerCaravans);
+        setupMainMenu(gui);
         
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
     }
     
-    private void setupMainMenu(Gui gui, List<Caravan> playerCaravans) {
-        int slot = 10;
-        
-        for (Caravan caravan : playerCaravans) {
-            if (slot >= 17) {
-                slot = slot + 9 - 7;
-            }
-            if (slot >= 44) break;
-            
-            GuiItem item = PaperItemBuilder.from(Material.EMERALD)
-                    .name(Component.text(caravan.getName()).color(NamedTextColor.LIGHT_PURPLE).decoration(TextDecoration.ITALIC, false))
-                    .lore(TranslationUtil.translatable("gui.caravan.info.location.label", formatLocation(caravan.getLocation())).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                          TranslationUtil.translatable("gui.caravan.info.resources.count", String.valueOf(caravan.getItemInventory().size())).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
-                          Component.empty(),
-                          TranslationUtil.translatable("gui.click.to.manage").color(NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false))
-                    .asGuiItem(event -> {
-                        event.setCancelled(true);
-                        openCaravanDetails(caravan);
-                    });
-            
-            gui.setItem(slot, item);
-            slot++;
-        }
+    private void setupMainMenu(Gui gui) {
+        renderCaravanPage(gui);
+        gui.setItem(47, createSearchItem(caravanPager, this::openMainMenu));
         
         // Transfer management section
         List<ResourceTransfer> incomingTransfers = caravanManager.getIncomingTransfers(player.getUniqueId());
@@ -110,9 +107,7 @@ public class CaravanManagementGUI {
                 });
         gui.setItem(50, allTransfersItem);
         
-        GuiItem closeItem = PaperItemBuilder.from(Material.BARRIER)
-                .name(TranslationUtil.translatable("gui.close").color(NamedTextColor.RED).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> {
+        GuiItem closeItem = new GuiItem(GuiTemplates.close(), event -> {
                     event.setCancelled(true);
                     player.closeInventory();
                 });
@@ -120,6 +115,7 @@ public class CaravanManagementGUI {
     }
     
     private void openCaravanDetails(Caravan caravan) {
+        long start = System.nanoTime();
         Gui gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.caravan.details.title", caravan.getName()).color(NamedTextColor.GOLD).decoration(TextDecoration.ITALIC, false))
                 .rows(6)
@@ -152,33 +148,32 @@ public class CaravanManagementGUI {
                 });
         gui.setItem(21, transferItem);
         
-        GuiItem backItem = PaperItemBuilder.from(Material.ARROW)
-                .name(TranslationUtil.translatable("gui.back.arrow").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> {
+        GuiItem backItem = new GuiItem(GuiTemplates.backArrow(), event -> {
                     event.setCancelled(true);
                     open();
                 });
         gui.setItem(45, backItem);
         
-        GuiItem closeItem = PaperItemBuilder.from(Material.BARRIER)
-                .name(TranslationUtil.translatable("gui.close").color(NamedTextColor.RED).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> {
+        GuiItem closeItem = new GuiItem(GuiTemplates.close(), event -> {
                     event.setCancelled(true);
                     player.closeInventory();
                 });
         gui.setItem(49, closeItem);
         
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
     }
     
     private void openCaravanInventory(Caravan caravan) {
+        long start = System.nanoTime();
         Gui gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.caravan.inventory.title", caravan.getName()).color(NamedTextColor.GOLD).decoration(TextDecoration.ITALIC, false))
                 .rows(6)
                 .create();
         
         int slot = 0;
-        for (ItemStack itemStack : caravan.getItemInventory()) {
+        List<ItemStack> items = caravan.snapshotItemInventory();
+        for (ItemStack itemStack : items) {
             if (slot >= 45) break;
             if (itemStack == null || itemStack.getType() == Material.AIR) continue;
             
@@ -195,7 +190,7 @@ public class CaravanManagementGUI {
             slot++;
         }
         
-        if (caravan.getItemInventory().isEmpty()) {
+        if (items.isEmpty()) {
             GuiItem emptyItem = PaperItemBuilder.from(Material.BARRIER)
                     .name(TranslationUtil.translatable("gui.empty.inventory.title").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
                     .lore(TranslationUtil.translatable("gui.empty.inventory.description").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
@@ -203,45 +198,166 @@ public class CaravanManagementGUI {
             gui.setItem(22, emptyItem);
         }
         
-        GuiItem backItem = PaperItemBuilder.from(Material.ARROW)
-                .name(TranslationUtil.translatable("gui.back.arrow").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> {
+        GuiItem backItem = new GuiItem(GuiTemplates.backArrow(), event -> {
                     event.setCancelled(true);
                     openCaravanDetails(caravan);
                 });
         gui.setItem(45, backItem);
         
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
+    }
+    
+    private void renderCaravanPage(Gui gui) {
+        renderPage(gui, caravanPager, caravan -> PaperItemBuilder.from(Material.EMERALD)
+                .name(Component.text(caravan.getName()).color(NamedTextColor.LIGHT_PURPLE).decoration(TextDecoration.ITALIC, false))
+                .lore(TranslationUtil.translatable("gui.caravan.info.location.label", formatLocation(caravan.getLocation())).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                      TranslationUtil.translatable("gui.caravan.info.resources.count", String.valueOf(caravan.getUsedSlots())).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                      Component.empty(),
+                      TranslationUtil.translatable("gui.click.to.manage").color(NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false))
+                .asGuiItem(event -> {
+                    event.setCancelled(true);
+                    openCaravanDetails(caravan);
+                }), () -> renderCaravanPage(gui));
+    }
+    
+    /**
+     * Fills the content slots with the pager's current page only, plus previous/next buttons where there is
+     * somewhere to go. Paging re-renders in place through {@code rerender}.
+     */
+    private <T> void renderPage(Gui gui, GuiPager<T> pager, Function<T, GuiItem> itemFactory, Runnable rerender) {
+        for (int slot : GuiPager.CONTENT_SLOTS) {
+            gui.removeItem(slot);
+        }
+        
+        List<T> visible = pager.getVisible();
+        for (int i = 0; i < visible.size(); i++) {
+            gui.setItem(GuiPager.CONTENT_SLOTS[i], itemFactory.apply(visible.get(i)));
+        }
+        
+        if (pager.isEmpty() && pager.getQuery() != null) {
+            GuiItem noResultsItem = PaperItemBuilder.from(Material.BARRIER)
+                    .name(TranslationUtil.translatable("gui.search.no.results", pager.getQuery()).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
+                    .asGuiItem(event -> event.setCancelled(true));
+            gui.setItem(NO_RESULTS_SLOT, noResultsItem);
+        }
+        
+        Component pageIndicator = TranslationUtil.translatable("gui.page.indicator", String.valueOf(pager.getPageNumber()), String.valueOf(pager.getPageCount()))
+                .color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false);
+        if (pager.hasPrevious()) {
+            gui.setItem(PREVIOUS_PAGE_SLOT, PaperItemBuilder.from(Material.ARROW)
+                    .name(TranslationUtil.translatable("gui.previous.page").color(NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false))
+                    .lore(pageIndicator)
+                    .asGuiItem(event -> {
+                        event.setCancelled(true);
+                        pager.previous();
+                        rerender.run();
+                    }));
+        } else {
+            gui.removeItem(PREVIOUS_PAGE_SLOT);
+        }
+        if (pager.hasNext()) {
+            gui.setItem(NEXT_PAGE_SLOT, PaperItemBuilder.from(Material.ARROW)
+                    .name(TranslationUtil.translatable("gui.next.page").color(NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false))
+                    .lore(pageIndicator)
+                    .asGuiItem(event -> {
+                        event.setCancelled(true);
+                        pager.next();
+                        rerender.run();
+                    }));
+        } else {
+            gui.removeItem(NEXT_PAGE_SLOT);
+        }
+        
+        gui.update();
+    }
+    
+    /**
+     * Left-click asks for a query in chat and reopens the menu filtered by it, right-click clears the search
+     */
+    private <T> GuiItem createSearchItem(GuiPager<T> pager, Runnable reopen) {
+        List<Component> lore = new ArrayList<>();
+        lore.add(TranslationUtil.translatable("gui.search.description").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false));
+        if (pager.getQuery() != null) {
+            lore.add(TranslationUtil.translatable("gui.search.current", pager.getQuery()).color(NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false));
+            lore.add(TranslationUtil.translatable("gui.search.clear.hint").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false));
+        }
+        
+        return PaperItemBuilder.from(Material.SPYGLASS)
+                .name(TranslationUtil.translatable("gui.search").color(NamedTextColor.AQUA).decoration(TextDecoration.ITALIC, false))
+                .lore(lore.toArray(Component[]::new))
+                .asGuiItem(event -> {
+                    event.setCancelled(true);
+                    if (event.isRightClick() && pager.getQuery() != null) {
+                        pager.setQuery(null);
+                        reopen.run();
+                        return;
+                    }
+                    
+                    player.closeInventory();
+                    player.sendMessage(TranslationUtil.translatable("gui.search.prompt", NamedTextColor.YELLOW));
+                    SilkRoad.getInstance().getChatPrompts().prompt(player, input -> {
+                        if (!input.equalsIgnoreCase("cancel")) {
+                            pager.setQuery(input);
+                        }
+                        reopen.run();
+                    });
+                });
+    }
+    
+    private static boolean matchesSearch(Caravan caravan, String query) {
+        return caravan.getName().toLowerCase(Locale.ROOT).contains(query)
+                || caravan.getId().contains(query)
+                || (caravan.getOwningTownName() != null && caravan.getOwningTownName().toLowerCase(Locale.ROOT).contains(query));
     }
     
     private void openTransferGUI(Caravan sourceCaravan) {
-        List<Caravan> availableDestinations = caravanManager.getAllCaravans().stream()
-                .filter(c -> !c.getId().equals(sourceCaravan.getId()))
-                .toList();
+        // Distances are computed once here, the menu is sorted by them and pages only read them
+        List<Destination> destinations = new ArrayList<>();
+        for (Caravan caravan : caravanManager.getAllCaravans()) {
+            if (!caravan.getId().equals(sourceCaravan.getId())) {
+                destinations.add(new Destination(caravan, caravanManager.getRouteTable().distance(sourceCaravan, caravan)));
+            }
+        }
         
-        if (availableDestinations.isEmpty()) {
+        if (destinations.isEmpty()) {
             player.sendMessage(TranslationUtil.translatable("caravan.no.other.caravans", NamedTextColor.RED));
             return;
         }
         
+        destinations.sort(Comparator.comparingDouble(destination -> destination.distance));
+        openDestinationMenu(sourceCaravan, new GuiPager<>(destinations, (destination, query) -> matchesSearch(destination.caravan, query)));
+    }
+    
+    private void openDestinationMenu(Caravan sourceCaravan, GuiPager<Destination> pager) {
+        long start = System.nanoTime();
         Gui gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.select.destination.title").color(NamedTextColor.GOLD).decoration(TextDecoration.ITALIC, false))
                 .rows(6)
                 .create();
         
-        int slot = 10;
-        for (Caravan destination : availableDestinations) {
-            if (slot >= 17) {
-                slot = slot + 9 - 7;
-            }
-            if (slot >= 44) break;
-            
-            double distance = sourceCaravan.distanceTo(destination);
+        renderDestinationPage(gui, sourceCaravan, pager);
+        gui.setItem(49, createSearchItem(pager, () -> openDestinationMenu(sourceCaravan, pager)));
+        
+        GuiItem backItem = new GuiItem(GuiTemplates.backArrow(), event -> {
+                    event.setCancelled(true);
+                    openCaravanDetails(sourceCaravan);
+                });
+        gui.setItem(45, backItem);
+        
+        gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
+    }
+    
+    private void renderDestinationPage(Gui gui, Caravan sourceCaravan, GuiPager<Destination> pager) {
+        renderPage(gui, pager, entry -> {
+            Caravan destination = entry.caravan;
+            double distance = entry.distance;
             String distanceStr = distance == Double.MAX_VALUE ? 
                 TranslationUtil.translate("gui.destination.different.world") : 
                 TranslationUtil.translate("gui.destination.distance.blocks", String.format("%.1f", distance));
             
-            GuiItem item = PaperItemBuilder.from(Material.ENDER_PEARL)
+            return PaperItemBuilder.from(Material.ENDER_PEARL)
                     .name(Component.text(destination.getName()).color(NamedTextColor.LIGHT_PURPLE).decoration(TextDecoration.ITALIC, false))
                     .lore(TranslationUtil.translatable("gui.destination.distance.label", distanceStr).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
                           TranslationUtil.translatable("gui.caravan.info.location.label", formatLocation(destination.getLocation())).color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
@@ -251,20 +367,7 @@ public class CaravanManagementGUI {
                         event.setCancelled(true);
                         openResourceSelectionGUI(sourceCaravan, destination);
                     });
-            
-            gui.setItem(slot, item);
-            slot++;
-        }
-        
-        GuiItem backItem = PaperItemBuilder.from(Material.ARROW)
-                .name(TranslationUtil.translatable("gui.back.arrow").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
-                .asGuiItem(event -> {
-                    event.setCancelled(true);
-                    openCaravanDetails(sourceCaravan);
-                });
-        gui.setItem(45, backItem);
-        
-        gui.open(player);
+        }, () -> renderDestinationPage(gui, sourceCaravan, pager));
     }
     
     private void openResourceSelectionGUI(Caravan source, Caravan destination) {
@@ -279,6 +382,7 @@ public class CaravanManagementGUI {
     }
     
     private void openIncomingTransfers(List<ResourceTransfer> transfers) {
+        long start = System.nanoTime();
         Gui gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.incoming.transfers.title.hardcoded").color(NamedTextColor.GREEN).decoration(TextDecoration.ITALIC, false))
                 .rows(6)
@@ -336,9 +440,11 @@ public class CaravanManagementGUI {
         gui.setItem(45, backItem);
         
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
     }
     
     private void openAllTransfersGUI() {
+        long start = System.nanoTime();
         List<ResourceTransfer> playerTransfers = caravanManager.getPlayerTransfers(player.getUniqueId());
         List<ResourceTransfer> deliveredTransfers = caravanManager.getDeliveredTransfersForPlayer(player.getUniqueId());
         
@@ -431,6 +537,7 @@ public class CaravanManagementGUI {
         gui.setItem(45, backItem);
         
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
     }
     
     private String formatLocation(org.bukkit.Location location) {
@@ -456,6 +563,19 @@ public class CaravanManagementGUI {
         }
     }
     
+    /**
+     * A destination with its distance from the source caravan, computed once per menu
+     */
+    private static class Destination {
+        private final Caravan caravan;
+        private final double distance;
+        
+        private Destination(Caravan caravan, double distance) {
+            this.caravan = caravan;
+            this.distance = distance;
+        }
+    }
+    
     private Component text(String legacyText) {
         return LegacyComponentSerializer.legacySection().deserialize(legacyText).decoration(TextDecoration.ITALIC, false);
     }
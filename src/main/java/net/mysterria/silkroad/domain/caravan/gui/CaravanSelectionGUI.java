@@ -7,8 +7,11 @@ import dev.triumphteam.gui.guis.PaginatedGui;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
+import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
+import net.mysterria.silkroad.domain.caravan.manager.CaravanRouteTable;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -23,6 +26,7 @@ public class CaravanSelectionGUI {
     private final Player player;
     private final Caravan sourceCaravan;
     private final PaginatedGui gui;
+    private final long buildStart = System.nanoTime();
     
     public CaravanSelectionGUI(CaravanManager caravanManager, Player player, Caravan sourceCaravan) {
         this.caravanManager = caravanManager;
@@ -72,9 +76,10 @@ public class CaravanSelectionGUI {
                 continue;
             }
             
-            double distance = sourceCaravan.distanceTo(caravan);
-            long estimatedDeliveryTime = calculateDeliveryTime(distance);
-            int baseCost = calculateBaseCost(distance);
+            CaravanRouteTable.RouteQuote quote = caravanManager.getRouteTable().quote(sourceCaravan, caravan, 0);
+            double distance = quote.getDistance();
+            long estimatedDeliveryTime = quote.getDeliveryTimeMs();
+            int baseCost = quote.getCost();
             
             Material iconMaterial = getCaravanIcon(caravan);
             
@@ -141,16 +146,6 @@ public class CaravanSelectionGUI {
         return icons[Math.abs(hash) % icons.length];
     }
     
-    private long calculateDeliveryTime(double distance) {
-        double baseTime = 5 * 60 * 1000;
-        double distanceTime = distance * 1000;
-        return (long) (baseTime + distanceTime);
-    }
-    
-    private int calculateBaseCost(double distance) {
-        return (int) Math.max(1, distance * 0.1);
-    }
-    
     private String formatTime(long millis) {
         long seconds = millis / 1000;
         long minutes = seconds / 60;
@@ -167,5 +162,6 @@ public class CaravanSelectionGUI {
     
     public void open() {
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, buildStart);
     }
 }
\ No newline at end of file
@@ -7,8 +7,10 @@ import dev.triumphteam.gui.guis.PaginatedGui;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
+import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -21,6 +23,7 @@ public class CaravanTransfersGUI {
     private final CaravanManager caravanManager;
     private final Player player;
     private final PaginatedGui gui;
+    private final long buildStart = System.nanoTime();
     
     public CaravanTransfersGUI(CaravanManager caravanManager, Player player) {
         this.caravanManager = caravanManager;
@@ -169,5 +172,6 @@ public class CaravanTransfersGUI {
     
     public void open() {
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, buildStart);
     }
 }
\ No newline at end of file
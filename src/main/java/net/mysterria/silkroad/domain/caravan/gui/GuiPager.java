@@ -0,0 +1,105 @@
+package net.mysterria.silkroad.domain.caravan.gui;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiPredicate;
+
+/**
+ * Page-sized slices of a list for the 7x4 content area of a six-row GUI, with an optional search query.
+ * Only the visible slice is handed out, so callers build items for one page at a time.
+ */
+public class GuiPager<T> {
+
+    /**
+     * Rows 2-5 without the border columns
+     */
+    public static final int[] CONTENT_SLOTS = {
+            10, 11, 12, 13, 14, 15, 16,
+            19, 20, 21, 22, 23, 24, 25,
+            28, 29, 30, 31, 32, 33, 34,
+            37, 38, 39, 40, 41, 42, 43
+    };
+    public static final int PAGE_SIZE = CONTENT_SLOTS.length;
+
+    private final List<T> entries;
+    // Whether an entry matches a lower-cased query
+    private final BiPredicate<T, String> matcher;
+    private List<T> matching;
+    private String query;
+    private int page;
+
+    public GuiPager(List<T> entries, BiPredicate<T, String> matcher) {
+        this.entries = entries;
+        this.matcher = matcher;
+        this.matching = entries;
+    }
+
+    /**
+     * Filters the entries, a null or blank query shows everything again. Always returns to the first page.
+     */
+    public void setQuery(String query) {
+        this.query = query == null || query.isBlank() ? null : query.trim();
+        this.page = 0;
+        if (this.query == null) {
+            matching = entries;
+            return;
+        }
+        String needle = this.query.toLowerCase(Locale.ROOT);
+        List<T> filtered = new ArrayList<>();
+        for (T entry : entries) {
+            if (matcher.test(entry, needle)) {
+                filtered.add(entry);
+            }
+        }
+        matching = filtered;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public List<T> getVisible() {
+        int from = page * PAGE_SIZE;
+        return matching.subList(from, Math.min(from + PAGE_SIZE, matching.size()));
+    }
+
+    public boolean hasPrevious() {
+        return page > 0;
+    }
+
+    public boolean hasNext() {
+        return (page + 1) * PAGE_SIZE < matching.size();
+    }
+
+    public boolean previous() {
+        if (!hasPrevious()) {
+            return false;
+        }
+        page--;
+        return true;
+    }
+
+    public boolean next() {
+        if (!hasNext()) {
+            return false;
+        }
+        page++;
+        return true;
+    }
+
+    /**
+     * Current page, starting at 1 for display
+     */
+    public int getPageNumber() {
+        return page + 1;
+    }
+
+    public int getPageCount() {
+        return Math.max(1, (matching.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+    }
+
+    public boolean isEmpty() {
+        return matching.isEmpty();
+    }
+}
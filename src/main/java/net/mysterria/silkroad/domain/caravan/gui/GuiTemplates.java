@@ -0,0 +1,65 @@
+package net.mysterria.silkroad.domain.caravan.gui;
+
+import dev.triumphteam.gui.builder.item.PaperItemBuilder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.mysterria.silkroad.utils.TranslationUtil;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * Static GUI items built once and handed out as copies. The names are translatable components,
+ * rendered per player by the client, so one template serves every locale.
+ * Copies are required since triumph-gui tags the stack of every GuiItem in place.
+ */
+public final class GuiTemplates {
+
+    private static final ItemStack BACK_ARROW = PaperItemBuilder.from(Material.ARROW)
+            .name(TranslationUtil.translatable("gui.back.arrow").color(NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false))
+            .build();
+
+    private static final ItemStack CLOSE = PaperItemBuilder.from(Material.BARRIER)
+            .name(TranslationUtil.translatable("gui.close").color(NamedTextColor.RED).decoration(TextDecoration.ITALIC, false))
+            .build();
+
+    private static final ItemStack GLASS_PANE = PaperItemBuilder.from(Material.GRAY_STAINED_GLASS_PANE)
+            .name(Component.text("").decoration(TextDecoration.ITALIC, false))
+            .build();
+
+    private static final ItemStack INVENTORY_HELP = PaperItemBuilder.from(Material.BOOK)
+            .name(Component.text("How to Use", NamedTextColor.AQUA).decoration(TextDecoration.ITALIC, false))
+            .lore(Component.text("━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GRAY).decoration(TextDecoration.ITALIC, false),
+                  Component.text("Deposit Items:", NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false),
+                  Component.text("  • Click item, then click GUI", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                  Component.text("  • Right-click = deposit half", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                  Component.text("  • Shift-click = deposit all", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                  Component.empty(),
+                  Component.text("Withdraw Items:", NamedTextColor.YELLOW).decoration(TextDecoration.ITALIC, false),
+                  Component.text("  • Left-click = withdraw all", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                  Component.text("  • Right-click = withdraw half", NamedTextColor.GRAY).decoration(TextDecoration.ITALIC, false),
+                  Component.text("━━━━━━━━━━━━━━━━━━━━", NamedTextColor.DARK_GRAY).decoration(TextDecoration.ITALIC, false))
+            .build();
+
+    private GuiTemplates() {
+    }
+
+    public static ItemStack backArrow() {
+        return BACK_ARROW.clone();
+    }
+
+    public static ItemStack close() {
+        return CLOSE.clone();
+    }
+
+    public static ItemStack glassPane() {
+        return GLASS_PANE.clone();
+    }
+
+    /**
+     * The "How to Use" book of the caravan inventory GUI
+     */
+    public static ItemStack inventoryHelp() {
+        return INVENTORY_HELP.clone();
+    }
+}
@@ -9,9 +9,11 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
+import net.mysterria.silkroad.domain.caravan.manager.CaravanRouteTable;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
-import net.mysterria.silkroad.utils.ShardUtils;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
+import net.mysterria.silkroad.utils.ShardService;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
@@ -30,6 +32,7 @@ public class ResourceSelectionGUI {
     private final Caravan sourceCaravan;
     private final Caravan destinationCaravan;
     private final PaginatedGui gui;
+    private final long buildStart = System.nanoTime();
     private final Map<Material, Integer> selectedResources = new HashMap<>(); // Legacy
     private final List<ItemStack> selectedItemStacks = new ArrayList<>(); // New ItemStack-based selection
     
@@ -80,7 +83,8 @@ public class ResourceSelectionGUI {
     private void addResources() {
         gui.clearPageItems();
         
-        if (sourceCaravan.getItemInventory().isEmpty()) {
+        List<ItemStack> items = sourceCaravan.snapshotItemInventory();
+        if (items.isEmpty()) {
             GuiItem emptyItem = ItemBuilder.from(Material.GRAY_STAINED_GLASS_PANE)
                     .name(TranslationUtil.translatable("gui.no.resources")
                             .color(NamedTextColor.GRAY)
@@ -94,7 +98,7 @@ public class ResourceSelectionGUI {
             return;
         }
         
-        for (ItemStack itemStack : sourceCaravan.getItemInventory()) {
+        for (ItemStack itemStack : items) {
             if (itemStack == null || itemStack.getType() == Material.AIR) continue;
             
             // Find how many of this item stack are already selected
@@ -163,9 +167,10 @@ public class ResourceSelectionGUI {
     
     private void updateConfirmItem() {
         boolean hasSelection = !selectedResources.isEmpty();
-        double distance = sourceCaravan.distanceTo(destinationCaravan);
-        int totalCost = calculateTotalCost(distance, selectedResources);
-        long deliveryTime = calculateDeliveryTime(distance);
+        CaravanRouteTable.RouteQuote quote = quoteSelection();
+        double distance = quote.getDistance();
+        int totalCost = quote.getCost();
+        long deliveryTime = quote.getDeliveryTimeMs();
         
         Material material = hasSelection ? Material.EMERALD : Material.GRAY_DYE;
         Component name = hasSelection ? 
@@ -175,10 +180,11 @@ public class ResourceSelectionGUI {
         List<Component> lore = new ArrayList<>();
         lore.add(TranslationUtil.translatable("item.destination", NamedTextColor.WHITE, destinationCaravan.getName()).decoration(TextDecoration.ITALIC, false));
         lore.add(TranslationUtil.translatable("item.distance", NamedTextColor.WHITE, String.format("%.1f blocks", distance)).decoration(TextDecoration.ITALIC, false));
-        lore.add(TranslationUtil.translatable("item.total.cost", NamedTextColor.WHITE, ShardUtils.formatShardCost(totalCost)).decoration(TextDecoration.ITALIC, false));
+        lore.add(TranslationUtil.translatable("item.total.cost", NamedTextColor.WHITE, ShardService.formatShardCost(totalCost)).decoration(TextDecoration.ITALIC, false));
+        int playerShards = SilkRoad.getInstance().getShardService().getTotalPlayerShards(player);
         lore.add(TranslationUtil.translatable("item.your.shards",
-                        SilkRoad.getInstance().getShardUtils().getTotalPlayerShards(player) >= totalCost ? NamedTextColor.GREEN : NamedTextColor.RED,
-                        SilkRoad.getInstance().getShardUtils().getTotalPlayerShards(player))
+                        playerShards >= totalCost ? NamedTextColor.GREEN : NamedTextColor.RED,
+                        playerShards)
                 .decoration(TextDecoration.ITALIC, false));
         lore.add(TranslationUtil.translatable("item.delivery.time", NamedTextColor.WHITE, formatTime(deliveryTime)).decoration(TextDecoration.ITALIC, false));
         lore.add(Component.empty());
@@ -237,29 +243,20 @@ public class ResourceSelectionGUI {
             player.sendMessage("§aTransfer initiated! Your resources are on their way to " + destinationCaravan.getName());
             player.sendMessage("§7Estimated delivery time: " + formatTime(transfer.getRemainingTime()));
         } else {
-            double distance = sourceCaravan.distanceTo(destinationCaravan);
-            int totalCost = calculateTotalCost(distance, selectedResources);
-            int playerShards = SilkRoad.getInstance().getShardUtils().getTotalPlayerShards(player);
+            int totalCost = quoteSelection().getCost();
+            int playerShards = SilkRoad.getInstance().getShardService().getTotalPlayerShards(player);
             
             if (playerShards < totalCost) {
-                player.sendMessage("§cNot enough shards! You need " + ShardUtils.formatShardCost(totalCost) + " but only have " + ShardUtils.formatShardCost(playerShards));
+                player.sendMessage("§cNot enough shards! You need " + ShardService.formatShardCost(totalCost) + " but only have " + ShardService.formatShardCost(playerShards));
             } else {
                 player.sendMessage("§cFailed to create transfer! Check if you have enough resources.");
             }
         }
     }
     
-    private int calculateTotalCost(double distance, Map<Material, Integer> resources) {
-        int totalItems = resources.values().stream().mapToInt(Integer::intValue).sum();
-        double baseCost = distance * 0.1;
-        double itemCost = totalItems * 0.5;
-        return (int) Math.max(1, baseCost + itemCost);
-    }
-    
-    private long calculateDeliveryTime(double distance) {
-        double baseTime = 5 * 60 * 1000;
-        double distanceTime = distance * 1000;
-        return (long) (baseTime + distanceTime);
+    private CaravanRouteTable.RouteQuote quoteSelection() {
+        int totalItems = selectedResources.values().stream().mapToInt(Integer::intValue).sum();
+        return caravanManager.getRouteTable().quoteLegacy(sourceCaravan, destinationCaravan, totalItems);
     }
     
     private String formatTime(long millis) {
@@ -278,5 +275,6 @@ public class ResourceSelectionGUI {
     
     public void open() {
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, buildStart);
     }
 }
\ No newline at end of file
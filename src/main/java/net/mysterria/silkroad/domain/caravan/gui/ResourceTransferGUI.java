@@ -5,10 +5,11 @@ import dev.triumphteam.gui.guis.Gui;
 import dev.triumphteam.gui.guis.GuiItem;
 import net.kyori.adventure.text.format.TextDecoration;
 import net.mysterria.silkroad.SilkRoad;
-import net.mysterria.silkroad.config.SilkRoadConfig;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
+import net.mysterria.silkroad.domain.caravan.manager.CaravanRouteTable;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -44,7 +45,7 @@ public class ResourceTransferGUI {
     }
     
     public void open() {
-        if (sourceCaravan.getItemInventory().isEmpty()) {
+        if (sourceCaravan.getUsedSlots() == 0) {
             player.sendMessage(TranslationUtil.translate("resource.no.items"));
             return;
         }
@@ -57,7 +58,8 @@ public class ResourceTransferGUI {
         int slot = 0;
         
         // Use ItemStack inventory instead of Material inventory
-        for (ItemStack itemStack : sourceCaravan.getItemInventory()) {
+        List<ItemStack> items = sourceCaravan.snapshotItemInventory();
+        for (ItemStack itemStack : items) {
             if (slot >= 36) break;
             if (itemStack == null || itemStack.getType() == Material.AIR) continue;
             
@@ -92,7 +94,7 @@ public class ResourceTransferGUI {
             slot++;
         }
         
-        if (sourceCaravan.getItemInventory().isEmpty()) {
+        if (items.isEmpty()) {
             GuiItem emptyItem = PaperItemBuilder.from(Material.BARRIER)
                     .name(TranslationUtil.translatable("gui.no.items.title").color(NamedTextColor.GRAY))
                     .lore(TranslationUtil.translatable("gui.no.items.description").color(NamedTextColor.GRAY))
@@ -245,20 +247,23 @@ public class ResourceTransferGUI {
         info.add(TranslationUtil.translatable("gui.transfer.from.caravan", sourceCaravan.getName()).color(NamedTextColor.GRAY));
         info.add(TranslationUtil.translatable("gui.transfer.to.caravan", destinationCaravan.getName()).color(NamedTextColor.GRAY));
         
-        double distance = sourceCaravan.distanceTo(destinationCaravan);
-        if (distance == Double.MAX_VALUE) {
+        CaravanRouteTable.RouteQuote quote = caravanManager.getRouteTable().quote(sourceCaravan, destinationCaravan, selectedItems.size());
+        if (!quote.isSameWorld()) {
             info.add(TranslationUtil.translatable("gui.transfer.distance.different.world").color(NamedTextColor.GRAY));
         } else {
-            info.add(TranslationUtil.translatable("gui.transfer.distance.blocks.format", String.format("%.1f", distance)).color(NamedTextColor.GRAY));
+            info.add(TranslationUtil.translatable("gui.transfer.distance.blocks.format", String.format("%.1f", quote.getDistance())).color(NamedTextColor.GRAY));
         }
         
         if (!selectedItems.isEmpty()) {
             int totalItems = selectionAmounts.values().stream().mapToInt(Integer::intValue).sum();
-            int estimatedCost = calculateItemTransferCost(distance, selectedItems);
-            long estimatedTime = calculateDeliveryTime(distance);
+            int estimatedCost = quote.getCost();
+            long estimatedTime = quote.getDeliveryTimeMs();
             
             info.add(TranslationUtil.translatable("gui.transfer.items.count", String.valueOf(totalItems)).color(NamedTextColor.GRAY));
             info.add(TranslationUtil.translatable("gui.transfer.estimated.cost", String.valueOf(estimatedCost)).color(NamedTextColor.GRAY));
+            int playerShards = SilkRoad.getInstance().getShardService().getTotalPlayerShards(player);
+            info.add(TranslationUtil.translatable("gui.transfer.your.shards", String.valueOf(playerShards))
+                    .color(playerShards >= estimatedCost ? NamedTextColor.GREEN : NamedTextColor.RED));
             info.add(TranslationUtil.translatable("gui.transfer.estimated.time", formatTime(estimatedTime)).color(NamedTextColor.GRAY));
             info.add(Component.empty());
             info.add(TranslationUtil.translatable("gui.transfer.selected.items.header").color(NamedTextColor.GRAY));
@@ -308,29 +313,6 @@ public class ResourceTransferGUI {
         }
     }
     
-    private int calculateItemTransferCost(double distance, List<ItemStack> items) {
-        SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
-
-        // Distance cost from config (diamonds per block)
-        double distanceCost = distance * config.getDistanceCostPerBlock();
-
-        // Stack cost from config (diamonds per item stack)
-        int stackCount = items.size();
-        double stackCost = stackCount * config.getStackCost();
-
-        int totalCost = (int) (distanceCost + stackCost);
-
-        // Apply minimum and maximum caps
-        return Math.min(config.getMaximumCost(), Math.max(config.getMinimumCost(), totalCost));
-    }
-    
-    private long calculateDeliveryTime(double distance) {
-        SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
-        long baseTime = config.getBaseTimeMs();
-        long distanceTime = (long) (distance * config.getTimePerBlockMs());
-        return baseTime + distanceTime;
-    }
-    
     private String formatTime(long millis) {
         if (millis <= 0) return TranslationUtil.translate("time.ready");
         
@@ -355,17 +337,17 @@ public class ResourceTransferGUI {
         selectedItems.clear();
         selectionAmounts.clear();
         
-        // Select all items from the source caravan inventory
-        for (ItemStack itemStack : sourceCaravan.getItemInventory()) {
+        // Select all items from the source caravan inventory, the snapshot already holds copies
+        for (ItemStack itemStack : sourceCaravan.snapshotItemInventory()) {
             if (itemStack != null && itemStack.getType() != Material.AIR) {
-                ItemStack selectedItem = itemStack.clone();
-                selectedItems.add(selectedItem);
-                selectionAmounts.put(selectedItem, itemStack.getAmount());
+                selectedItems.add(itemStack);
+                selectionAmounts.put(itemStack, itemStack.getAmount());
             }
         }
     }
     
     private void showConfirmationPreview() {
+        long start = System.nanoTime();
         Gui gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.transfer.preview.title").color(NamedTextColor.GOLD))
                 .rows(6)
@@ -433,5 +415,6 @@ public class ResourceTransferGUI {
         gui.setItem(49, closeItem);
         
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
     }
 }
\ No newline at end of file
@@ -3,8 +3,11 @@ package net.mysterria.silkroad.domain.caravan.gui;
 import dev.triumphteam.gui.builder.item.ItemBuilder;
 import dev.triumphteam.gui.guis.Gui;
 import dev.triumphteam.gui.guis.GuiItem;
+import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
+import net.mysterria.silkroad.domain.caravan.manager.ClaimAllResult;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.mysterria.silkroad.utils.TranslationUtil;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -31,9 +34,11 @@ public class TransferClaimGUI {
     }
     
     public void open() {
+        long start = System.nanoTime();
         List<ResourceTransfer> deliveredTransfers = caravanManager.getDeliveredTransfersForPlayer(player.getUniqueId());
         
-        int rows = Math.max(1, Math.min(6, (deliveredTransfers.size() / 9) + 1));
+        // The last row is kept free for the buttons
+        int rows = Math.min(6, (deliveredTransfers.size() + 8) / 9 + 1);
         
         Gui gui = Gui.gui()
                 .title(TranslationUtil.translatable("gui.awaiting.transfers", NamedTextColor.GOLD).decoration(TextDecoration.ITALIC, false))
@@ -59,6 +64,7 @@ public class TransferClaimGUI {
                 ResourceTransfer transfer = deliveredTransfers.get(i);
                 gui.setItem(i, createTransferItem(transfer));
             }
+            gui.setItem(rows * 9 - 5, createClaimAllItem(deliveredTransfers.size()));
         }
         
         // Add close button
@@ -73,6 +79,7 @@ public class TransferClaimGUI {
         }));
         
         gui.open(player);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.GUI_OPEN, start);
     }
     
     private GuiItem createTransferItem(ResourceTransfer transfer) {
@@ -140,6 +147,30 @@ public class TransferClaimGUI {
         });
     }
     
+    private GuiItem createClaimAllItem(int transferCount) {
+        ItemStack item = new ItemStack(Material.HOPPER);
+        ItemMeta meta = item.getItemMeta();
+        meta.displayName(TranslationUtil.translatable("gui.claim.all", NamedTextColor.GREEN).decoration(TextDecoration.ITALIC, false));
+        meta.lore(List.of(
+                TranslationUtil.translatable("gui.claim.all.description", NamedTextColor.GRAY, transferCount).decoration(TextDecoration.ITALIC, false)
+        ));
+        item.setItemMeta(meta);
+        
+        return ItemBuilder.from(item).asGuiItem(event -> {
+            event.setCancelled(true);
+            
+            ClaimAllResult result = caravanManager.claimAllTransfers(player);
+            if (result.getClaimed() > 0) {
+                player.sendMessage(TranslationUtil.translatable("transfer.claim.all.success", NamedTextColor.GREEN, result.getClaimed()));
+            }
+            if (result.getSkipped() > 0) {
+                player.sendMessage(TranslationUtil.translatable("transfer.claim.all.skipped", NamedTextColor.YELLOW, result.getSkipped()));
+                open();
+            } else {
+                player.closeInventory();
+            }
+        });
+    }
     
     private String formatTime(long timeMillis) {
         long seconds = TimeUnit.MILLISECONDS.toSeconds(timeMillis);
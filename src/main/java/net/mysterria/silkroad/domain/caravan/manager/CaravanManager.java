@@ -4,34 +4,88 @@ import net.mysterria.silkroad.SilkRoad;
 import net.mysterria.silkroad.config.SilkRoadConfig;
 import net.mysterria.silkroad.domain.caravan.model.Caravan;
 import net.mysterria.silkroad.domain.caravan.model.CaravanStorage;
+import net.mysterria.silkroad.domain.caravan.model.ChunkTerritory;
 import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
-import net.mysterria.silkroad.utils.ShardUtils;
+import net.mysterria.silkroad.domain.caravan.storage.CaravanJournal;
+import net.mysterria.silkroad.domain.caravan.storage.CaravanPersistence;
+import net.mysterria.silkroad.domain.caravan.storage.ItemFormatConverter;
+import net.mysterria.silkroad.domain.caravan.storage.StorageBatch;
+import net.mysterria.silkroad.domain.caravan.storage.StorageException;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
+import net.mysterria.silkroad.scheduler.TaskHandle;
+import net.mysterria.silkroad.utils.ChunkKey;
+import net.mysterria.silkroad.utils.LongObjectHashMap;
+import net.mysterria.silkroad.utils.ShardService;
 import net.mysterria.silkroad.utils.HuskTownsIntegration;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.scheduler.BukkitRunnable;
+import org.bukkit.inventory.PlayerInventory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 import org.bukkit.Bukkit;
 
+/**
+ * Owns all caravans and transfers.
+ *
+ * The caravan and transfer maps are concurrent. A caravan's inventory, resources and members only change
+ * while its own lock is held. The secondary indexes are guarded by {@code indexLock}; a caravan lock may be
+ * held when taking the index lock, never the other way round.
+ */
 public class CaravanManager {
     
-    private final Map<String, Caravan> caravans = new HashMap<>();
-    private final Map<String, ResourceTransfer> activeTransfers = new HashMap<>();
+    private final Map<String, Caravan> caravans = new ConcurrentHashMap<>();
+    private final Map<String, ResourceTransfer> activeTransfers = new ConcurrentHashMap<>();
+    private final Object indexLock = new Object();
+    private final TransferSchedule transferSchedule = new TransferSchedule();
+    private final TransferIndex transferIndex = new TransferIndex();
+    private final CaravanSpatialIndex spatialIndex = new CaravanSpatialIndex();
+    private final CaravanRouteTable routeTable = new CaravanRouteTable();
+    // Territory chunk -> owning caravan, per world
+    private final Map<String, LongObjectHashMap<Caravan>> chunkOwners = new HashMap<>();
+    // Owning HuskTowns town ID -> caravan, each town has at most one
+    private final Map<Integer, Caravan> townCaravans = new HashMap<>();
+    // Member UUID -> caravans the player belongs to
+    private final Map<UUID, Set<Caravan>> memberCaravans = new HashMap<>();
     private final CaravanStorage storage;
+    private final CaravanPersistence persistence;
     private final Logger logger;
-    private BukkitRunnable transferProcessor;
-    // Admin temporary chunk selections: UUID -> set of keys "world:x:z"
-    private final Map<UUID, Set<String>> selections = new HashMap<>();
+    private TaskHandle transferProcessor;
+    // Caravans without a recorded town whose territory no single town claims, they are not checked again
+    private final Set<String> townlessCaravans = ConcurrentHashMap.newKeySet();
+    private volatile boolean legacyTownsResolved;
+    // Admin temporary chunk selections
+    private final Map<UUID, ChunkTerritory> selections = new ConcurrentHashMap<>();
     
     public CaravanManager() {
+        this(new CaravanStorage());
+    }
+    
+    private CaravanManager(CaravanStorage storage) {
+        this(storage, new CaravanPersistence(storage, SilkRoad.getInstance().getPluginConfig()));
+    }
+    
+    /**
+     * Loads everything from the given storage and replays the persistence journal on top of it
+     */
+    public CaravanManager(CaravanStorage storage, CaravanPersistence persistence) {
         this.logger = SilkRoad.getInstance().getLogger();
-        this.storage = new CaravanStorage();
+        this.storage = storage;
+        this.persistence = persistence;
+        long loadStart = System.nanoTime();
         loadCaravans();
         loadTransfers();
+        replayJournal();
+        indexLoadedCaravans();
+        indexLoadedTransfers();
+        resolveLegacyTowns();
+        logger.info("Storage loaded in " + (System.nanoTime() - loadStart) / 1_000_000L + "ms");
+        persistence.start();
+        new ItemFormatConverter(storage, persistence, caravans::get, activeTransfers::get,
+                SilkRoad.getInstance().getPluginConfig().getItemFormatConversionBatchSize()).start();
         startTransferProcessor();
     }
     
@@ -41,14 +95,20 @@ public class CaravanManager {
         }
         
         Caravan caravan = new Caravan(id, name, location);
-        caravans.put(id, caravan);
-        storage.saveCaravan(caravan);
+        synchronized (indexLock) {
+            if (caravans.putIfAbsent(id, caravan) != null) {
+                return null;
+            }
+            indexCaravan(caravan);
+        }
+        persistence.recordCaravanCreated(caravan);
+        persistence.saveCaravan(caravan);
         
         logger.info("Created caravan: " + id + " at " + locationToString(location));
         return caravan;
     }
 
-    public Caravan createCaravan(String id, String name, Location location, Set<String> territoryChunks) {
+    public Caravan createCaravan(String id, String name, Location location, ChunkTerritory territoryChunks) {
         CaravanCreationResult result = createCaravanWithValidation(id, name, location, territoryChunks);
         return result.isSuccess() ? result.getCaravan() : null;
     }
@@ -58,14 +118,25 @@ public class CaravanManager {
      * @param id Caravan ID
      * @param name Caravan name
      * @param location Caravan location
-     * @param territoryChunks Set of territory chunks
+     * @param territoryChunks Territory chunks
      * @return CaravanCreationResult with details about success/failure
      */
-    public CaravanCreationResult createCaravanWithValidation(String id, String name, Location location, Set<String> territoryChunks) {
+    public CaravanCreationResult createCaravanWithValidation(String id, String name, Location location, ChunkTerritory territoryChunks) {
         if (caravans.containsKey(id)) {
             return CaravanCreationResult.error("A caravan with that name already exists!");
         }
         
+        if (territoryChunks != null) {
+            String overlap;
+            synchronized (indexLock) {
+                overlap = findClaimedChunk(territoryChunks);
+            }
+            if (overlap != null) {
+                logger.warning("Failed to create caravan " + id + ": " + overlap);
+                return CaravanCreationResult.error("§c" + overlap);
+            }
+        }
+        
         // Validate territory chunks with HuskTowns if available
         HuskTownsIntegration.ValidationResult validation = null;
         if (territoryChunks != null && !territoryChunks.isEmpty()) {
@@ -78,11 +149,7 @@ public class CaravanManager {
             
             // Check if town already has a caravan
             if (validation.getTownId() != -1) {
-                Set<Set<String>> existingCaravanTerritories = caravans.values().stream()
-                        .map(Caravan::getTerritoryChunks)
-                        .collect(java.util.stream.Collectors.toSet());
-                
-                if (HuskTownsIntegration.townHasCaravan(validation.getTownId(), existingCaravanTerritories)) {
+                if (getCaravanByTownId(validation.getTownId()).isPresent()) {
                     logger.warning("Failed to create caravan " + id + ": Town '" + validation.getTownName() + "' already has a caravan");
                     return CaravanCreationResult.error("§cTown '§d" + validation.getTownName() + "§c' already has a caravan! Each town can only have one caravan.");
                 }
@@ -93,7 +160,7 @@ public class CaravanManager {
         
         Caravan caravan = new Caravan(id, name, location);
         if (territoryChunks != null) {
-            caravan.getTerritoryChunks().addAll(territoryChunks);
+            caravan.getTerritory().addAll(territoryChunks);
         }
         
         // Set town ownership information if validation was successful
@@ -109,29 +176,90 @@ public class CaravanManager {
             }
             logger.info("Added " + townMembers.size() + " town members to caravan " + id);
         }
-        caravans.put(id, caravan);
-        storage.saveCaravan(caravan);
+        synchronized (indexLock) {
+            if (caravans.containsKey(id)) {
+                return CaravanCreationResult.error("A caravan with that name already exists!");
+            }
+            // Another caravan may have claimed the chunks while HuskTowns validated them
+            String overlap = findClaimedChunk(caravan.getTerritory());
+            if (overlap != null) {
+                logger.warning("Failed to create caravan " + id + ": " + overlap);
+                return CaravanCreationResult.error("§c" + overlap);
+            }
+            caravans.put(id, caravan);
+            indexCaravan(caravan);
+        }
+        persistence.recordCaravanCreated(caravan);
+        persistence.saveCaravan(caravan);
         logger.info("Created caravan: " + id + " with territory chunks (" + (territoryChunks == null ? 0 : territoryChunks.size()) + ") at " + locationToString(location));
         return CaravanCreationResult.success(caravan);
     }
     
     public boolean removeCaravan(String id) {
-        Caravan caravan = caravans.remove(id);
+        Caravan caravan;
+        synchronized (indexLock) {
+            caravan = caravans.remove(id);
+            if (caravan != null) {
+                unindexCaravan(caravan);
+            }
+        }
         if (caravan != null) {
-            storage.deleteCaravan(id);
+            persistence.deleteCaravan(id);
             logger.info("Removed caravan: " + id);
             return true;
         }
         return false;
     }
     
-    public Optional<Caravan> getCaravan(String id) {
+    /**
+     * Moves a caravan to a new location inside its own territory, keeping the spatial index and route table in sync
+     */
+    public CaravanMoveResult moveCaravan(String id, Location location) {
         Caravan caravan = caravans.get(id);
         if (caravan == null) {
+            return CaravanMoveResult.NOT_FOUND;
+        }
+        caravan.getLock().lock();
+        try {
+            if (!location.getWorld().equals(caravan.getLocation().getWorld())) {
+                return CaravanMoveResult.OTHER_WORLD;
+            }
+            if (!caravan.getTerritory().contains(location.getWorld().getName(), location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
+                return CaravanMoveResult.OUTSIDE_TERRITORY;
+            }
+            synchronized (indexLock) {
+                if (caravans.get(id) != caravan) {
+                    return CaravanMoveResult.NOT_FOUND;
+                }
+                caravan.setLocation(location);
+                spatialIndex.add(caravan);
+                routeTable.invalidate(id);
+            }
+            persistence.saveCaravan(caravan);
+        } finally {
+            caravan.getLock().unlock();
+        }
+        logger.info("Moved caravan: " + id + " to " + locationToString(location));
+        return CaravanMoveResult.MOVED;
+    }
+    
+    public CaravanRouteTable getRouteTable() {
+        return routeTable;
+    }
+    
+    public Optional<Caravan> getCaravan(String id) {
+        Caravan caravan = caravans.get(id);
+        if (caravan == null && !persistence.isDeletePending(id)) {
             // Try to load from storage if not in cache
             caravan = storage.loadCaravan(id);
             if (caravan != null && caravan.isActive()) {
-                caravans.put(id, caravan);
+                synchronized (indexLock) {
+                    Caravan existing = caravans.putIfAbsent(id, caravan);
+                    if (existing != null) {
+                        return Optional.of(existing);
+                    }
+                    indexCaravan(caravan);
+                }
                 logger.info("Loaded caravan from storage: " + id);
             }
         }
@@ -143,16 +271,198 @@ public class CaravanManager {
     }
     
     public List<Caravan> getCaravansInRange(Location location, double maxDistance) {
-        return caravans.values().stream()
-                .filter(c -> c.getLocation().getWorld().equals(location.getWorld()))
-                .filter(c -> c.getLocation().distance(location) <= maxDistance)
-                .sorted((a, b) -> Double.compare(a.getLocation().distance(location), b.getLocation().distance(location)))
-                .toList();
+        synchronized (indexLock) {
+            return spatialIndex.findInRange(location, maxDistance);
+        }
+    }
+    
+    public Optional<Caravan> getNearestCaravan(Location location, double maxDistance) {
+        synchronized (indexLock) {
+            return Optional.ofNullable(spatialIndex.findNearest(location, maxDistance));
+        }
+    }
+
+    /**
+     * Returns the caravan whose territory contains the chunk, or null if it is unclaimed
+     */
+    public Caravan getCaravanAtChunk(String worldName, int chunkX, int chunkZ) {
+        synchronized (indexLock) {
+            LongObjectHashMap<Caravan> owners = chunkOwners.get(worldName);
+            return owners == null ? null : owners.get(ChunkKey.pack(chunkX, chunkZ));
+        }
+    }
+    
+    private String findClaimedChunk(ChunkTerritory territory) {
+        for (String worldName : territory.getWorldNames()) {
+            LongObjectHashMap<Caravan> owners = chunkOwners.get(worldName);
+            if (owners == null) {
+                continue;
+            }
+            for (long key : territory.toArray(worldName)) {
+                Caravan owner = owners.get(key);
+                if (owner != null) {
+                    return "Chunk " + ChunkKey.toString(worldName, key) + " already belongs to caravan '" + owner.getName() + "'";
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Returns the caravan owned by the given HuskTowns town
+     */
+    public Optional<Caravan> getCaravanByTownId(int townId) {
+        synchronized (indexLock) {
+            return Optional.ofNullable(townCaravans.get(townId));
+        }
+    }
+    
+    /**
+     * Caravans saved before town ownership was recorded have no owning town ID, it is resolved once from
+     * their territory so the town index finds them. Runs at load, and again when the server has finished
+     * starting if HuskTowns was not available before; caravans no single town claims are remembered and skipped.
+     */
+    public void resolveLegacyTowns() {
+        if (legacyTownsResolved || !HuskTownsIntegration.isAvailable()) {
+            return;
+        }
+        legacyTownsResolved = true;
+        for (Caravan caravan : caravans.values()) {
+            if (townlessCaravans.contains(caravan.getId())) {
+                continue;
+            }
+            if (!assignTownFromTerritory(caravan)) {
+                if (caravan.getOwningTownId() == -1 && !caravan.getTerritory().isEmpty()) {
+                    townlessCaravans.add(caravan.getId());
+                }
+                continue;
+            }
+            synchronized (indexLock) {
+                // A caravan removed meanwhile is neither indexed nor saved again
+                if (caravans.get(caravan.getId()) != caravan) {
+                    continue;
+                }
+                townCaravans.putIfAbsent(caravan.getOwningTownId(), caravan);
+            }
+            persistence.saveCaravan(caravan);
+        }
+        if (!townlessCaravans.isEmpty()) {
+            logger.info(townlessCaravans.size() + " caravans have no owning town, their territory is not claimed by a single town");
+        }
+    }
+    
+    /**
+     * @return true if the caravan had no owning town and one now claims all of its territory
+     */
+    private boolean assignTownFromTerritory(Caravan caravan) {
+        if (caravan.getOwningTownId() != -1 || caravan.getTerritory().isEmpty() || !HuskTownsIntegration.isAvailable()) {
+            return false;
+        }
+        
+        HuskTownsIntegration.ValidationResult validation = HuskTownsIntegration.validateCaravanTerritory(caravan.getTerritory());
+        if (!validation.isSuccess() || validation.getTownId() == -1) {
+            return false;
+        }
+        
+        caravan.getLock().lock();
+        try {
+            caravan.setOwningTownName(validation.getTownName());
+            caravan.setOwningTownId(validation.getTownId());
+        } finally {
+            caravan.getLock().unlock();
+        }
+        logger.info("Caravan " + caravan.getId() + " assigned to town " + validation.getTownName() + " (ID: " + validation.getTownId() + ") from its territory");
+        return true;
+    }
+    
+    private void indexCaravan(Caravan caravan) {
+        spatialIndex.add(caravan);
+        routeTable.invalidate(caravan.getId());
+        if (caravan.getOwningTownId() != -1) {
+            townCaravans.put(caravan.getOwningTownId(), caravan);
+        }
+        for (UUID memberId : caravan.getMembers()) {
+            indexMember(caravan, memberId);
+        }
+        indexTerritory(caravan);
+    }
+    
+    private void unindexCaravan(Caravan caravan) {
+        spatialIndex.remove(caravan.getId());
+        routeTable.invalidate(caravan.getId());
+        townCaravans.remove(caravan.getOwningTownId(), caravan);
+        for (UUID memberId : caravan.getMembers()) {
+            unindexMember(caravan, memberId);
+        }
+        unindexTerritory(caravan);
+    }
+    
+    private void indexTerritory(Caravan caravan) {
+        caravan.getTerritory().forEach((worldName, key) ->
+                chunkOwners.computeIfAbsent(worldName, name -> new LongObjectHashMap<>()).put(key, caravan));
+    }
+    
+    private void unindexTerritory(Caravan caravan) {
+        caravan.getTerritory().forEach((worldName, key) -> {
+            LongObjectHashMap<Caravan> owners = chunkOwners.get(worldName);
+            if (owners != null && owners.get(key) == caravan) {
+                owners.remove(key);
+            }
+        });
+    }
+
+    private void indexMember(Caravan caravan, UUID memberId) {
+        memberCaravans.computeIfAbsent(memberId, id -> new LinkedHashSet<>()).add(caravan);
+    }
+    
+    private void unindexMember(Caravan caravan, UUID memberId) {
+        Set<Caravan> memberOf = memberCaravans.get(memberId);
+        if (memberOf != null && memberOf.remove(caravan) && memberOf.isEmpty()) {
+            memberCaravans.remove(memberId);
+        }
+    }
+    
+    /**
+     * Adds a member to a caravan and the member index, the caller is responsible for saving
+     */
+    public boolean addCaravanMember(Caravan caravan, UUID playerId) {
+        caravan.getLock().lock();
+        try {
+            if (!caravan.addMember(playerId)) {
+                return false;
+            }
+            synchronized (indexLock) {
+                if (caravans.get(caravan.getId()) == caravan) {
+                    indexMember(caravan, playerId);
+                }
+            }
+            return true;
+        } finally {
+            caravan.getLock().unlock();
+        }
+    }
+    
+    /**
+     * Removes a member from a caravan and the member index, the caller is responsible for saving
+     */
+    public boolean removeCaravanMember(Caravan caravan, UUID playerId) {
+        caravan.getLock().lock();
+        try {
+            if (!caravan.removeMember(playerId)) {
+                return false;
+            }
+            synchronized (indexLock) {
+                unindexMember(caravan, playerId);
+            }
+            return true;
+        } finally {
+            caravan.getLock().unlock();
+        }
     }
 
     // Selection handling
-    public Set<String> getSelection(UUID playerId) {
-        return selections.computeIfAbsent(playerId, id -> new HashSet<>());
+    public ChunkTerritory getSelection(UUID playerId) {
+        return selections.computeIfAbsent(playerId, id -> new ChunkTerritory());
     }
 
     public void clearSelection(UUID playerId) {
@@ -160,18 +470,17 @@ public class CaravanManager {
     }
 
     public boolean toggleSelect(String worldName, int chunkX, int chunkZ, UUID playerId, boolean add) {
-        Set<String> sel = getSelection(playerId);
-        String key = worldName + ":" + chunkX + ":" + chunkZ;
+        ChunkTerritory sel = getSelection(playerId);
         if (add) {
-            if (sel.add(key)) return true; // added
-            return false; // already existed
+            return sel.add(worldName, chunkX, chunkZ);
         } else {
-            return sel.remove(key);
+            return sel.remove(worldName, chunkX, chunkZ);
         }
     }
     
     /**
-     * Creates a transfer using ItemStacks (preferred method)
+     * Creates an item transfer as one unit under the source caravan's lock: the items are taken from the
+     * source first and put back if the shards cannot be paid, so no transfer exists half-created.
      */
     public ResourceTransfer createTransfer(Player player, String sourceCaravanId, String destinationCaravanId, 
                                          List<ItemStack> itemResources) {
@@ -182,65 +491,89 @@ public class CaravanManager {
             return null;
         }
         
-        // Check if source caravan has enough item resources
-        for (ItemStack item : itemResources) {
-            if (source.getItemStackAmount(item) < item.getAmount()) {
-                return null;
-            }
-        }
-        
-        double distance = source.distanceTo(destination);
-        int cost = calculateItemTransferCost(distance, itemResources);
-        
-        // USING ENERGY SHARDS FOR TRANSFER COST
         SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
-        if (config.isTransferDebugEnabled()) {
-            logger.info("DEBUG: Transfer cost calculated as " + cost + " shards for player " + player.getName());
-        }
+        ShardService shardService = SilkRoad.getInstance().getShardService();
         
-        // Check if player has enough shards to pay for the transfer
-        if (!hasEnoughShards(player, cost)) {
+        source.getLock().lock();
+        try {
+            // Check if source caravan has enough item resources
+            for (ItemStack item : itemResources) {
+                if (source.getItemStackAmount(item) < item.getAmount()) {
+                    return null;
+                }
+            }
+            
+            CaravanRouteTable.RouteQuote quote = routeTable.quote(source, destination, itemResources.size());
+            if (!quote.isSameWorld()) {
+                return null; // Caravans can only travel within one world
+            }
+            double distance = quote.getDistance();
+            int cost = quote.getCost();
+            
+            // USING ENERGY SHARDS FOR TRANSFER COST
             if (config.isTransferDebugEnabled()) {
-                logger.info("DEBUG: Player " + player.getName() + " does not have enough shards. Required: " + cost + ", Has: " + countPlayerShards(player));
+                logger.info("DEBUG: Transfer cost calculated as " + cost + " shards for player " + player.getName());
             }
-            return null; // Not enough shards
-        }
-        
-        if (config.isTransferDebugEnabled()) {
-            logger.info("DEBUG: Player " + player.getName() + " has enough shards (" + countPlayerShards(player) + "/" + cost + ")");
-        }
-        
-        // Consume shards from player's inventory
-        if (!consumeShards(player, cost)) {
+            
+            // Check if player has enough shards to pay for the transfer
+            int playerShards = shardService.getTotalPlayerShards(player);
+            if (playerShards < cost) {
+                if (config.isTransferDebugEnabled()) {
+                    logger.info("DEBUG: Player " + player.getName() + " does not have enough shards. Required: " + cost + ", Has: " + playerShards);
+                }
+                return null; // Not enough shards
+            }
+            
+            // Remove item resources from source caravan, putting back what was taken if any removal fails
+            List<ItemStack> removed = new ArrayList<>(itemResources.size());
+            for (ItemStack item : itemResources) {
+                if (!source.removeItemStack(item, item.getAmount())) {
+                    restoreItemStacks(source, removed);
+                    return null;
+                }
+                removed.add(item);
+            }
+            
+            // Consume shards from player's inventory
+            if (!shardService.consumeShards(player, cost)) {
+                if (config.isTransferDebugEnabled()) {
+                    logger.info("DEBUG: Failed to consume shards from player " + player.getName() + " inventory");
+                }
+                restoreItemStacks(source, removed);
+                return null; // Failed to consume shards
+            }
+            
             if (config.isTransferDebugEnabled()) {
-                logger.info("DEBUG: Failed to consume shards from player " + player.getName() + " inventory");
+                logger.info("DEBUG: Successfully consumed " + cost + " shards from player " + player.getName());
             }
-            return null; // Failed to consume shards
-        }
-        
-        if (config.isTransferDebugEnabled()) {
-            logger.info("DEBUG: Successfully consumed " + cost + " shards from player " + player.getName());
+            
+            for (ItemStack item : removed) {
+                persistence.recordItemRemoved(source, item);
+            }
+            
+            long deliveryTime = System.currentTimeMillis() + quote.getDeliveryTimeMs();
+            
+            String transferId = UUID.randomUUID().toString();
+            ResourceTransfer transfer = new ResourceTransfer(transferId, sourceCaravanId, destinationCaravanId, 
+                    player, itemResources, distance, cost, deliveryTime);
+            transfer.setStatus(ResourceTransfer.TransferStatus.IN_TRANSIT);
+            registerTransfer(transfer);
+            
+            persistence.saveCaravan(source);
+            persistence.saveTransfer(transfer);
+            
+            SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.TRANSFERS_CREATED);
+            logger.info("Created ItemStack transfer: " + transferId + " from " + sourceCaravanId + " to " + destinationCaravanId + " for " + cost + " shards");
+            return transfer;
+        } finally {
+            source.getLock().unlock();
         }
-        
-        long deliveryTime = System.currentTimeMillis() + calculateDeliveryTime(distance);
-        
-        String transferId = UUID.randomUUID().toString();
-        ResourceTransfer transfer = new ResourceTransfer(transferId, sourceCaravanId, destinationCaravanId, 
-                player, itemResources, distance, cost, deliveryTime);
-        
-        // Remove item resources from source caravan
-        for (ItemStack item : itemResources) {
-            source.removeItemStack(item, item.getAmount());
+    }
+    
+    private void restoreItemStacks(Caravan caravan, List<ItemStack> items) {
+        for (ItemStack item : items) {
+            caravan.addItemStack(item.clone());
         }
-        
-        transfer.setStatus(ResourceTransfer.TransferStatus.IN_TRANSIT);
-        activeTransfers.put(transferId, transfer);
-        
-        storage.saveCaravan(source);
-        storage.saveTransfer(transfer);
-        
-        logger.info("Created ItemStack transfer: " + transferId + " from " + sourceCaravanId + " to " + destinationCaravanId + " for " + cost + " shards");
-        return transfer;
     }
     
     /**
@@ -257,41 +590,50 @@ public class CaravanManager {
             return null;
         }
         
-        for (Map.Entry<Material, Integer> entry : resources.entrySet()) {
-            if (source.getResourceAmount(entry.getKey()) < entry.getValue()) {
-                return null;
+        source.getLock().lock();
+        try {
+            for (Map.Entry<Material, Integer> entry : resources.entrySet()) {
+                if (source.getResourceAmount(entry.getKey()) < entry.getValue()) {
+                    return null;
+                }
             }
-        }
-        
-        double distance = source.distanceTo(destination);
-        int cost = calculateTransferCostLegacy(distance, resources);
         
-        if (SilkRoad.getInstance().getShardUtils().getTotalPlayerShards(player) < cost) {
-            return null; // Not enough shards
-        }
+            int totalItems = resources.values().stream().mapToInt(Integer::intValue).sum();
+            CaravanRouteTable.RouteQuote quote = routeTable.quoteLegacy(source, destination, totalItems);
+            if (!quote.isSameWorld()) {
+                return null; // Caravans can only travel within one world
+            }
+            double distance = quote.getDistance();
+            int cost = quote.getCost();
         
-        if (!SilkRoad.getInstance().getShardUtils().consumeShards(player, cost)) {
-            return null; // Failed to consume shards
-        }
+            // Counts and consumes in one pass, fails without touching the inventory if short
+            if (!SilkRoad.getInstance().getShardService().consumeShards(player, cost)) {
+                return null; // Not enough shards
+            }
         
-        long deliveryTime = System.currentTimeMillis() + calculateDeliveryTime(distance);
+            long deliveryTime = System.currentTimeMillis() + quote.getDeliveryTimeMs();
         
-        String transferId = UUID.randomUUID().toString();
-        ResourceTransfer transfer = new ResourceTransfer(transferId, sourceCaravanId, destinationCaravanId, 
-                player, resources, distance, cost, deliveryTime);
+            String transferId = UUID.randomUUID().toString();
+            ResourceTransfer transfer = new ResourceTransfer(transferId, sourceCaravanId, destinationCaravanId, 
+                    player, resources, distance, cost, deliveryTime);
         
-        for (Map.Entry<Material, Integer> entry : resources.entrySet()) {
-            source.removeResource(entry.getKey(), entry.getValue());
-        }
+            for (Map.Entry<Material, Integer> entry : resources.entrySet()) {
+                source.removeResource(entry.getKey(), entry.getValue());
+                persistence.recordResourceRemoved(source, entry.getKey(), entry.getValue());
+            }
         
-        transfer.setStatus(ResourceTransfer.TransferStatus.IN_TRANSIT);
-        activeTransfers.put(transferId, transfer);
+            transfer.setStatus(ResourceTransfer.TransferStatus.IN_TRANSIT);
+            registerTransfer(transfer);
         
-        storage.saveCaravan(source);
-        storage.saveTransfer(transfer);
+            persistence.saveCaravan(source);
+            persistence.saveTransfer(transfer);
         
-        logger.info("Created legacy transfer: " + transferId + " from " + sourceCaravanId + " to " + destinationCaravanId + " for " + cost + " shards");
-        return transfer;
+            SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.TRANSFERS_CREATED);
+            logger.info("Created legacy transfer: " + transferId + " from " + sourceCaravanId + " to " + destinationCaravanId + " for " + cost + " shards");
+            return transfer;
+        } finally {
+            source.getLock().unlock();
+        }
     }
     
     public Optional<ResourceTransfer> getTransfer(String id) {
@@ -299,110 +641,275 @@ public class CaravanManager {
     }
     
     public List<ResourceTransfer> getPlayerTransfers(UUID playerId) {
-        return activeTransfers.values().stream()
-                .filter(t -> t.getPlayerId().equals(playerId))
-                .sorted((a, b) -> Long.compare(a.getDeliveryTime(), b.getDeliveryTime()))
-                .toList();
-    }
-    
-    private int calculateTransferCostLegacy(double distance, Map<Material, Integer> resources) {
-        SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
-        int totalItems = resources.values().stream().mapToInt(Integer::intValue).sum();
-        double baseCost = distance * config.getDistanceCostPerBlock();
-        double itemCost = totalItems * (config.getStackCost() / 4); // Legacy uses per-item cost, not per-stack
-        int totalCost = (int) (baseCost + itemCost);
-
-        // Apply minimum and maximum caps
-        return Math.min(config.getMaximumCost(), Math.max(config.getMinimumCost(), totalCost));
-    }
-    
-    private long calculateDeliveryTime(double distance) {
-        SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
-        long baseTime = config.getBaseTimeMs();
-        long distanceTime = (long) (distance * config.getTimePerBlockMs());
-        return baseTime + distanceTime;
+        synchronized (indexLock) {
+            return transferIndex.getByPlayer(playerId);
+        }
     }
     
     private void loadCaravans() {
         logger.info("Loading caravans...");
         caravans.clear();
         
+        long start = System.nanoTime();
         List<String> caravanIds = storage.getAllCaravanIds();
-        for (String id : caravanIds) {
-            Caravan caravan = storage.loadCaravan(id);
-            if (caravan != null && caravan.isActive()) {
-                caravans.put(id, caravan);
+        for (Caravan caravan : storage.loadCaravans(caravanIds)) {
+            if (caravan.isActive()) {
+                caravans.put(caravan.getId(), caravan);
             }
         }
         
-        logger.info("Loaded " + caravans.size() + " caravans.");
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.STORAGE_LOAD, start);
+        logger.info("Loaded " + caravans.size() + " caravans." + formatLoadRate(caravanIds.size(), start));
     }
     
     private void loadTransfers() {
         logger.info("Loading transfers...");
         activeTransfers.clear();
-        
-        List<String> transferIds = storage.getAllTransferIds();
-        for (String id : transferIds) {
-            ResourceTransfer transfer = storage.loadTransfer(id);
-            if (transfer != null && 
-                (transfer.getStatus() == ResourceTransfer.TransferStatus.IN_TRANSIT ||
-                 transfer.getStatus() == ResourceTransfer.TransferStatus.PENDING ||
-                 transfer.getStatus() == ResourceTransfer.TransferStatus.DELIVERED)) {
-                activeTransfers.put(id, transfer);
+        long start = System.nanoTime();
+        
+        List<String> transferIds = storage.getTransferIds(ResourceTransfer.TransferStatus.IN_TRANSIT,
+                ResourceTransfer.TransferStatus.PENDING, ResourceTransfer.TransferStatus.DELIVERED);
+        for (ResourceTransfer transfer : storage.loadTransfers(transferIds)) {
+            if (transfer.getStatus() == ResourceTransfer.TransferStatus.IN_TRANSIT ||
+                transfer.getStatus() == ResourceTransfer.TransferStatus.PENDING ||
+                transfer.getStatus() == ResourceTransfer.TransferStatus.DELIVERED) {
+                activeTransfers.put(transfer.getId(), transfer);
             }
         }
         
-        logger.info("Loaded " + activeTransfers.size() + " active transfers.");
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.STORAGE_LOAD, start);
+        logger.info("Loaded " + activeTransfers.size() + " active transfers." + formatLoadRate(transferIds.size(), start));
     }
     
-    private void startTransferProcessor() {
-        transferProcessor = new BukkitRunnable() {
-            @Override
-            public void run() {
-                processTransfers();
-            }
-        };
-        transferProcessor.runTaskTimer(SilkRoad.getInstance(), 20L, 20L);
+    private String formatLoadRate(int documents, long startNanos) {
+        long elapsedMs = Math.max(1L, (System.nanoTime() - startNanos) / 1_000_000L);
+        return " (" + documents + " documents in " + elapsedMs + "ms, " + (documents * 1000L / elapsedMs) + " documents/s)";
     }
     
-    private void processTransfers() {
-        List<ResourceTransfer> completed = new ArrayList<>();
-        
+    /**
+     * Applies journal records newer than the loaded snapshots, then writes the affected caravans and
+     * transfers synchronously as one batch so the replayed segments can be dropped. If that write fails
+     * the changes are queued like any other save and the segments stay until they have been written.
+     */
+    private void replayJournal() {
+        long highestSequence = 0;
+        for (Caravan caravan : caravans.values()) {
+            highestSequence = Math.max(highestSequence, caravan.getJournalSequence());
+        }
         for (ResourceTransfer transfer : activeTransfers.values()) {
-            if (transfer.isReadyForDelivery()) {
-                if (completeTransfer(transfer)) {
-                    completed.add(transfer);
+            highestSequence = Math.max(highestSequence, transfer.getJournalSequence());
+        }
+        
+        List<CaravanJournal.Entry> entries = persistence.readJournal();
+        if (entries.isEmpty()) {
+            persistence.completeReplay(highestSequence, true);
+            return;
+        }
+        
+        logger.info("Replaying " + entries.size() + " journal records...");
+        Map<String, Caravan> touchedCaravans = new LinkedHashMap<>();
+        Map<String, ResourceTransfer> touchedTransfers = new LinkedHashMap<>();
+        // Collects the deletes as they are replayed, the touched entities are snapshotted into it at the end
+        StorageBatch recovered = new StorageBatch();
+        int applied = 0;
+        
+        for (CaravanJournal.Entry entry : entries) {
+            try {
+                if (applyJournalEntry(entry, touchedCaravans, touchedTransfers, recovered)) {
+                    applied++;
                 }
+            } catch (Exception e) {
+                logger.severe("Failed to replay journal record " + entry.getSequence() + " (" + entry.getOperation() + " " + entry.getTargetId() + "): " + e.getMessage());
             }
         }
         
-        // Only remove completed transfers that were successfully processed
-        // Delivered transfers stay active until claimed
-        for (ResourceTransfer transfer : completed) {
-            if (transfer.getStatus() != ResourceTransfer.TransferStatus.DELIVERED) {
-                activeTransfers.remove(transfer.getId());
-                storage.deleteTransfer(transfer.getId());
+        Map<Caravan, Integer> takenSections = new HashMap<>();
+        for (Caravan caravan : touchedCaravans.values()) {
+            takenSections.put(caravan, storage.snapshotChanges(caravan, recovered));
+        }
+        for (ResourceTransfer transfer : touchedTransfers.values()) {
+            recovered.writeTransfer(transfer.getId(), storage.snapshotTransfer(transfer));
+        }
+        
+        boolean written = true;
+        try {
+            storage.writeBatch(recovered);
+        } catch (StorageException e) {
+            logger.severe(e.getMessage() + ", keeping the journal until the recovered changes are written");
+            written = false;
+        }
+        persistence.completeReplay(Math.max(highestSequence, entries.get(entries.size() - 1).getSequence()), written);
+        if (!written) {
+            takenSections.forEach(Caravan::restoreDirtySections);
+            recovered.getCaravanDeletes().forEach(persistence::deleteCaravan);
+            recovered.getTransferDeletes().forEach(persistence::deleteTransfer);
+            touchedCaravans.values().forEach(persistence::saveCaravan);
+            touchedTransfers.values().forEach(persistence::rewriteTransfer);
+        }
+        logger.info("Replayed " + applied + " journal records, " + touchedCaravans.size() + " caravans and " + touchedTransfers.size() + " transfers recovered.");
+    }
+    
+    private boolean applyJournalEntry(CaravanJournal.Entry entry, Map<String, Caravan> touchedCaravans,
+                                      Map<String, ResourceTransfer> touchedTransfers, StorageBatch recovered) {
+        String id = entry.getTargetId();
+        long sequence = entry.getSequence();
+        
+        switch (entry.getOperation()) {
+            case CARAVAN_CREATE -> {
+                // The caravan itself is restored from its snapshot, the record only reserves the sequence
+                return false;
+            }
+            case CARAVAN_DELETE -> {
+                Caravan caravan = caravans.get(id);
+                if (caravan == null || caravan.getJournalSequence() >= sequence) {
+                    return false;
+                }
+                caravans.remove(id);
+                touchedCaravans.remove(id);
+                recovered.deleteCaravan(id);
+                return true;
+            }
+            case ITEM_ADD, ITEM_REMOVE, RESOURCE_ADD, RESOURCE_REMOVE -> {
+                Caravan caravan = caravans.get(id);
+                if (caravan == null || caravan.getJournalSequence() >= sequence) {
+                    return false;
+                }
+                switch (entry.getOperation()) {
+                    case ITEM_ADD -> caravan.addItemStack(persistence.decodeItem(entry.getPayload()));
+                    case ITEM_REMOVE -> {
+                        ItemStack item = persistence.decodeItem(entry.getPayload());
+                        caravan.removeItemStack(item, item.getAmount());
+                    }
+                    case RESOURCE_ADD -> persistence.decodeResource(entry.getPayload()).forEach(caravan::addResource);
+                    default -> persistence.decodeResource(entry.getPayload()).forEach(caravan::removeResource);
+                }
+                caravan.setJournalSequence(sequence);
+                touchedCaravans.put(id, caravan);
+                return true;
             }
+            case TRANSFER_PUT -> {
+                ResourceTransfer existing = activeTransfers.get(id);
+                if (existing != null && existing.getJournalSequence() >= sequence) {
+                    return false;
+                }
+                ResourceTransfer transfer = persistence.decodeTransfer(id, entry.getPayload());
+                if (transfer == null) {
+                    return false;
+                }
+                transfer.setJournalSequence(sequence);
+                if (transfer.getStatus() == ResourceTransfer.TransferStatus.FAILED) {
+                    activeTransfers.remove(id);
+                } else {
+                    activeTransfers.put(id, transfer);
+                }
+                touchedTransfers.put(id, transfer);
+                return true;
+            }
+            case TRANSFER_DELETE -> {
+                ResourceTransfer existing = activeTransfers.get(id);
+                if (existing != null && existing.getJournalSequence() >= sequence) {
+                    return false;
+                }
+                activeTransfers.remove(id);
+                touchedTransfers.remove(id);
+                recovered.deleteTransfer(id);
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+    
+    private void indexLoadedCaravans() {
+        spatialIndex.clear();
+        chunkOwners.clear();
+        townCaravans.clear();
+        memberCaravans.clear();
+        for (Caravan caravan : caravans.values()) {
+            indexCaravan(caravan);
+        }
+    }
+    
+    private void indexLoadedTransfers() {
+        transferSchedule.clear();
+        transferIndex.clear();
+        for (ResourceTransfer transfer : activeTransfers.values()) {
+            transferIndex.add(transfer);
+            if (transfer.getStatus() == ResourceTransfer.TransferStatus.IN_TRANSIT) {
+                transferSchedule.schedule(transfer);
+            }
+        }
+    }
+    
+    private void registerTransfer(ResourceTransfer transfer) {
+        synchronized (indexLock) {
+            activeTransfers.put(transfer.getId(), transfer);
+            transferIndex.add(transfer);
+            if (transfer.getStatus() == ResourceTransfer.TransferStatus.IN_TRANSIT) {
+                transferSchedule.schedule(transfer);
+            }
+        }
+    }
+    
+    /**
+     * @return false if the transfer was already gone, so only one caller can ever claim it
+     */
+    private boolean unregisterTransfer(String transferId) {
+        synchronized (indexLock) {
+            ResourceTransfer transfer = activeTransfers.remove(transferId);
+            if (transfer != null) {
+                transferIndex.remove(transfer);
+            }
+            transferSchedule.cancel(transferId);
+            return transfer != null;
         }
     }
     
+    private void startTransferProcessor() {
+        // Touches no entity or world, players are notified on their own threads
+        transferProcessor = SilkRoad.getInstance().getTaskScheduler().runGlobalTimer(this::processTransfers, 20L, 20L);
+    }
+    
+    private void processTransfers() {
+        long start = System.nanoTime();
+        // Only transfers whose delivery time has passed are touched, delivered ones wait for a claim outside the schedule
+        List<ResourceTransfer> due;
+        synchronized (indexLock) {
+            due = transferSchedule.pollDue(System.currentTimeMillis());
+        }
+        for (ResourceTransfer transfer : due) {
+            if (completeTransfer(transfer)) {
+                unregisterTransfer(transfer.getId());
+                persistence.deleteTransfer(transfer.getId());
+            }
+        }
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.TRANSFER_PROCESS, start);
+    }
+    
     private boolean completeTransfer(ResourceTransfer transfer) {
         Caravan destination = caravans.get(transfer.getDestinationCaravanId());
         if (destination == null) {
-            transfer.setStatus(ResourceTransfer.TransferStatus.FAILED);
-            storage.saveTransfer(transfer);
+            synchronized (indexLock) {
+                transferIndex.updateStatus(transfer, ResourceTransfer.TransferStatus.FAILED);
+            }
+            SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.TRANSFERS_FAILED);
+            persistence.saveTransfer(transfer);
             return false;
         }
         
         // Mark as delivered but don't add to caravan inventory yet
         // Players will need to claim the transfer
-        transfer.setStatus(ResourceTransfer.TransferStatus.DELIVERED);
-        storage.saveTransfer(transfer);
+        synchronized (indexLock) {
+            transferIndex.updateStatus(transfer, ResourceTransfer.TransferStatus.DELIVERED);
+        }
+        SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.TRANSFERS_DELIVERED);
+        persistence.saveTransfer(transfer);
         
         Player player = SilkRoad.getInstance().getServer().getPlayer(transfer.getPlayerId());
         if (player != null && player.isOnline()) {
-            player.sendMessage("§a✓ Your caravan delivery has arrived! Use /silkroad transfers to claim it.");
+            SilkRoad.getInstance().getTaskScheduler().runForEntity(player,
+                    () -> player.sendMessage("§a✓ Your caravan delivery has arrived! Use /silkroad transfers to claim it."));
         }
         
         logger.info("Transfer ready for claiming: " + transfer.getId());
@@ -420,8 +927,8 @@ public class CaravanManager {
             return false;
         }
         
-        caravan.addMember(player.getUniqueId());
-        storage.saveCaravan(caravan);
+        addCaravanMember(caravan, player.getUniqueId());
+        persistence.saveCaravan(caravan);
         logger.info("Added member " + playerName + " to caravan " + caravanId);
         return true;
     }
@@ -437,8 +944,8 @@ public class CaravanManager {
             return false;
         }
         
-        caravan.removeMember(player.getUniqueId());
-        storage.saveCaravan(caravan);
+        removeCaravanMember(caravan, player.getUniqueId());
+        persistence.saveCaravan(caravan);
         logger.info("Removed member " + playerName + " from caravan " + caravanId);
         return true;
     }
@@ -455,16 +962,16 @@ public class CaravanManager {
     }
     
     public List<Caravan> getPlayerCaravans(UUID playerId) {
-        return caravans.values().stream()
-                .filter(caravan -> caravan.hasAccess(playerId))
-                .toList();
+        // Access is membership, so both lookups share the member index
+        return getPlayerMemberCaravans(playerId);
     }
     
     // Renamed for clarity - returns caravans where player is a member (has full access)
     public List<Caravan> getPlayerMemberCaravans(UUID playerId) {
-        return caravans.values().stream()
-                .filter(caravan -> caravan.isMember(playerId))
-                .toList();
+        synchronized (indexLock) {
+            Set<Caravan> memberOf = memberCaravans.get(playerId);
+            return memberOf == null ? List.of() : List.copyOf(memberOf);
+        }
     }
     
     // Deprecated method for backwards compatibility
@@ -474,21 +981,19 @@ public class CaravanManager {
     }
     
     public List<ResourceTransfer> getIncomingTransfers(UUID playerId) {
-        return activeTransfers.values().stream()
-                .filter(transfer -> {
-                    Caravan destination = caravans.get(transfer.getDestinationCaravanId());
-                    return destination != null && destination.hasAccess(playerId);
-                })
-                .sorted((a, b) -> Long.compare(a.getDeliveryTime(), b.getDeliveryTime()))
-                .toList();
+        List<String> accessibleCaravanIds = new ArrayList<>();
+        for (Caravan caravan : getPlayerCaravans(playerId)) {
+            accessibleCaravanIds.add(caravan.getId());
+        }
+        synchronized (indexLock) {
+            return transferIndex.getByDestinations(accessibleCaravanIds);
+        }
     }
     
     public List<ResourceTransfer> getDeliveredTransfersForPlayer(UUID playerId) {
-        return activeTransfers.values().stream()
-                .filter(transfer -> transfer.getPlayerId().equals(playerId) && 
-                        transfer.getStatus() == ResourceTransfer.TransferStatus.DELIVERED)
-                .sorted((a, b) -> Long.compare(a.getDeliveryTime(), b.getDeliveryTime()))
-                .toList();
+        synchronized (indexLock) {
+            return transferIndex.getDeliveredByPlayer(playerId);
+        }
     }
     
     public List<ResourceTransfer> getDeliveredTransfersForCaravan(String caravanId, UUID playerId) {
@@ -497,11 +1002,9 @@ public class CaravanManager {
             return new ArrayList<>();
         }
         
-        return activeTransfers.values().stream()
-                .filter(transfer -> transfer.getDestinationCaravanId().equals(caravanId) && 
-                        transfer.getStatus() == ResourceTransfer.TransferStatus.DELIVERED)
-                .sorted((a, b) -> Long.compare(a.getDeliveryTime(), b.getDeliveryTime()))
-                .toList();
+        synchronized (indexLock) {
+            return transferIndex.getDeliveredByDestination(caravanId);
+        }
     }
     
     public boolean addItemToCaravan(String caravanId, Player player, Material material, int amount) {
@@ -515,27 +1018,33 @@ public class CaravanManager {
             }
         }
         
-        // Check if player has permission to add items (member)
-        if (!caravan.hasAccess(player.getUniqueId())) {
-            return false;
-        }
+        caravan.getLock().lock();
+        try {
+            // Check if player has permission to add items (member)
+            if (!caravan.hasAccess(player.getUniqueId())) {
+                return false;
+            }
         
-        // Check if player has the items in their inventory
-        if (!hasEnoughItems(player, material, amount)) {
-            return false;
-        }
+            // Check if player has the items in their inventory
+            if (!hasEnoughItems(player, material, amount)) {
+                return false;
+            }
         
-        // Remove items from player inventory
-        removeItemsFromPlayer(player, material, amount);
+            // Remove items from player inventory
+            removeItemsFromPlayer(player, material, amount);
         
-        // Add items to caravan inventory
-        caravan.getInventory().merge(material, amount, Integer::sum);
+            // Add items to caravan inventory
+            caravan.addResource(material, amount);
+            persistence.recordResourceAdded(caravan, material, amount);
         
-        // Save changes
-        storage.saveCaravan(caravan);
+            // Save changes
+            persistence.saveCaravan(caravan);
         
-        logger.info("Player " + player.getName() + " added " + amount + " " + material + " to caravan " + caravanId);
-        return true;
+            logger.info("Player " + player.getName() + " added " + amount + " " + material + " to caravan " + caravanId);
+            return true;
+        } finally {
+            caravan.getLock().unlock();
+        }
     }
     
     public boolean removeItemFromCaravan(String caravanId, Player player, Material material, int amount) {
@@ -549,37 +1058,39 @@ public class CaravanManager {
             }
         }
         
-        // Check if player has permission to remove items (member)  
-        if (!caravan.hasAccess(player.getUniqueId())) {
-            return false;
-        }
+        caravan.getLock().lock();
+        try {
+            // Check if player has permission to remove items (member)  
+            if (!caravan.hasAccess(player.getUniqueId())) {
+                return false;
+            }
         
-        // Check if caravan has enough items
-        int currentAmount = caravan.getInventory().getOrDefault(material, 0);
-        if (currentAmount < amount) {
-            return false;
-        }
+            // Check if caravan has enough items
+            int currentAmount = caravan.getInventory().getOrDefault(material, 0);
+            if (currentAmount < amount) {
+                return false;
+            }
         
-        // Check if player has inventory space
-        if (!hasInventorySpace(player, material, amount)) {
-            return false;
-        }
+            // Check if player has inventory space
+            if (!hasInventorySpace(player, material, amount)) {
+                return false;
+            }
         
-        // Remove from caravan inventory
-        if (currentAmount == amount) {
-            caravan.getInventory().remove(material);
-        } else {
-            caravan.getInventory().put(material, currentAmount - amount);
-        }
+            // Remove from caravan inventory
+            caravan.removeResource(material, amount);
+            persistence.recordResourceRemoved(caravan, material, amount);
         
-        // Add to player inventory
-        addItemsToPlayer(player, material, amount);
+            // Add to player inventory
+            addItemsToPlayer(player, material, amount);
         
-        // Save changes
-        storage.saveCaravan(caravan);
+            // Save changes
+            persistence.saveCaravan(caravan);
         
-        logger.info("Player " + player.getName() + " removed " + amount + " " + material + " from caravan " + caravanId);
-        return true;
+            logger.info("Player " + player.getName() + " removed " + amount + " " + material + " from caravan " + caravanId);
+            return true;
+        } finally {
+            caravan.getLock().unlock();
+        }
     }
     
     // New ItemStack-based methods that preserve NBT data
@@ -596,45 +1107,52 @@ public class CaravanManager {
             }
         }
         
-        // Check if player has permission to add items (member)
-        if (!caravan.hasAccess(player.getUniqueId())) {
-            return false;
-        }
+        caravan.getLock().lock();
+        try {
+            // Check if player has permission to add items (member)
+            if (!caravan.hasAccess(player.getUniqueId())) {
+                return false;
+            }
         
-        // Check if caravan can accept the item stack
-        if (!caravan.canAddItemStack(itemStack)) {
-            return false; // Caravan inventory is full
-        }
+            // Check if caravan can accept the item stack
+            if (!caravan.canAddItemStack(itemStack)) {
+                return false; // Caravan inventory is full
+            }
         
-        // Check if player has the items in their inventory
-        if (!hasEnoughItemStacks(player, itemStack)) {
-            return false;
-        }
+            // Check if player has the items in their inventory
+            if (!hasEnoughItemStacks(player, itemStack)) {
+                return false;
+            }
         
-        // Remove items from player inventory
-        removeItemStackFromPlayer(player, itemStack);
+            // Remove items from player inventory
+            removeItemStackFromPlayer(player, itemStack);
 
-        // Add items to caravan inventory
-        boolean added = caravan.addItemStack(itemStack);
-        if (!added) {
-            // If somehow the add failed, return items to player
-            addItemStackToPlayer(player, itemStack);
-            return false;
-        }
+            // Add items to caravan inventory
+            boolean added = caravan.addItemStack(itemStack);
+            if (!added) {
+                // If somehow the add failed, return items to player
+                addItemStackToPlayer(player, itemStack);
+                return false;
+            }
+            persistence.recordItemAdded(caravan, itemStack);
 
-        // Save changes with error handling to prevent item loss
-        try {
-            storage.saveCaravan(caravan);
-        } catch (Exception e) {
-            // If save fails, rollback: remove from caravan and return to player
-            logger.severe("Failed to save caravan " + caravanId + " after adding items. Rolling back transaction: " + e.getMessage());
-            caravan.removeItemStack(itemStack, itemStack.getAmount());
-            addItemStackToPlayer(player, itemStack);
-            return false;
-        }
+            // Save changes with error handling to prevent item loss
+            try {
+                persistence.saveCaravan(caravan);
+            } catch (Exception e) {
+                // If save fails, rollback: remove from caravan and return to player
+                logger.severe("Failed to save caravan " + caravanId + " after adding items. Rolling back transaction: " + e.getMessage());
+                caravan.removeItemStack(itemStack, itemStack.getAmount());
+                persistence.recordItemRemoved(caravan, itemStack);
+                addItemStackToPlayer(player, itemStack);
+                return false;
+            }
 
-        logger.info("Player " + player.getName() + " added " + itemStack.getAmount() + " " + itemStack.getType() + " to caravan " + caravanId);
-        return true;
+            logger.info("Player " + player.getName() + " added " + itemStack.getAmount() + " " + itemStack.getType() + " to caravan " + caravanId);
+            return true;
+        } finally {
+            caravan.getLock().unlock();
+        }
     }
     
     public boolean removeItemStackFromCaravan(String caravanId, Player player, ItemStack itemStack, int amount) {
@@ -650,47 +1168,54 @@ public class CaravanManager {
             }
         }
         
-        // Check if player has permission to remove items (member)  
-        if (!caravan.hasAccess(player.getUniqueId())) {
-            return false;
-        }
+        caravan.getLock().lock();
+        try {
+            // Check if player has permission to remove items (member)  
+            if (!caravan.hasAccess(player.getUniqueId())) {
+                return false;
+            }
         
-        // Check if caravan has enough items
-        int currentAmount = caravan.getItemStackAmount(itemStack);
-        if (currentAmount < amount) {
-            return false;
-        }
+            // Check if caravan has enough items
+            int currentAmount = caravan.getItemStackAmount(itemStack);
+            if (currentAmount < amount) {
+                return false;
+            }
         
-        // Check if player has inventory space
-        if (!hasInventorySpaceForItemStack(player, itemStack, amount)) {
-            return false;
-        }
+            // Check if player has inventory space
+            if (!hasInventorySpaceForItemStack(player, itemStack, amount)) {
+                return false;
+            }
         
-        // Remove from caravan inventory
-        if (!caravan.removeItemStack(itemStack, amount)) {
-            return false;
-        }
+            // Remove from caravan inventory
+            if (!caravan.removeItemStack(itemStack, amount)) {
+                return false;
+            }
 
-        // Add to player inventory
-        ItemStack toAdd = itemStack.clone();
-        toAdd.setAmount(amount);
-        addItemStackToPlayer(player, toAdd);
+            // Add to player inventory
+            ItemStack toAdd = itemStack.clone();
+            toAdd.setAmount(amount);
+            persistence.recordItemRemoved(caravan, toAdd);
+            addItemStackToPlayer(player, toAdd);
 
-        // Save changes with error handling
-        try {
-            storage.saveCaravan(caravan);
-        } catch (Exception e) {
-            // If save fails, rollback: remove from player and return to caravan
-            logger.severe("Failed to save caravan " + caravanId + " after removing items. Rolling back transaction: " + e.getMessage());
-            // Remove from player (best effort - items may have been dropped if inventory full)
-            player.getInventory().removeItem(toAdd);
-            // Add back to caravan
-            caravan.addItemStack(toAdd);
-            return false;
-        }
+            // Save changes with error handling
+            try {
+                persistence.saveCaravan(caravan);
+            } catch (Exception e) {
+                // If save fails, rollback: remove from player and return to caravan
+                logger.severe("Failed to save caravan " + caravanId + " after removing items. Rolling back transaction: " + e.getMessage());
+                // Remove from player (best effort - items may have been dropped if inventory full)
+                player.getInventory().removeItem(toAdd);
+                // Add back to caravan
+                caravan.addItemStack(toAdd);
+                persistence.recordItemAdded(caravan, toAdd);
+                return false;
+            }
 
-        logger.info("Player " + player.getName() + " removed " + amount + " " + itemStack.getType() + " from caravan " + caravanId);
-        return true;
+            logger.info("Player " + player.getName() + " removed " + amount + " " + itemStack.getType() + " from caravan " + caravanId);
+            return true;
+        } finally {
+            caravan.getLock().unlock();
+        }
     }
     
     private boolean hasEnoughItemStacks(Player player, ItemStack itemStack) {
@@ -748,10 +1273,16 @@ public class CaravanManager {
     private void addItemStackToPlayer(Player player, ItemStack itemStack) {
         HashMap<Integer, org.bukkit.inventory.ItemStack> overflow = player.getInventory().addItem(itemStack);
         
-        // If there's overflow, drop the items
-        for (org.bukkit.inventory.ItemStack overflowItem : overflow.values()) {
-            player.getWorld().dropItemNaturally(player.getLocation(), overflowItem);
+        // If there's overflow, drop the items on the thread owning the region the player stands in
+        if (overflow.isEmpty()) {
+            return;
         }
+        Location dropLocation = player.getLocation();
+        SilkRoad.getInstance().getTaskScheduler().runAtLocation(dropLocation, () -> {
+            for (org.bukkit.inventory.ItemStack overflowItem : overflow.values()) {
+                dropLocation.getWorld().dropItemNaturally(dropLocation, overflowItem);
+            }
+        });
     }
     
     private boolean hasEnoughItems(Player player, Material material, int amount) {
@@ -845,6 +1376,11 @@ public class CaravanManager {
             }
         }
         
+        // Remove transfer from active transfers first, so a concurrent claim cannot deliver it twice
+        if (!unregisterTransfer(transferId)) {
+            return false;
+        }
+        
         // Add resources to player inventory
         for (Map.Entry<Material, Integer> entry : transfer.getResources().entrySet()) {
             addItemsToPlayer(player, entry.getKey(), entry.getValue());
@@ -854,14 +1390,76 @@ public class CaravanManager {
             addItemStackToPlayer(player, item.clone());
         }
         
-        // Remove transfer from active transfers and delete from storage
-        activeTransfers.remove(transferId);
-        storage.deleteTransfer(transferId);
+        persistence.deleteTransfer(transferId);
         
+        SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.TRANSFERS_CLAIMED);
         logger.info("Player " + player.getName() + " claimed transfer " + transferId + " to inventory");
         return true;
     }
     
+    /**
+     * Claims all of a player's delivered transfers into their inventory in one operation.
+     * Placement is planned once over a copy of the storage contents, transfers that do not fit stay
+     * waiting, and the claimed records are deleted as a single storage batch.
+     */
+    public ClaimAllResult claimAllTransfers(Player player) {
+        List<ResourceTransfer> delivered = getDeliveredTransfersForPlayer(player.getUniqueId());
+        if (delivered.isEmpty()) {
+            return new ClaimAllResult(0, 0);
+        }
+        
+        PlayerInventory inventory = player.getInventory();
+        List<ResourceTransfer> fitting = new ArrayList<>(delivered.size());
+        planClaims(inventory, delivered, fitting);
+        
+        // Remove claimed transfers first, so a concurrent single claim cannot deliver any of them twice
+        List<ResourceTransfer> claimed = new ArrayList<>(fitting.size());
+        for (ResourceTransfer transfer : fitting) {
+            if (transfer.getStatus() == ResourceTransfer.TransferStatus.DELIVERED && unregisterTransfer(transfer.getId())) {
+                claimed.add(transfer);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return new ClaimAllResult(0, delivered.size() - fitting.size());
+        }
+        
+        // Plan again for what was actually claimed, a subset of a fitting plan always fits
+        List<ResourceTransfer> placed = new ArrayList<>(claimed.size());
+        InventoryPlan plan = planClaims(inventory, claimed, placed);
+        plan.applyTo(inventory);
+        if (placed.size() < claimed.size()) {
+            // Never expected, but claimed items must not be lost, so anything unplaced goes through the overflow path
+            Set<ResourceTransfer> placedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+            placedSet.addAll(placed);
+            for (ResourceTransfer transfer : claimed) {
+                if (!placedSet.contains(transfer)) {
+                    transfer.getAllAsItemStacks().forEach(item -> addItemStackToPlayer(player, item.clone()));
+                }
+            }
+        }
+        player.updateInventory();
+        
+        List<String> claimedIds = new ArrayList<>(claimed.size());
+        for (ResourceTransfer transfer : claimed) {
+            claimedIds.add(transfer.getId());
+        }
+        persistence.deleteTransfers(claimedIds);
+        
+        SilkRoad.getInstance().getMetrics().add(SilkRoadMetrics.TRANSFERS_CLAIMED, claimed.size());
+        logger.info("Player " + player.getName() + " claimed " + claimed.size() + " transfers to inventory");
+        return new ClaimAllResult(claimed.size(), delivered.size() - fitting.size());
+    }
+    
+    private InventoryPlan planClaims(PlayerInventory inventory, List<ResourceTransfer> transfers, List<ResourceTransfer> fitting) {
+        InventoryPlan plan = new InventoryPlan(inventory.getStorageContents());
+        for (ResourceTransfer transfer : transfers) {
+            if (plan.tryAdd(transfer.getAllAsItemStacks())) {
+                fitting.add(transfer);
+            }
+        }
+        return plan;
+    }
+    
     @Deprecated
     public boolean claimTransferToCaravan(String transferId, String caravanId, Player player) {
         ResourceTransfer transfer = activeTransfers.get(transferId);
@@ -882,52 +1480,65 @@ public class CaravanManager {
             }
         }
         
-        // Check caravan inventory space for ItemStack-based resources
-        for (ItemStack item : transfer.getItemResources()) {
-            if (!caravan.canAddItemStack(item)) {
+        caravan.getLock().lock();
+        try {
+            // Check caravan inventory space for ItemStack-based resources
+            for (ItemStack item : transfer.getItemResources()) {
+                if (!caravan.canAddItemStack(item)) {
+                    return false;
+                }
+            }
+            
+            // Remove transfer from active transfers first, so a concurrent claim cannot deliver it twice
+            if (!unregisterTransfer(transferId)) {
                 return false;
             }
+            
+            // Add resources to caravan
+            for (Map.Entry<Material, Integer> entry : transfer.getResources().entrySet()) {
+                caravan.addResource(entry.getKey(), entry.getValue());
+                persistence.recordResourceAdded(caravan, entry.getKey(), entry.getValue());
+            }
+            
+            for (ItemStack item : transfer.getItemResources()) {
+                caravan.addItemStack(item.clone());
+                persistence.recordItemAdded(caravan, item);
+            }
+            
+            // Save caravan changes
+            persistence.saveCaravan(caravan);
+        } finally {
+            caravan.getLock().unlock();
         }
+        persistence.deleteTransfer(transferId);
         
-        // Add resources to caravan
-        for (Map.Entry<Material, Integer> entry : transfer.getResources().entrySet()) {
-            caravan.addResource(entry.getKey(), entry.getValue());
-        }
-        
-        for (ItemStack item : transfer.getItemResources()) {
-            caravan.addItemStack(item.clone());
-        }
-        
-        // Save caravan changes
-        storage.saveCaravan(caravan);
-        
-        // Remove transfer from active transfers and delete from storage
-        activeTransfers.remove(transferId);
-        storage.deleteTransfer(transferId);
-        
+        SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.TRANSFERS_CLAIMED);
         logger.info("Player " + player.getName() + " claimed transfer " + transferId + " to caravan " + caravanId);
         return true;
     }
     
     
-    private int calculateItemTransferCost(double distance, List<ItemStack> itemResources) {
-        SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
-
-        // Distance cost from config (diamonds per block)
-        double distanceCost = distance * config.getDistanceCostPerBlock();
-
-        // Stack cost from config (diamonds per item stack)
-        int stackCount = itemResources.size();
-        double stackCost = stackCount * config.getStackCost();
-
-        int totalCost = (int) (distanceCost + stackCost);
-
-        // Apply minimum and maximum caps
-        return Math.min(config.getMaximumCost(), Math.max(config.getMinimumCost(), totalCost));
-    }
-
     public void saveCaravan(Caravan caravan) {
-        storage.saveCaravan(caravan);
+        persistence.saveCaravan(caravan);
+    }
+    
+    /**
+     * Adds an item stack that is no longer in any inventory (e.g. taken from the cursor) to a caravan,
+     * journaling the movement before the caravan is saved
+     * @return true if the caravan accepted the whole stack
+     */
+    public boolean depositItemStack(Caravan caravan, ItemStack itemStack) {
+        caravan.getLock().lock();
+        try {
+            if (!caravan.addItemStack(itemStack)) {
+                return false;
+            }
+            persistence.recordItemAdded(caravan, itemStack);
+            persistence.saveCaravan(caravan);
+            return true;
+        } finally {
+            caravan.getLock().unlock();
+        }
     }
     
     /**
@@ -957,10 +1568,17 @@ public class CaravanManager {
         try {
             Set<UUID> townMembers = HuskTownsIntegration.getTownMemberUUIDs(caravan.getOwningTownId());
             
-            // Clear current members and add all town members
-            caravan.getMembers().clear();
-            for (UUID memberUuid : townMembers) {
-                caravan.addMember(memberUuid);
+            // Clear current members and add all town members, as one change to the caravan
+            caravan.getLock().lock();
+            try {
+                for (UUID memberUuid : List.copyOf(caravan.getMembers())) {
+                    removeCaravanMember(caravan, memberUuid);
+                }
+                for (UUID memberUuid : townMembers) {
+                    addCaravanMember(caravan, memberUuid);
+                }
+            } finally {
+                caravan.getLock().unlock();
             }
             
             // Save the updated caravan
@@ -1004,67 +1622,16 @@ public class CaravanManager {
         }
         
         for (Caravan caravan : caravans.values()) {
-            storage.saveCaravan(caravan);
+            persistence.saveCaravan(caravan);
         }
         
         for (ResourceTransfer transfer : activeTransfers.values()) {
-            storage.saveTransfer(transfer);
-        }
-    }
-    
-    // ENERGY SHARD-BASED COST SYSTEM METHODS
-    // Uses SacredOrder plugin's energy shard system
-    
-    private boolean hasEnoughShards(Player player, int amount) {
-        int shardCount = countPlayerShards(player);
-        return shardCount >= amount;
-    }
-    
-    private boolean consumeShards(Player player, int amount) {
-        if (!hasEnoughShards(player, amount)) {
-            return false;
-        }
-        
-        int remaining = amount;
-        ItemStack[] contents = player.getInventory().getContents();
-        
-        for (int i = 0; i < contents.length && remaining > 0; i++) {
-            ItemStack item = contents[i];
-            if (item != null && isEnergyShard(item)) {
-                int itemAmount = item.getAmount();
-                if (itemAmount <= remaining) {
-                    remaining -= itemAmount;
-                    contents[i] = null;
-                } else {
-                    item.setAmount(itemAmount - remaining);
-                    remaining = 0;
-                }
-            }
-        }
-        
-        player.getInventory().setContents(contents);
-        player.updateInventory();
-        return true;
-    }
-    
-    private int countPlayerShards(Player player) {
-        int shardCount = 0;
-        for (ItemStack item : player.getInventory().getContents()) {
-            if (item != null && isEnergyShard(item)) {
-                shardCount += item.getAmount();
-            }
-        }
-        return shardCount;
-    }
-    
-    private boolean isEnergyShard(ItemStack item) {
-        org.bukkit.plugin.Plugin sacredOrderPlugin = Bukkit.getPluginManager().getPlugin("SacredOrder");
-        if (sacredOrderPlugin != null) {
-            org.bukkit.NamespacedKey key = new org.bukkit.NamespacedKey(sacredOrderPlugin, "shard");
-            return item.hasItemMeta() && item.getItemMeta().getPersistentDataContainer().has(key, org.bukkit.persistence.PersistentDataType.BOOLEAN);
-        } else {
-            return false;
+            persistence.saveTransfer(transfer);
         }
+
+        // Blocks until every queued write has reached disk
+        persistence.shutdown();
+        storage.close();
     }
     
     private String locationToString(Location location) {
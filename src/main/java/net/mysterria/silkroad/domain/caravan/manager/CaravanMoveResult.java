@@ -0,0 +1,22 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outcome of moving a caravan, with the message key shown to whoever asked for the move
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CaravanMoveResult {
+    MOVED("command.caravan.moved"),
+    NOT_FOUND("command.caravan.not.found"),
+    OTHER_WORLD("command.caravan.move.other.world"),
+    OUTSIDE_TERRITORY("command.caravan.move.outside.territory");
+
+    private final String messageKey;
+
+    public boolean isSuccess() {
+        return this == MOVED;
+    }
+}
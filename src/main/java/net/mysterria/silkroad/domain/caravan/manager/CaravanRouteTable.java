@@ -0,0 +1,109 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.config.SilkRoadConfig;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches pairwise caravan distances and quotes transfer cost and delivery time from them.
+ *
+ * Each distance is stored under both caravans, so dropping one caravan only touches its own routes.
+ * CaravanManager invalidates a caravan when it is created, removed or moved. Cost and time are
+ * derived from the current config on every quote, so a config reload needs no invalidation.
+ */
+public class CaravanRouteTable {
+
+    private final Map<String, Map<String, Double>> routes = new ConcurrentHashMap<>();
+
+    /**
+     * Distance in blocks, {@link Double#MAX_VALUE} when the caravans are in different worlds
+     */
+    public double distance(Caravan source, Caravan destination) {
+        Map<String, Double> row = routes.get(source.getId());
+        Double cached = row == null ? null : row.get(destination.getId());
+        if (cached != null) {
+            return cached;
+        }
+        // Computed under the table lock so a concurrent invalidation cannot be overwritten by a stale value
+        synchronized (this) {
+            double distance = source.distanceTo(destination);
+            routes.computeIfAbsent(source.getId(), id -> new ConcurrentHashMap<>()).put(destination.getId(), distance);
+            routes.computeIfAbsent(destination.getId(), id -> new ConcurrentHashMap<>()).put(source.getId(), distance);
+            return distance;
+        }
+    }
+
+    /**
+     * Quotes an item transfer, charged per distance block and per item stack
+     */
+    public RouteQuote quote(Caravan source, Caravan destination, int stackCount) {
+        SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
+        double distance = distance(source, destination);
+        double cost = distance * config.getDistanceCostPerBlock() + stackCount * config.getStackCost();
+        return new RouteQuote(distance, capCost(config, cost), deliveryTime(config, distance));
+    }
+
+    /**
+     * Quotes a legacy material transfer, charged per distance block and per single item
+     */
+    public RouteQuote quoteLegacy(Caravan source, Caravan destination, int itemCount) {
+        SilkRoadConfig config = SilkRoad.getInstance().getPluginConfig();
+        double distance = distance(source, destination);
+        // Legacy uses per-item cost, not per-stack
+        double cost = distance * config.getDistanceCostPerBlock() + itemCount * (config.getStackCost() / 4);
+        return new RouteQuote(distance, capCost(config, cost), deliveryTime(config, distance));
+    }
+
+    public synchronized void invalidate(String caravanId) {
+        Map<String, Double> row = routes.remove(caravanId);
+        if (row == null) {
+            return;
+        }
+        for (String otherId : row.keySet()) {
+            Map<String, Double> otherRow = routes.get(otherId);
+            if (otherRow != null) {
+                otherRow.remove(caravanId);
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        routes.clear();
+    }
+
+    private static int capCost(SilkRoadConfig config, double cost) {
+        return Math.min(config.getMaximumCost(), Math.max(config.getMinimumCost(), (int) cost));
+    }
+
+    private static long deliveryTime(SilkRoadConfig config, double distance) {
+        // Cross-world distances saturate the travel time, keep the sum from wrapping negative
+        long travelTime = (long) (distance * config.getTimePerBlockMs());
+        try {
+            return Math.addExact(config.getBaseTimeMs(), travelTime);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Distance, shard cost and delivery time in milliseconds for one transfer
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class RouteQuote {
+
+        private final double distance;
+        private final int cost;
+        private final long deliveryTimeMs;
+
+        public boolean isSameWorld() {
+            return distance != Double.MAX_VALUE;
+        }
+    }
+}
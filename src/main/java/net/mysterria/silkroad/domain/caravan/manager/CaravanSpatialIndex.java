@@ -0,0 +1,140 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Caravan locations bucketed per world into a grid of 16x16 block cells.
+ *
+ * Range queries only visit the cells overlapping the search radius and compare squared distances,
+ * so an interaction lookup costs the same no matter how many caravans exist.
+ */
+public class CaravanSpatialIndex {
+
+    private static final int CELL_SHIFT = 4;
+
+    private final Map<UUID, Map<Long, List<Caravan>>> worlds = new HashMap<>();
+    // Cell each caravan was indexed under, so removal does not depend on its current location
+    private final Map<String, IndexedCell> indexed = new HashMap<>();
+
+    public void add(Caravan caravan) {
+        remove(caravan.getId());
+        World world = worldOf(caravan.getLocation());
+        if (world == null) {
+            return;
+        }
+        long cell = cellKey(caravan.getLocation().getBlockX() >> CELL_SHIFT, caravan.getLocation().getBlockZ() >> CELL_SHIFT);
+        worlds.computeIfAbsent(world.getUID(), id -> new HashMap<>())
+                .computeIfAbsent(cell, key -> new ArrayList<>(1))
+                .add(caravan);
+        indexed.put(caravan.getId(), new IndexedCell(world.getUID(), cell));
+    }
+
+    public void remove(String caravanId) {
+        IndexedCell previous = indexed.remove(caravanId);
+        if (previous == null) {
+            return;
+        }
+        Map<Long, List<Caravan>> cells = worlds.get(previous.worldId);
+        if (cells == null) {
+            return;
+        }
+        List<Caravan> bucket = cells.get(previous.cell);
+        if (bucket != null) {
+            bucket.removeIf(caravan -> caravan.getId().equals(caravanId));
+            if (bucket.isEmpty()) {
+                cells.remove(previous.cell);
+            }
+        }
+        if (cells.isEmpty()) {
+            worlds.remove(previous.worldId);
+        }
+    }
+
+    public void clear() {
+        worlds.clear();
+        indexed.clear();
+    }
+
+    /**
+     * Returns the caravan closest to the location within the given distance, or null if there is none
+     */
+    public Caravan findNearest(Location location, double maxDistance) {
+        Caravan nearest = null;
+        double nearestDistanceSquared = maxDistance * maxDistance;
+        for (Caravan caravan : candidates(location, maxDistance)) {
+            double distanceSquared = caravan.getLocation().distanceSquared(location);
+            if (distanceSquared <= nearestDistanceSquared) {
+                nearest = caravan;
+                nearestDistanceSquared = distanceSquared;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Returns every caravan within the given distance of the location, nearest first
+     */
+    public List<Caravan> findInRange(Location location, double maxDistance) {
+        double maxDistanceSquared = maxDistance * maxDistance;
+        List<Caravan> inRange = new ArrayList<>();
+        for (Caravan caravan : candidates(location, maxDistance)) {
+            if (caravan.getLocation().distanceSquared(location) <= maxDistanceSquared) {
+                inRange.add(caravan);
+            }
+        }
+        if (inRange.size() > 1) {
+            inRange.sort((a, b) -> Double.compare(a.getLocation().distanceSquared(location), b.getLocation().distanceSquared(location)));
+        }
+        return inRange;
+    }
+
+    private List<Caravan> candidates(Location location, double maxDistance) {
+        World world = worldOf(location);
+        Map<Long, List<Caravan>> cells = world == null ? null : worlds.get(world.getUID());
+        if (cells == null) {
+            return List.of();
+        }
+        int radius = (int) Math.ceil(maxDistance);
+        int minCellX = (location.getBlockX() - radius) >> CELL_SHIFT;
+        int maxCellX = (location.getBlockX() + radius) >> CELL_SHIFT;
+        int minCellZ = (location.getBlockZ() - radius) >> CELL_SHIFT;
+        int maxCellZ = (location.getBlockZ() + radius) >> CELL_SHIFT;
+
+        List<Caravan> candidates = new ArrayList<>();
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<Caravan> bucket = cells.get(cellKey(cellX, cellZ));
+                if (bucket != null) {
+                    candidates.addAll(bucket);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static World worldOf(Location location) {
+        return location == null || !location.isWorldLoaded() ? null : location.getWorld();
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static class IndexedCell {
+        private final UUID worldId;
+        private final long cell;
+
+        private IndexedCell(UUID worldId, long cell) {
+            this.worldId = worldId;
+            this.cell = cell;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Result of claiming all delivered transfers at once
+ */
+@Getter
+@RequiredArgsConstructor
+public class ClaimAllResult {
+
+    // Transfers delivered to the player's inventory
+    private final int claimed;
+    // Transfers left waiting because they did not fit in the inventory
+    private final int skipped;
+}
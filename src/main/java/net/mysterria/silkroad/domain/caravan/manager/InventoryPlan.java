@@ -0,0 +1,88 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Simulates adding items to a player's storage contents without touching the inventory,
+ * so many claims can be checked in one pass and applied at once.
+ *
+ * Only slot references and amounts are tracked, stacks are cloned once when the plan is applied
+ * and slots the plan left alone are not written at all.
+ */
+class InventoryPlan {
+
+    private final ItemStack[] original;
+    private ItemStack[] stacks;
+    private int[] amounts;
+
+    InventoryPlan(ItemStack[] contents) {
+        this.original = contents;
+        this.stacks = new ItemStack[contents.length];
+        this.amounts = new int[contents.length];
+        for (int i = 0; i < contents.length; i++) {
+            if (!isEmpty(contents[i])) {
+                stacks[i] = contents[i];
+                amounts[i] = contents[i].getAmount();
+            }
+        }
+    }
+
+    /**
+     * Places all items or none of them, topping up similar stacks before using empty slots
+     */
+    boolean tryAdd(List<ItemStack> items) {
+        ItemStack[] savedStacks = Arrays.copyOf(stacks, stacks.length);
+        int[] savedAmounts = Arrays.copyOf(amounts, amounts.length);
+        for (ItemStack item : items) {
+            if (!place(item)) {
+                stacks = savedStacks;
+                amounts = savedAmounts;
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the changed slots to the inventory the storage contents were taken from, storage slot i is inventory slot i
+     */
+    void applyTo(Inventory inventory) {
+        for (int i = 0; i < stacks.length; i++) {
+            if (stacks[i] == null || (stacks[i] == original[i] && amounts[i] == original[i].getAmount())) {
+                continue;
+            }
+            ItemStack stack = stacks[i].clone();
+            stack.setAmount(amounts[i]);
+            inventory.setItem(i, stack);
+        }
+    }
+
+    private boolean place(ItemStack item) {
+        int remaining = item.getAmount();
+        int maxStackSize = item.getMaxStackSize();
+        for (int i = 0; i < stacks.length && remaining > 0; i++) {
+            if (stacks[i] != null && amounts[i] < maxStackSize && stacks[i].isSimilar(item)) {
+                int added = Math.min(remaining, maxStackSize - amounts[i]);
+                amounts[i] += added;
+                remaining -= added;
+            }
+        }
+        for (int i = 0; i < stacks.length && remaining > 0; i++) {
+            if (stacks[i] == null) {
+                int added = Math.min(remaining, maxStackSize);
+                stacks[i] = item;
+                amounts[i] = added;
+                remaining -= added;
+            }
+        }
+        return remaining == 0;
+    }
+
+    private static boolean isEmpty(ItemStack item) {
+        return item == null || item.getType().isAir();
+    }
+}
@@ -0,0 +1,174 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Secondary indexes over the active transfers: by sending player, by destination caravan and by status,
+ * plus delivered-only views per player and destination. Every bucket is ordered by delivery time, so
+ * lookups return in O(result) without sorting.
+ *
+ * Status changes must go through {@link #updateStatus} so the status-dependent buckets stay consistent.
+ */
+public class TransferIndex {
+
+    private static final Comparator<ResourceTransfer> BY_DELIVERY_TIME =
+            Comparator.comparingLong(ResourceTransfer::getDeliveryTime).thenComparing(ResourceTransfer::getId);
+
+    private final Map<UUID, NavigableSet<ResourceTransfer>> byPlayer = new HashMap<>();
+    private final Map<String, NavigableSet<ResourceTransfer>> byDestination = new HashMap<>();
+    private final Map<ResourceTransfer.TransferStatus, NavigableSet<ResourceTransfer>> byStatus = new EnumMap<>(ResourceTransfer.TransferStatus.class);
+    private final Map<UUID, NavigableSet<ResourceTransfer>> deliveredByPlayer = new HashMap<>();
+    private final Map<String, NavigableSet<ResourceTransfer>> deliveredByDestination = new HashMap<>();
+
+    public void add(ResourceTransfer transfer) {
+        bucket(byPlayer, transfer.getPlayerId()).add(transfer);
+        bucket(byDestination, transfer.getDestinationCaravanId()).add(transfer);
+        addStatusEntries(transfer);
+    }
+
+    public void remove(ResourceTransfer transfer) {
+        unbucket(byPlayer, transfer.getPlayerId(), transfer);
+        unbucket(byDestination, transfer.getDestinationCaravanId(), transfer);
+        removeStatusEntries(transfer);
+    }
+
+    /**
+     * Changes the status of an indexed transfer and moves it between the status buckets
+     */
+    public void updateStatus(ResourceTransfer transfer, ResourceTransfer.TransferStatus status) {
+        if (transfer.getStatus() == status) {
+            return;
+        }
+        removeStatusEntries(transfer);
+        transfer.setStatus(status);
+        addStatusEntries(transfer);
+    }
+
+    public void clear() {
+        byPlayer.clear();
+        byDestination.clear();
+        byStatus.clear();
+        deliveredByPlayer.clear();
+        deliveredByDestination.clear();
+    }
+
+    public List<ResourceTransfer> getByPlayer(UUID playerId) {
+        return snapshot(byPlayer.get(playerId));
+    }
+
+    public List<ResourceTransfer> getByDestination(String caravanId) {
+        return snapshot(byDestination.get(caravanId));
+    }
+
+    public List<ResourceTransfer> getByStatus(ResourceTransfer.TransferStatus status) {
+        return snapshot(byStatus.get(status));
+    }
+
+    public List<ResourceTransfer> getDeliveredByPlayer(UUID playerId) {
+        return snapshot(deliveredByPlayer.get(playerId));
+    }
+
+    public List<ResourceTransfer> getDeliveredByDestination(String caravanId) {
+        return snapshot(deliveredByDestination.get(caravanId));
+    }
+
+    /**
+     * Merges the transfers heading to any of the given caravans, ordered by delivery time
+     */
+    public List<ResourceTransfer> getByDestinations(Collection<String> caravanIds) {
+        List<Iterator<ResourceTransfer>> sources = new ArrayList<>();
+        int total = 0;
+        for (String caravanId : caravanIds) {
+            NavigableSet<ResourceTransfer> bucket = byDestination.get(caravanId);
+            if (bucket != null) {
+                sources.add(bucket.iterator());
+                total += bucket.size();
+            }
+        }
+        if (sources.size() == 1) {
+            List<ResourceTransfer> single = new ArrayList<>(total);
+            sources.get(0).forEachRemaining(single::add);
+            return single;
+        }
+
+        // K-way merge of the already sorted buckets
+        List<ResourceTransfer> merged = new ArrayList<>(total);
+        PriorityQueue<MergeCursor> heads = new PriorityQueue<>((a, b) -> BY_DELIVERY_TIME.compare(a.current, b.current));
+        for (Iterator<ResourceTransfer> source : sources) {
+            heads.add(new MergeCursor(source));
+        }
+        while (!heads.isEmpty()) {
+            MergeCursor cursor = heads.poll();
+            merged.add(cursor.current);
+            if (cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private void addStatusEntries(ResourceTransfer transfer) {
+        byStatus.computeIfAbsent(transfer.getStatus(), status -> new TreeSet<>(BY_DELIVERY_TIME)).add(transfer);
+        if (transfer.getStatus() == ResourceTransfer.TransferStatus.DELIVERED) {
+            bucket(deliveredByPlayer, transfer.getPlayerId()).add(transfer);
+            bucket(deliveredByDestination, transfer.getDestinationCaravanId()).add(transfer);
+        }
+    }
+
+    private void removeStatusEntries(ResourceTransfer transfer) {
+        unbucket(byStatus, transfer.getStatus(), transfer);
+        if (transfer.getStatus() == ResourceTransfer.TransferStatus.DELIVERED) {
+            unbucket(deliveredByPlayer, transfer.getPlayerId(), transfer);
+            unbucket(deliveredByDestination, transfer.getDestinationCaravanId(), transfer);
+        }
+    }
+
+    private static <K> NavigableSet<ResourceTransfer> bucket(Map<K, NavigableSet<ResourceTransfer>> index, K key) {
+        return index.computeIfAbsent(key, k -> new TreeSet<>(BY_DELIVERY_TIME));
+    }
+
+    private static <K> void unbucket(Map<K, NavigableSet<ResourceTransfer>> index, K key, ResourceTransfer transfer) {
+        NavigableSet<ResourceTransfer> bucket = index.get(key);
+        if (bucket != null) {
+            bucket.remove(transfer);
+            if (bucket.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static List<ResourceTransfer> snapshot(NavigableSet<ResourceTransfer> bucket) {
+        return bucket == null ? List.of() : List.copyOf(bucket);
+    }
+
+    private static class MergeCursor {
+        private final Iterator<ResourceTransfer> source;
+        private ResourceTransfer current;
+
+        private MergeCursor(Iterator<ResourceTransfer> source) {
+            this.source = source;
+            this.current = source.next();
+        }
+
+        private boolean advance() {
+            if (!source.hasNext()) {
+                return false;
+            }
+            current = source.next();
+            return true;
+        }
+    }
+}
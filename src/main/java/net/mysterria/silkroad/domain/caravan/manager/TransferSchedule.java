@@ -0,0 +1,63 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Deadline queue of in-transit transfers ordered by delivery time.
+ *
+ * Only in-transit transfers are scheduled, delivered ones waiting for a claim never enter the queue.
+ * Cancelled entries are dropped lazily when they reach the head, so each poll only touches the
+ * transfers that are actually due.
+ */
+public class TransferSchedule {
+
+    private final PriorityQueue<ResourceTransfer> queue = new PriorityQueue<>(
+            Comparator.comparingLong(ResourceTransfer::getDeliveryTime).thenComparing(ResourceTransfer::getId));
+    // The instance currently scheduled per transfer ID, anything else in the queue is stale
+    private final Map<String, ResourceTransfer> scheduled = new HashMap<>();
+
+    public void schedule(ResourceTransfer transfer) {
+        ResourceTransfer previous = scheduled.put(transfer.getId(), transfer);
+        if (previous != transfer) {
+            queue.add(transfer);
+        }
+    }
+
+    public void cancel(String transferId) {
+        scheduled.remove(transferId);
+    }
+
+    public void clear() {
+        queue.clear();
+        scheduled.clear();
+    }
+
+    public int size() {
+        return scheduled.size();
+    }
+
+    /**
+     * Removes and returns every scheduled transfer due at {@code now}, earliest first
+     */
+    public List<ResourceTransfer> pollDue(long now) {
+        List<ResourceTransfer> due = new ArrayList<>();
+        while (!queue.isEmpty() && queue.peek().getDeliveryTime() <= now) {
+            ResourceTransfer transfer = queue.poll();
+            if (scheduled.get(transfer.getId()) != transfer) {
+                continue;
+            }
+            scheduled.remove(transfer.getId());
+            if (transfer.getStatus() == ResourceTransfer.TransferStatus.IN_TRANSIT) {
+                due.add(transfer);
+            }
+        }
+        return due;
+    }
+}
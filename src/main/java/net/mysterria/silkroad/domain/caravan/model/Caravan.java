@@ -1,5 +1,6 @@
 package net.mysterria.silkroad.domain.caravan.model;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.bukkit.Location;
@@ -7,13 +8,17 @@ import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Getter
 @Setter
@@ -25,16 +30,29 @@ public class Caravan {
     private String name;
     private Location location;
     private Map<Material, Integer> inventory;
-    private List<ItemStack> itemInventory = new ArrayList<>();
+    private final List<ItemStack> itemInventory = new ArrayList<>();
+    // Fingerprint (type + meta hash) -> groups of similar stacks, so isSimilar only runs within a bucket
+    @Getter(AccessLevel.NONE)
+    private final Map<Integer, List<ItemGroup>> itemIndex = new HashMap<>();
     private long createdAt;
     private boolean active;
-    // Territory represented as set of keys: "world:x:z"
-    private Set<String> territoryChunks = new HashSet<>();
+    // Territory chunks as packed keys per world
+    private ChunkTerritory territory = new ChunkTerritory();
     // Member management - all members have equal rights
-    private Set<UUID> members = new HashSet<>();
+    private final Set<UUID> members = ConcurrentHashMap.newKeySet();
     // Town ownership information (HuskTowns integration)
     private String owningTownName;
     private int owningTownId = -1;
+    // Sequence of the last journal record applied to this caravan
+    private long journalSequence;
+    // Held while the inventory, resources or members change and while the caravan is snapshotted
+    private final ReentrantLock lock = new ReentrantLock();
+    // Bit per Section changed since the last save, a new caravan has everything to write
+    @Getter(AccessLevel.NONE)
+    private final AtomicInteger dirtySections = new AtomicInteger(Section.ALL);
+    // Open views of the item inventory, told which slots to repaint
+    @Getter(AccessLevel.NONE)
+    private final List<SlotListener> slotListeners = new CopyOnWriteArrayList<>();
     
     public Caravan(String id, String name, Location location) {
         this.id = id;
@@ -47,6 +65,7 @@ public class Caravan {
     
     public void addResource(Material material, int amount) {
         inventory.put(material, inventory.getOrDefault(material, 0) + amount);
+        markDirty(Section.INVENTORY);
     }
     
     public boolean removeResource(Material material, int amount) {
@@ -56,6 +75,7 @@ public class Caravan {
             if (inventory.get(material) == 0) {
                 inventory.remove(material);
             }
+            markDirty(Section.INVENTORY);
             return true;
         }
         return false;
@@ -70,11 +90,16 @@ public class Caravan {
         if (itemStack == null || itemStack.getType() == Material.AIR) return false;
         
         // Try to merge with existing similar items first
-        for (ItemStack existing : itemInventory) {
-            if (existing.isSimilar(itemStack)) {
+        ItemGroup group = findGroup(itemStack);
+        if (group != null) {
+            for (ItemStack existing : group.stacks) {
                 int newAmount = existing.getAmount() + itemStack.getAmount();
                 if (newAmount <= existing.getMaxStackSize()) {
                     existing.setAmount(newAmount);
+                    group.total += itemStack.getAmount();
+                    markDirty(Section.INVENTORY);
+                    int slot = slotOf(existing);
+                    fireSlotsChanged(slot, slot);
                     return true;
                 }
             }
@@ -86,16 +111,26 @@ public class Caravan {
         }
         
         // Add as new stack
-        itemInventory.add(itemStack.clone());
+        appendStack(itemStack.clone(), group);
+        markDirty(Section.INVENTORY);
         return true;
     }
     
+    /**
+     * Appends a stored stack as its own slot without merging, used when loading from storage
+     */
+    public void restoreItemStack(ItemStack itemStack) {
+        if (itemStack == null || itemStack.getType() == Material.AIR) return;
+        appendStack(itemStack, findGroup(itemStack));
+    }
+    
     public boolean canAddItemStack(ItemStack itemStack) {
         if (itemStack == null || itemStack.getType() == Material.AIR) return false;
         
         // Check if we can merge with existing similar items
-        for (ItemStack existing : itemInventory) {
-            if (existing.isSimilar(itemStack)) {
+        ItemGroup group = findGroup(itemStack);
+        if (group != null) {
+            for (ItemStack existing : group.stacks) {
                 int newAmount = existing.getAmount() + itemStack.getAmount();
                 if (newAmount <= existing.getMaxStackSize()) {
                     return true; // Can merge
@@ -114,38 +149,240 @@ public class Caravan {
     public boolean removeItemStack(ItemStack itemToRemove, int amount) {
         if (itemToRemove == null || itemToRemove.getType() == Material.AIR) return false;
         
+        ItemGroup group = findGroup(itemToRemove);
+        if (group == null || group.total < amount) {
+            return amount <= 0;
+        }
+        
+        int previousSize = itemInventory.size();
+        int firstChanged = Integer.MAX_VALUE;
+        int lastChanged = -1;
         int remaining = amount;
-        for (int i = itemInventory.size() - 1; i >= 0; i--) {
-            ItemStack existing = itemInventory.get(i);
-            if (existing.isSimilar(itemToRemove)) {
-                int availableAmount = existing.getAmount();
-                if (availableAmount <= remaining) {
-                    remaining -= availableAmount;
-                    itemInventory.remove(i);
-                } else {
-                    existing.setAmount(availableAmount - remaining);
-                    remaining = 0;
-                }
-                
-                if (remaining == 0) {
-                    return true;
-                }
+        for (int i = group.stacks.size() - 1; i >= 0 && remaining > 0; i--) {
+            ItemStack existing = group.stacks.get(i);
+            int availableAmount = existing.getAmount();
+            if (availableAmount <= remaining) {
+                remaining -= availableAmount;
+                group.stacks.remove(i);
+                // Later stacks shift down a slot, so everything up to the old last slot changes
+                firstChanged = Math.min(firstChanged, removeSlot(existing));
+                lastChanged = previousSize - 1;
+            } else {
+                existing.setAmount(availableAmount - remaining);
+                remaining = 0;
+                int slot = slotOf(existing);
+                firstChanged = Math.min(firstChanged, slot);
+                lastChanged = Math.max(lastChanged, slot);
             }
         }
+        group.total -= amount;
         
-        return remaining == 0;
+        if (group.stacks.isEmpty()) {
+            List<ItemGroup> bucket = itemIndex.get(group.fingerprint);
+            bucket.remove(group);
+            if (bucket.isEmpty()) {
+                itemIndex.remove(group.fingerprint);
+            }
+        }
+        markDirty(Section.INVENTORY);
+        if (lastChanged >= 0) {
+            fireSlotsChanged(firstChanged, lastChanged);
+        }
+        return true;
     }
     
     public int getItemStackAmount(ItemStack itemStack) {
         if (itemStack == null || itemStack.getType() == Material.AIR) return 0;
         
-        int total = 0;
-        for (ItemStack existing : itemInventory) {
-            if (existing.isSimilar(itemStack)) {
-                total += existing.getAmount();
+        ItemGroup group = findGroup(itemStack);
+        return group == null ? 0 : group.total;
+    }
+    
+    /**
+     * Read-only view of the stored stacks in slot order, changes go through the item methods above
+     */
+    public List<ItemStack> getItemInventory() {
+        return Collections.unmodifiableList(itemInventory);
+    }
+    
+    /**
+     * Copies of the stored stacks in slot order, taken under the caravan lock. Safe to call from any
+     * thread and to keep iterating while the caravan changes, unlike {@link #getItemInventory()}.
+     */
+    public List<ItemStack> snapshotItemInventory() {
+        return snapshotItemInventory(0, MAX_INVENTORY_SLOTS - 1);
+    }
+    
+    /**
+     * Copies of the stacks in slots {@code from} to {@code to}, fewer when the inventory ends earlier
+     */
+    public List<ItemStack> snapshotItemInventory(int from, int to) {
+        lock.lock();
+        try {
+            List<ItemStack> copy = new ArrayList<>(Math.max(0, Math.min(to + 1, itemInventory.size()) - from));
+            for (int i = from; i <= to && i < itemInventory.size(); i++) {
+                copy.add(itemInventory.get(i).clone());
+            }
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Number of occupied item slots, read under the caravan lock
+     */
+    public int getUsedSlots() {
+        lock.lock();
+        try {
+            return itemInventory.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Copy of the legacy material resources, taken under the caravan lock
+     */
+    public Map<Material, Integer> snapshotResources() {
+        lock.lock();
+        try {
+            return new HashMap<>(inventory);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private ItemGroup findGroup(ItemStack itemStack) {
+        List<ItemGroup> bucket = itemIndex.get(fingerprint(itemStack));
+        if (bucket != null) {
+            for (ItemGroup group : bucket) {
+                if (group.prototype.isSimilar(itemStack)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private void appendStack(ItemStack stack, ItemGroup group) {
+        if (group == null) {
+            group = new ItemGroup(fingerprint(stack), stack.asOne());
+            itemIndex.computeIfAbsent(group.fingerprint, key -> new ArrayList<>(1)).add(group);
+        }
+        itemInventory.add(stack);
+        group.stacks.add(stack);
+        group.total += stack.getAmount();
+        fireSlotsChanged(itemInventory.size() - 1, itemInventory.size() - 1);
+    }
+    
+    private int removeSlot(ItemStack stack) {
+        int slot = slotOf(stack);
+        if (slot >= 0) {
+            itemInventory.remove(slot);
+        }
+        return slot;
+    }
+    
+    private int slotOf(ItemStack stack) {
+        for (int i = 0; i < itemInventory.size(); i++) {
+            if (itemInventory.get(i) == stack) {
+                return i;
             }
         }
-        return total;
+        return -1;
+    }
+    
+    public void addSlotListener(SlotListener listener) {
+        slotListeners.add(listener);
+    }
+    
+    public void removeSlotListener(SlotListener listener) {
+        slotListeners.remove(listener);
+    }
+    
+    private void fireSlotsChanged(int fromSlot, int toSlot) {
+        for (SlotListener listener : slotListeners) {
+            listener.slotsChanged(fromSlot, toSlot);
+        }
+    }
+    
+    // Similar stacks always share a fingerprint since equal metas hash equally
+    private static int fingerprint(ItemStack itemStack) {
+        int hash = itemStack.getType().hashCode();
+        if (itemStack.hasItemMeta()) {
+            hash = 31 * hash + itemStack.getItemMeta().hashCode();
+        }
+        return hash;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+        markDirty(Section.METADATA);
+    }
+    
+    public void setLocation(Location location) {
+        this.location = location;
+        markDirty(Section.METADATA);
+    }
+    
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+        markDirty(Section.METADATA);
+    }
+    
+    public void setActive(boolean active) {
+        this.active = active;
+        markDirty(Section.METADATA);
+    }
+    
+    public void setOwningTownName(String owningTownName) {
+        this.owningTownName = owningTownName;
+        markDirty(Section.METADATA);
+    }
+    
+    public void setOwningTownId(int owningTownId) {
+        this.owningTownId = owningTownId;
+        markDirty(Section.METADATA);
+    }
+    
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
+        markDirty(Section.INVENTORY);
+    }
+    
+    public void setTerritory(ChunkTerritory territory) {
+        this.territory = territory;
+        markDirty(Section.TERRITORY);
+    }
+    
+    /**
+     * Flags a section for the next save, needed after changing the territory or resource map in place
+     */
+    public void markDirty(Section section) {
+        dirtySections.getAndUpdate(bits -> bits | section.bit());
+    }
+    
+    /**
+     * Returns the sections changed since the last call as a Section bit mask and clears them
+     */
+    public int takeDirtySections() {
+        return dirtySections.getAndSet(0);
+    }
+    
+    /**
+     * Marks sections taken by {@link #takeDirtySections()} dirty again after writing them failed,
+     * on top of whatever changed meanwhile
+     */
+    public void restoreDirtySections(int sections) {
+        dirtySections.getAndUpdate(bits -> bits | sections);
+    }
+    
+    /**
+     * Forgets pending changes, used once a caravan was loaded since storage already holds its state
+     */
+    public void clearDirtySections() {
+        dirtySections.set(0);
     }
     
     public double distanceTo(Caravan other) {
@@ -156,15 +393,30 @@ public class Caravan {
     }
     
     public boolean containsChunk(String worldName, int x, int z) {
-        return territoryChunks.contains(worldName + ":" + x + ":" + z);
+        return territory.contains(worldName, x, z);
+    }
+    
+    /**
+     * Adds a member to this caravan only, CaravanManager.addCaravanMember also keeps its member index in sync
+     */
+    public boolean addMember(UUID playerId) {
+        if (members.add(playerId)) {
+            markDirty(Section.MEMBERS);
+            return true;
+        }
+        return false;
     }
     
-    public void addMember(UUID playerId) {
-        members.add(playerId);
+    public boolean removeMember(UUID playerId) {
+        if (members.remove(playerId)) {
+            markDirty(Section.MEMBERS);
+            return true;
+        }
+        return false;
     }
     
-    public void removeMember(UUID playerId) {
-        members.remove(playerId);
+    public Set<UUID> getMembers() {
+        return Collections.unmodifiableSet(members);
     }
     
     public boolean isMember(UUID playerId) {
@@ -203,4 +455,60 @@ public class Caravan {
     public int hashCode() {
         return Objects.hash(id);
     }
+    
+    /**
+     * Notified after item inventory slots changed, called on the thread that changed them
+     * while the caravan lock is held, so implementations should only record the range
+     */
+    @FunctionalInterface
+    public interface SlotListener {
+        void slotsChanged(int fromSlot, int toSlot);
+    }
+    
+    /**
+     * Parts of a caravan that are saved independently, with the storage document keys each one owns.
+     * Metadata is a handful of scalars and goes out with every save. The journal sequence belongs to
+     * the inventory, the only state journal records change, so the two are always written together.
+     */
+    public enum Section {
+        METADATA(),
+        INVENTORY("inventory", "itemInventory", "journalSeq"),
+        MEMBERS("members", "owners"),
+        TERRITORY("territory");
+        
+        public static final int ALL = (1 << values().length) - 1;
+        
+        private final List<String> documentKeys;
+        
+        Section(String... documentKeys) {
+            this.documentKeys = List.of(documentKeys);
+        }
+        
+        public int bit() {
+            return 1 << ordinal();
+        }
+        
+        public boolean isIn(int sections) {
+            return (sections & bit()) != 0;
+        }
+        
+        public List<String> getDocumentKeys() {
+            return documentKeys;
+        }
+    }
+    
+    /**
+     * Stacks similar to the prototype, in slot order, with their summed amount
+     */
+    private static class ItemGroup {
+        private final int fingerprint;
+        private final ItemStack prototype;
+        private final List<ItemStack> stacks = new ArrayList<>(1);
+        private int total;
+        
+        private ItemGroup(int fingerprint, ItemStack prototype) {
+            this.fingerprint = fingerprint;
+            this.prototype = prototype;
+        }
+    }
 }
\ No newline at end of file
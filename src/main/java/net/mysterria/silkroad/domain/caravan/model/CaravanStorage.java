@@ -1,7 +1,14 @@
 package net.mysterria.silkroad.domain.caravan.model;
 
 import net.mysterria.silkroad.SilkRoad;
-import net.mysterria.silkroad.utils.YamlConfiguration;
+import net.mysterria.silkroad.domain.caravan.storage.CaravanRepository;
+import net.mysterria.silkroad.domain.caravan.storage.CaravanStorageMigrator;
+import net.mysterria.silkroad.domain.caravan.storage.ItemStackCodec;
+import net.mysterria.silkroad.domain.caravan.storage.SqliteCaravanRepository;
+import net.mysterria.silkroad.domain.caravan.storage.StorageBatch;
+import net.mysterria.silkroad.domain.caravan.storage.StorageException;
+import net.mysterria.silkroad.domain.caravan.storage.YamlCaravanRepository;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.Material;
@@ -11,32 +18,138 @@ import org.bukkit.inventory.ItemStack;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.UUID;
 
 public class CaravanStorage {
     
-    private final File caravanDir;
-    private final File transferDir;
+    private static final int PARALLEL_LOAD_THRESHOLD = 64;
+    private static final int MAX_LOADER_THREADS = 4;
+    
+    private final CaravanRepository repository;
+    private final ItemStackCodec.Format itemFormat;
+    // Entities loaded with items in a format other than the configured one, picked up by ItemFormatConverter
+    private final Set<String> outdatedCaravans = ConcurrentHashMap.newKeySet();
+    private final Set<String> outdatedTransfers = ConcurrentHashMap.newKeySet();
     
     public CaravanStorage() {
-        File dataFolder = SilkRoad.getInstance().getDataFolder();
-        this.caravanDir = new File(dataFolder, "caravans");
-        this.transferDir = new File(dataFolder, "transfers");
+        this(openRepository());
+    }
+    
+    /**
+     * Storage on top of the given repository instead of the configured backend
+     */
+    public CaravanStorage(CaravanRepository repository) {
+        this.repository = repository;
+        this.itemFormat = ItemStackCodec.Format.fromConfig(SilkRoad.getInstance().getPluginConfig().getItemFormat());
+    }
+    
+    public ItemStackCodec.Format getItemFormat() {
+        return itemFormat;
+    }
+    
+    /**
+     * Removes and returns up to {@code limit} caravan IDs still stored in the old item format
+     */
+    public List<String> pollOutdatedCaravans(int limit) {
+        return poll(outdatedCaravans, limit);
+    }
+    
+    public List<String> pollOutdatedTransfers(int limit) {
+        return poll(outdatedTransfers, limit);
+    }
+    
+    private static List<String> poll(Set<String> ids, int limit) {
+        List<String> polled = new ArrayList<>();
+        Iterator<String> iterator = ids.iterator();
+        while (iterator.hasNext() && polled.size() < limit) {
+            polled.add(iterator.next());
+            iterator.remove();
+        }
+        return polled;
+    }
+    
+    private static CaravanRepository openRepository() {
+        SilkRoad plugin = SilkRoad.getInstance();
+        File dataFolder = plugin.getDataFolder();
+        YamlCaravanRepository yamlRepository = new YamlCaravanRepository(dataFolder);
         
-        if (!caravanDir.exists()) {
-            caravanDir.mkdirs();
+        String backend = plugin.getPluginConfig().getStorageBackend();
+        if (!backend.equals("sqlite")) {
+            if (!backend.equals("yaml")) {
+                plugin.getLogger().warning("Unknown storage backend '" + backend + "', using yaml");
+            }
+            return yamlRepository;
         }
-        if (!transferDir.exists()) {
-            transferDir.mkdirs();
+        
+        try {
+            SqliteCaravanRepository sqliteRepository = new SqliteCaravanRepository(new File(dataFolder, plugin.getPluginConfig().getSqliteFile()));
+            CaravanStorageMigrator migrator = new CaravanStorageMigrator(yamlRepository, sqliteRepository);
+            if (migrator.isNeeded()) {
+                migrator.migrate();
+            }
+            plugin.getLogger().info("Using SQLite caravan storage");
+            return sqliteRepository;
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to open SQLite caravan storage, falling back to yaml: " + e.getMessage());
+            return yamlRepository;
         }
     }
     
+    /**
+     * Writes the sections of a caravan changed since its last save, does nothing when none did.
+     * If the write fails the sections stay dirty for the next save.
+     */
     public void saveCaravan(Caravan caravan) {
-        File file = new File(caravanDir, caravan.getId() + ".yml");
-        YamlConfiguration config = new YamlConfiguration(file);
+        long start = System.nanoTime();
+        int sections = caravan.takeDirtySections();
+        if (sections != 0) {
+            try {
+                writeCaravan(caravan.getId(), snapshotCaravan(caravan, sections));
+            } catch (StorageException e) {
+                caravan.restoreDirtySections(sections);
+                throw e;
+            }
+        }
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.STORAGE_SAVE_CARAVAN, start);
+    }
+    
+    /**
+     * Captures the persistent state of a caravan as a YAML document.
+     * Must be called from the thread that owns the caravan; the returned map is detached
+     * from the caravan and can be written from any thread.
+     */
+    public Map<String, Object> snapshotCaravan(Caravan caravan) {
+        return snapshotCaravan(caravan, Caravan.Section.ALL);
+    }
+    
+    /**
+     * Adds the sections changed since the last call to the batch and returns their Section bits,
+     * 0 when nothing changed. The bits are cleared, if the batch fails the caller must give them
+     * back with {@link Caravan#restoreDirtySections(int)}. Metadata is always included.
+     */
+    public int snapshotChanges(Caravan caravan, StorageBatch batch) {
+        int sections = caravan.takeDirtySections();
+        if (sections != 0) {
+            batch.writeCaravan(caravan.getId(), snapshotCaravan(caravan, sections));
+        }
+        return sections;
+    }
+    
+    /**
+     * Partial snapshot holding the metadata plus the document keys of the given Section bits,
+     * repositories leave the sections missing from a document untouched
+     */
+    public Map<String, Object> snapshotCaravan(Caravan caravan, int sections) {
+        Map<String, Object> data = new LinkedHashMap<>();
         
-        config.set("id", caravan.getId());
-        config.set("name", caravan.getName());
+        data.put("id", caravan.getId());
+        data.put("name", caravan.getName());
         
         // Create location map
         Map<String, Object> locationMap = new HashMap<>();
@@ -46,63 +159,81 @@ public class CaravanStorage {
         locationMap.put("z", caravan.getLocation().getZ());
         locationMap.put("yaw", caravan.getLocation().getYaw());
         locationMap.put("pitch", caravan.getLocation().getPitch());
-        config.set("location", locationMap);
-        
-        config.set("createdAt", caravan.getCreatedAt());
-        config.set("active", caravan.isActive());
+        data.put("location", locationMap);
         
-        Map<String, Object> inventoryMap = new HashMap<>();
-        for (Map.Entry<Material, Integer> entry : caravan.getInventory().entrySet()) {
-            inventoryMap.put(entry.getKey().name(), entry.getValue());
-        }
-        config.set("inventory", inventoryMap);
+        data.put("createdAt", caravan.getCreatedAt());
+        data.put("active", caravan.isActive());
         
-        // Save ItemStack inventory with NBT data
-        List<Map<String, Object>> itemStacksList = new ArrayList<>();
-        for (ItemStack itemStack : caravan.getItemInventory()) {
-            if (itemStack != null && itemStack.getType() != Material.AIR) {
-                itemStacksList.add(itemStack.serialize());
+        if (Caravan.Section.INVENTORY.isIn(sections)) {
+            Map<String, Object> inventoryMap = new HashMap<>();
+            for (Map.Entry<Material, Integer> entry : caravan.getInventory().entrySet()) {
+                inventoryMap.put(entry.getKey().name(), entry.getValue());
             }
+            data.put("inventory", inventoryMap);
+            
+            // Save ItemStack inventory with NBT data
+            List<Object> itemStacksList = new ArrayList<>();
+            for (ItemStack itemStack : caravan.getItemInventory()) {
+                if (itemStack != null && itemStack.getType() != Material.AIR) {
+                    itemStacksList.add(ItemStackCodec.encode(itemStack, itemFormat));
+                }
+            }
+            data.put("itemInventory", itemStacksList);
+            // Replay skips records up to this sequence, it must never be newer than the stored items
+            data.put("journalSeq", caravan.getJournalSequence());
         }
-        config.set("itemInventory", itemStacksList);
-        // Save territory as list of strings
-        config.set("territory", new ArrayList<>(caravan.getTerritoryChunks()));
         
-        // Save members (new unified system)
-        List<String> membersList = new ArrayList<>();
-        for (UUID memberId : caravan.getMembers()) {
-            membersList.add(memberId.toString());
+        if (Caravan.Section.TERRITORY.isIn(sections)) {
+            // Save territory as list of strings
+            data.put("territory", caravan.getTerritory().toStrings());
         }
-        config.set("members", membersList);
         
-        // Save empty owners list for backwards compatibility
-        config.set("owners", new ArrayList<>());
+        if (Caravan.Section.MEMBERS.isIn(sections)) {
+            // Save members (new unified system)
+            List<String> membersList = new ArrayList<>();
+            for (UUID memberId : caravan.getMembers()) {
+                membersList.add(memberId.toString());
+            }
+            data.put("members", membersList);
+            
+            // Save empty owners list for backwards compatibility
+            data.put("owners", new ArrayList<>());
+        }
         
         // Save town ownership information (HuskTowns integration)
         if (caravan.getOwningTownName() != null) {
-            config.set("owningTownName", caravan.getOwningTownName());
+            data.put("owningTownName", caravan.getOwningTownName());
         }
         if (caravan.getOwningTownId() != -1) {
-            config.set("owningTownId", caravan.getOwningTownId());
+            data.put("owningTownId", caravan.getOwningTownId());
         }
         
-        try {
-            config.save();
-        } catch (Exception e) {
-            SilkRoad.getInstance().getLogger().severe("Failed to save caravan " + caravan.getId() + ": " + e.getMessage());
-        }
+        return data;
+    }
+    
+    /**
+     * Writes a snapshot produced by {@link #snapshotCaravan(Caravan)} to the repository
+     */
+    public void writeCaravan(String id, Map<String, Object> snapshot) {
+        repository.writeCaravan(id, snapshot);
     }
     
     public Caravan loadCaravan(String id) {
-        File file = new File(caravanDir, id + ".yml");
-        if (!file.exists()) {
+        try {
+            Map<String, Object> data = repository.readCaravan(id);
+            return data == null ? null : readCaravan(id, data);
+        } catch (Exception e) {
+            SilkRoad.getInstance().getLogger().severe("Failed to load caravan " + id + ": " + e.getMessage());
             return null;
         }
-        
+    }
+    
+    /**
+     * Decodes a caravan from a document produced by {@link #snapshotCaravan(Caravan)}
+     */
+    public Caravan readCaravan(String id, Map<String, Object> data) {
         try {
-            YamlConfiguration config = new YamlConfiguration(file);
-            
-            String name = asString(config.get("name"));
+            String name = asString(data.get("name"));
             
             // Load location - support both old dotted notation and new nested format
             String worldName;
@@ -110,7 +241,7 @@ public class CaravanStorage {
             float yaw, pitch;
             
             // Try new nested format first
-            Map<String, Object> locationMap = config.getSection("location");
+            Map<String, Object> locationMap = section(data, "location");
             if (locationMap != null && !locationMap.isEmpty()) {
                 worldName = asString(locationMap.get("world"));
                 x = asDouble(locationMap.get("x"));
@@ -120,12 +251,12 @@ public class CaravanStorage {
                 pitch = (float) asDouble(locationMap.get("pitch"));
             } else {
                 // Fall back to old dotted notation
-                worldName = asString(config.get("location.world"));
-                x = asDouble(config.get("location.x"));
-                y = asDouble(config.get("location.y"));
-                z = asDouble(config.get("location.z"));
-                yaw = (float) asDouble(config.get("location.yaw"));
-                pitch = (float) asDouble(config.get("location.pitch"));
+                worldName = asString(data.get("location.world"));
+                x = asDouble(data.get("location.x"));
+                y = asDouble(data.get("location.y"));
+                z = asDouble(data.get("location.z"));
+                yaw = (float) asDouble(data.get("location.yaw"));
+                pitch = (float) asDouble(data.get("location.pitch"));
             }
             
             World world = Bukkit.getWorld(worldName);
@@ -137,10 +268,10 @@ public class CaravanStorage {
             Location location = new Location(world, x, y, z, yaw, pitch);
             
             Caravan caravan = new Caravan(id, name, location);
-            caravan.setCreatedAt(asLong(config.get("createdAt")));
-            caravan.setActive(asBoolean(config.get("active"), true));
+            caravan.setCreatedAt(asLong(data.get("createdAt")));
+            caravan.setActive(asBoolean(data.get("active"), true));
             
-            Map<String, Object> inventorySection = config.getSection("inventory");
+            Map<String, Object> inventorySection = section(data, "inventory");
             if (inventorySection != null) {
                 for (Map.Entry<String, Object> entry : inventorySection.entrySet()) {
                     String key = entry.getKey();
@@ -155,34 +286,28 @@ public class CaravanStorage {
             }
             
             // Load ItemStack inventory with NBT data
-            Object itemInventoryObj = config.get("itemInventory");
+            Object itemInventoryObj = data.get("itemInventory");
             if (itemInventoryObj instanceof java.util.List<?> itemInventoryList) {
                 for (Object o : itemInventoryList) {
-                    if (o instanceof Map<?, ?> itemData) {
-                        try {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> itemMap = (Map<String, Object>) itemData;
-                            ItemStack itemStack = ItemStack.deserialize(itemMap);
-                            caravan.getItemInventory().add(itemStack);
-                        } catch (Exception e) {
-                            SilkRoad.getInstance().getLogger().warning("Failed to deserialize ItemStack: " + e.getMessage());
+                    try {
+                        caravan.restoreItemStack(ItemStackCodec.decode(o));
+                        if (ItemStackCodec.detect(o) != itemFormat) {
+                            outdatedCaravans.add(id);
                         }
+                    } catch (Exception e) {
+                        SilkRoad.getInstance().getLogger().warning("Failed to deserialize ItemStack: " + e.getMessage());
                     }
                 }
             }
 
             // Load territory list
-            Object territoryObj = config.get("territory");
+            Object territoryObj = data.get("territory");
             if (territoryObj instanceof java.util.List<?> territoryList) {
-                for (Object o : territoryList) {
-                    if (o != null) {
-                        caravan.getTerritoryChunks().add(String.valueOf(o));
-                    }
-                }
+                caravan.setTerritory(ChunkTerritory.fromStrings(territoryList));
             }
             
             // Load members from new unified system
-            Object membersObj = config.get("members");
+            Object membersObj = data.get("members");
             if (membersObj instanceof java.util.List<?> membersList) {
                 for (Object o : membersList) {
                     if (o != null) {
@@ -197,8 +322,10 @@ public class CaravanStorage {
             }
             
             // MIGRATION: Load old owners and convert them to members (backwards compatibility)
-            Object ownersObj = config.get("owners");
+            Object ownersObj = data.get("owners");
+            boolean migratedOwners = false;
             if (ownersObj instanceof java.util.List<?> ownersList) {
+                migratedOwners = !ownersList.isEmpty();
                 for (Object o : ownersList) {
                     if (o != null) {
                         try {
@@ -213,16 +340,24 @@ public class CaravanStorage {
             }
             
             // Load town ownership information (HuskTowns integration)
-            String owningTownName = asString(config.get("owningTownName"));
+            String owningTownName = asString(data.get("owningTownName"));
             if (owningTownName != null && !owningTownName.isEmpty()) {
                 caravan.setOwningTownName(owningTownName);
             }
             
-            int owningTownId = asInt(config.get("owningTownId"));
+            int owningTownId = asInt(data.get("owningTownId"));
             if (owningTownId != 0) { // 0 is default when config value is missing
                 caravan.setOwningTownId(owningTownId);
             }
             
+            caravan.setJournalSequence(asLong(data.get("journalSeq")));
+            
+            // Storage already matches the loaded state, except for owners that still have to be written as members
+            caravan.clearDirtySections();
+            if (migratedOwners) {
+                caravan.markDirty(Caravan.Section.MEMBERS);
+            }
+            
             return caravan;
         } catch (Exception e) {
             SilkRoad.getInstance().getLogger().severe("Failed to load caravan " + id + ": " + e.getMessage());
@@ -230,83 +365,106 @@ public class CaravanStorage {
         }
     }
     
-    public void deleteCaravan(String id) {
-        File file = new File(caravanDir, id + ".yml");
-        if (file.exists()) {
-            file.delete();
+    /**
+     * Loads many caravans at once. Documents are read and parsed on a worker pool, decoding
+     * (worlds, item stacks) stays on the calling thread since it touches Bukkit state.
+     */
+    public List<Caravan> loadCaravans(List<String> ids) {
+        Map<String, Map<String, Object>> documents = readInParallel(ids, "caravan", repository::readCaravan);
+        List<Caravan> loaded = new ArrayList<>();
+        for (String id : ids) {
+            Map<String, Object> data = documents.get(id);
+            Caravan caravan = data == null ? null : readCaravan(id, data);
+            if (caravan != null) {
+                loaded.add(caravan);
+            }
         }
+        return loaded;
+    }
+    
+    public void deleteCaravan(String id) {
+        repository.deleteCaravan(id);
     }
     
     public List<String> getAllCaravanIds() {
-        List<String> ids = new ArrayList<>();
-        File[] files = caravanDir.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (files != null) {
-            for (File file : files) {
-                String name = file.getName();
-                ids.add(name.substring(0, name.length() - 4));
-            }
-        }
-        return ids;
+        return repository.getCaravanIds();
     }
     
     public void saveTransfer(ResourceTransfer transfer) {
-        File file = new File(transferDir, transfer.getId() + ".yml");
-        YamlConfiguration config = new YamlConfiguration(file);
+        long start = System.nanoTime();
+        writeTransfer(transfer.getId(), snapshotTransfer(transfer));
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.STORAGE_SAVE_TRANSFER, start);
+    }
+    
+    /**
+     * Captures the persistent state of a transfer as a YAML document
+     */
+    public Map<String, Object> snapshotTransfer(ResourceTransfer transfer) {
+        Map<String, Object> data = new LinkedHashMap<>();
         
-        config.set("id", transfer.getId());
-        config.set("sourceCaravanId", transfer.getSourceCaravanId());
-        config.set("destinationCaravanId", transfer.getDestinationCaravanId());
-        config.set("playerId", transfer.getPlayerId().toString());
-        config.set("playerName", transfer.getPlayerName());
-        config.set("createdAt", transfer.getCreatedAt());
-        config.set("deliveryTime", transfer.getDeliveryTime());
-        config.set("distance", transfer.getDistance());
-        config.set("cost", transfer.getCost());
-        config.set("status", transfer.getStatus().name());
+        data.put("id", transfer.getId());
+        data.put("sourceCaravanId", transfer.getSourceCaravanId());
+        data.put("destinationCaravanId", transfer.getDestinationCaravanId());
+        data.put("playerId", transfer.getPlayerId().toString());
+        data.put("playerName", transfer.getPlayerName());
+        data.put("createdAt", transfer.getCreatedAt());
+        data.put("deliveryTime", transfer.getDeliveryTime());
+        data.put("distance", transfer.getDistance());
+        data.put("cost", transfer.getCost());
+        data.put("status", transfer.getStatus().name());
+        data.put("journalSeq", transfer.getJournalSequence());
         
         // Save legacy Material-based resources (for backwards compatibility)
         Map<String, Object> resourcesMap = new HashMap<>();
         for (Map.Entry<Material, Integer> entry : transfer.getResources().entrySet()) {
             resourcesMap.put(entry.getKey().name(), entry.getValue());
         }
-        config.set("resources", resourcesMap);
+        data.put("resources", resourcesMap);
         
         // Save ItemStack-based resources (preserves NBT data)
-        List<Map<String, Object>> itemResourcesList = new ArrayList<>();
+        List<Object> itemResourcesList = new ArrayList<>();
         for (ItemStack item : transfer.getItemResources()) {
-            Map<String, Object> itemMap = item.serialize();
-            itemResourcesList.add(itemMap);
+            itemResourcesList.add(ItemStackCodec.encode(item, itemFormat));
         }
-        config.set("itemResources", itemResourcesList);
+        data.put("itemResources", itemResourcesList);
         
-        try {
-            config.save();
-        } catch (Exception e) {
-            SilkRoad.getInstance().getLogger().severe("Failed to save transfer " + transfer.getId() + ": " + e.getMessage());
-        }
+        return data;
+    }
+    
+    /**
+     * Writes a snapshot produced by {@link #snapshotTransfer(ResourceTransfer)} to the repository
+     */
+    public void writeTransfer(String id, Map<String, Object> snapshot) {
+        repository.writeTransfer(id, snapshot);
     }
     
     public ResourceTransfer loadTransfer(String id) {
-        File file = new File(transferDir, id + ".yml");
-        if (!file.exists()) {
+        try {
+            Map<String, Object> data = repository.readTransfer(id);
+            return data == null ? null : readTransfer(id, data);
+        } catch (Exception e) {
+            SilkRoad.getInstance().getLogger().severe("Failed to load transfer " + id + ": " + e.getMessage());
             return null;
         }
-        
+    }
+    
+    /**
+     * Decodes a transfer from a document produced by {@link #snapshotTransfer(ResourceTransfer)}
+     */
+    public ResourceTransfer readTransfer(String id, Map<String, Object> data) {
         try {
-            YamlConfiguration config = new YamlConfiguration(file);
-            
-            String sourceCaravanId = asString(config.get("sourceCaravanId"));
-            String destinationCaravanId = asString(config.get("destinationCaravanId"));
-            UUID playerId = UUID.fromString(asString(config.get("playerId")));
-            String playerName = asString(config.get("playerName"));
-            long createdAt = asLong(config.get("createdAt"));
-            long deliveryTime = asLong(config.get("deliveryTime"));
-            double distance = asDouble(config.get("distance"));
-            int cost = asInt(config.get("cost"));
-            ResourceTransfer.TransferStatus status = ResourceTransfer.TransferStatus.valueOf(asString(config.get("status")));
+            String sourceCaravanId = asString(data.get("sourceCaravanId"));
+            String destinationCaravanId = asString(data.get("destinationCaravanId"));
+            UUID playerId = UUID.fromString(asString(data.get("playerId")));
+            String playerName = asString(data.get("playerName"));
+            long createdAt = asLong(data.get("createdAt"));
+            long deliveryTime = asLong(data.get("deliveryTime"));
+            double distance = asDouble(data.get("distance"));
+            int cost = asInt(data.get("cost"));
+            ResourceTransfer.TransferStatus status = ResourceTransfer.TransferStatus.valueOf(asString(data.get("status")));
             
             Map<Material, Integer> resources = new HashMap<>();
-            Map<String, Object> resourcesSection = config.getSection("resources");
+            Map<String, Object> resourcesSection = section(data, "resources");
             if (resourcesSection != null) {
                 for (Map.Entry<String, Object> entry : resourcesSection.entrySet()) {
                     String key = entry.getKey();
@@ -322,18 +480,16 @@ public class CaravanStorage {
             
             // Load ItemStack-based resources (preserves NBT data)
             List<ItemStack> itemResources = new ArrayList<>();
-            Object itemResourcesObj = config.get("itemResources");
+            Object itemResourcesObj = data.get("itemResources");
             if (itemResourcesObj instanceof java.util.List<?> itemResourcesList) {
                 for (Object o : itemResourcesList) {
-                    if (o instanceof Map<?, ?> itemData) {
-                        try {
-                            @SuppressWarnings("unchecked")
-                            Map<String, Object> itemMap = (Map<String, Object>) itemData;
-                            ItemStack itemStack = ItemStack.deserialize(itemMap);
-                            itemResources.add(itemStack);
-                        } catch (Exception e) {
-                            SilkRoad.getInstance().getLogger().warning("Failed to deserialize ItemStack in transfer: " + e.getMessage());
+                    try {
+                        itemResources.add(ItemStackCodec.decode(o));
+                        if (ItemStackCodec.detect(o) != itemFormat) {
+                            outdatedTransfers.add(id);
                         }
+                    } catch (Exception e) {
+                        SilkRoad.getInstance().getLogger().warning("Failed to deserialize ItemStack in transfer: " + e.getMessage());
                     }
                 }
             }
@@ -350,6 +506,7 @@ public class CaravanStorage {
                         playerId, playerName, resources, createdAt, deliveryTime, distance, cost);
             }
             transfer.setStatus(status);
+            transfer.setJournalSequence(asLong(data.get("journalSeq")));
             
             return transfer;
         } catch (Exception e) {
@@ -358,26 +515,104 @@ public class CaravanStorage {
         }
     }
     
-    public void deleteTransfer(String id) {
-        File file = new File(transferDir, id + ".yml");
-        if (file.exists()) {
-            file.delete();
+    /**
+     * Transfer counterpart of {@link #loadCaravans(List)}
+     */
+    public List<ResourceTransfer> loadTransfers(List<String> ids) {
+        Map<String, Map<String, Object>> documents = readInParallel(ids, "transfer", repository::readTransfer);
+        List<ResourceTransfer> loaded = new ArrayList<>();
+        for (String id : ids) {
+            Map<String, Object> data = documents.get(id);
+            ResourceTransfer transfer = data == null ? null : readTransfer(id, data);
+            if (transfer != null) {
+                loaded.add(transfer);
+            }
         }
+        return loaded;
     }
     
-    public List<String> getAllTransferIds() {
-        List<String> ids = new ArrayList<>();
-        File[] files = transferDir.listFiles((dir, name) -> name.endsWith(".yml"));
-        if (files != null) {
-            for (File file : files) {
-                String name = file.getName();
-                ids.add(name.substring(0, name.length() - 4));
+    private Map<String, Map<String, Object>> readInParallel(List<String> ids, String kind, Function<String, Map<String, Object>> reader) {
+        Map<String, Map<String, Object>> documents = new ConcurrentHashMap<>();
+        int threads = Math.min(MAX_LOADER_THREADS, Runtime.getRuntime().availableProcessors());
+        if (ids.size() < PARALLEL_LOAD_THRESHOLD || threads < 2) {
+            for (String id : ids) {
+                readDocument(id, kind, reader, documents);
             }
+            return documents;
+        }
+        
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "SilkRoad-Loader-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(ids.size());
+            for (String id : ids) {
+                tasks.add(() -> {
+                    readDocument(id, kind, reader, documents);
+                    return null;
+                });
+            }
+            pool.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SilkRoad.getInstance().getLogger().severe("Interrupted while loading " + kind + "s, " + documents.size() + " of " + ids.size() + " read");
+        } finally {
+            pool.shutdown();
+        }
+        return documents;
+    }
+    
+    private static void readDocument(String id, String kind, Function<String, Map<String, Object>> reader,
+                                     Map<String, Map<String, Object>> documents) {
+        try {
+            Map<String, Object> data = reader.apply(id);
+            if (data != null) {
+                documents.put(id, data);
+            }
+        } catch (Exception e) {
+            SilkRoad.getInstance().getLogger().severe("Failed to load " + kind + " " + id + ": " + e.getMessage());
+        }
+    }
+    
+    public void deleteTransfer(String id) {
+        repository.deleteTransfer(id);
+    }
+    
+    public List<String> getAllTransferIds() {
+        return repository.getTransferIds();
+    }
+    
+    /**
+     * IDs of transfers in the given statuses, may include others when the backend has no status index
+     */
+    public List<String> getTransferIds(ResourceTransfer.TransferStatus... statuses) {
+        List<String> names = new ArrayList<>();
+        for (ResourceTransfer.TransferStatus status : statuses) {
+            names.add(status.name());
         }
-        return ids;
+        return repository.getTransferIds(names);
+    }
+    
+    public void writeBatch(StorageBatch batch) {
+        long start = System.nanoTime();
+        repository.writeBatch(batch);
+        SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.STORAGE_SAVE_BATCH, start);
+    }
+    
+    public void close() {
+        repository.close();
     }
 
     // Helper conversion methods for our simple YamlConfiguration wrapper
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> data, String key) {
+        Object section = data.get(key);
+        return (section instanceof Map) ? (Map<String, Object>) section : new HashMap<>();
+    }
+
     private static String asString(Object o) {
         return o == null ? null : String.valueOf(o);
     }
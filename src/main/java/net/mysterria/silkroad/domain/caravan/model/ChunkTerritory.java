@@ -0,0 +1,121 @@
+package net.mysterria.silkroad.domain.caravan.model;
+
+import net.mysterria.silkroad.utils.ChunkKey;
+import net.mysterria.silkroad.utils.LongHashSet;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A set of chunks across worlds, stored per world as packed {@link ChunkKey} values.
+ * Used for caravan territory and for admin wand selections.
+ */
+public class ChunkTerritory {
+
+    private final Map<String, LongHashSet> worlds = new HashMap<>();
+    private int size;
+
+    public ChunkTerritory() {
+    }
+
+    public ChunkTerritory(ChunkTerritory other) {
+        other.worlds.forEach((worldName, chunks) -> worlds.put(worldName, new LongHashSet(chunks)));
+        this.size = other.size;
+    }
+
+    /**
+     * Builds a territory from persisted "world:x:z" strings, malformed entries are skipped
+     */
+    public static ChunkTerritory fromStrings(Collection<?> values) {
+        ChunkTerritory territory = new ChunkTerritory();
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            ChunkKey.Parsed parsed = ChunkKey.parse(String.valueOf(value));
+            if (parsed != null) {
+                territory.add(parsed.getWorldName(), parsed.getKey());
+            }
+        }
+        return territory;
+    }
+
+    public List<String> toStrings() {
+        List<String> values = new ArrayList<>(size);
+        forEach((worldName, key) -> values.add(ChunkKey.toString(worldName, key)));
+        return values;
+    }
+
+    public boolean add(String worldName, int x, int z) {
+        return add(worldName, ChunkKey.pack(x, z));
+    }
+
+    public boolean add(String worldName, long key) {
+        if (worlds.computeIfAbsent(worldName, name -> new LongHashSet()).add(key)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    public void addAll(ChunkTerritory other) {
+        other.forEach(this::add);
+    }
+
+    public boolean remove(String worldName, int x, int z) {
+        LongHashSet chunks = worlds.get(worldName);
+        if (chunks == null || !chunks.remove(ChunkKey.pack(x, z))) {
+            return false;
+        }
+        if (chunks.isEmpty()) {
+            worlds.remove(worldName);
+        }
+        size--;
+        return true;
+    }
+
+    public boolean contains(String worldName, int x, int z) {
+        return contains(worldName, ChunkKey.pack(x, z));
+    }
+
+    public boolean contains(String worldName, long key) {
+        LongHashSet chunks = worlds.get(worldName);
+        return chunks != null && chunks.contains(key);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        worlds.clear();
+        size = 0;
+    }
+
+    public Set<String> getWorldNames() {
+        return Collections.unmodifiableSet(worlds.keySet());
+    }
+
+    public long[] toArray(String worldName) {
+        LongHashSet chunks = worlds.get(worldName);
+        return chunks == null ? new long[0] : chunks.toArray();
+    }
+
+    public void forEach(ChunkConsumer action) {
+        worlds.forEach((worldName, chunks) -> chunks.forEach(key -> action.accept(worldName, key)));
+    }
+
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(String worldName, long key);
+    }
+}
@@ -28,6 +28,8 @@ public class ResourceTransfer {
     private double distance;
     private int cost;
     private TransferStatus status;
+    // Sequence of the last journal record written for this transfer
+    private long journalSequence;
     
     public enum TransferStatus {
         PENDING,
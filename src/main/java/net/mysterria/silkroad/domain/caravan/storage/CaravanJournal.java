@@ -0,0 +1,322 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import lombok.Getter;
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of item movements and transfer state changes.
+ *
+ * Records are appended from any thread into the active segment and made durable in groups by
+ * {@link #sync()}, which CaravanPersistence runs every few ticks, or one by one when every record
+ * has to be synced. {@link CaravanPersistence#flush()} seals the segment, and it is deleted only
+ * once the batch holding its changes has been written. A failed batch hands its segments back with
+ * {@link #keep(List)}. Anything newer than a snapshot is replayed on startup.
+ * Each line is {@code seq op target payload crc}, a torn or corrupted tail stops replay of that segment.
+ */
+public class CaravanJournal {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    public enum Operation {
+        CARAVAN_CREATE,
+        CARAVAN_DELETE,
+        ITEM_ADD,
+        ITEM_REMOVE,
+        RESOURCE_ADD,
+        RESOURCE_REMOVE,
+        TRANSFER_PUT,
+        TRANSFER_DELETE
+    }
+
+    @Getter
+    public static class Entry {
+        private final long sequence;
+        private final Operation operation;
+        private final String targetId;
+        private final byte[] payload;
+
+        public Entry(long sequence, Operation operation, String targetId, byte[] payload) {
+            this.sequence = sequence;
+            this.operation = operation;
+            this.targetId = targetId;
+            this.payload = payload;
+        }
+    }
+
+    /**
+     * A journal file, segments replayed from previous runs have no open stream
+     */
+    public static class Segment {
+        private final File file;
+        private final FileOutputStream stream;
+        private final Writer writer;
+        private volatile boolean closed;
+
+        private Segment(File file, FileOutputStream stream) {
+            this.file = file;
+            this.stream = stream;
+            this.writer = stream == null ? null : new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+        }
+
+        /**
+         * Flushes buffered records and fsyncs them, safe to call from the I/O thread
+         */
+        public void syncAndClose() {
+            if (writer == null || closed) {
+                return;
+            }
+            try {
+                writer.flush();
+                stream.getFD().sync();
+                closed = true;
+                writer.close();
+            } catch (IOException e) {
+                SilkRoad.getInstance().getLogger().severe("Failed to sync journal segment " + file.getName() + ": " + e.getMessage());
+            }
+        }
+
+        /**
+         * Fsyncs whatever has been flushed to the stream, a segment closed meanwhile was synced by its close
+         */
+        private void force() {
+            try {
+                stream.getFD().sync();
+            } catch (IOException e) {
+                if (!closed) {
+                    SilkRoad.getInstance().getLogger().severe("Failed to sync journal segment " + file.getName() + ": " + e.getMessage());
+                }
+            }
+        }
+
+        public void delete() {
+            if (file.exists() && !file.delete()) {
+                SilkRoad.getInstance().getLogger().warning("Failed to delete journal segment " + file.getName());
+            }
+        }
+    }
+
+    private final File journalDir;
+    private final Logger logger;
+    // Fsync each record as it is appended instead of leaving it to sync()
+    private final boolean syncEveryRecord;
+    private final List<Segment> sealedSegments = new ArrayList<>();
+    private Segment activeSegment;
+    private long activeRecords;
+    private boolean unsynced;
+    private long lastSequence;
+
+    public CaravanJournal(File journalDir, boolean syncEveryRecord) {
+        this.journalDir = journalDir;
+        this.logger = SilkRoad.getInstance().getLogger();
+        this.syncEveryRecord = syncEveryRecord;
+
+        if (!journalDir.exists()) {
+            journalDir.mkdirs();
+        }
+    }
+
+    /**
+     * Reads every record left over from previous runs in sequence order.
+     * Existing segments are kept until the first checkpoint after they are replayed.
+     */
+    public synchronized List<Entry> readAll() {
+        List<Entry> entries = new ArrayList<>();
+        for (File file : listSegmentFiles()) {
+            int before = entries.size();
+            readSegment(file, entries);
+            Segment segment = new Segment(file, null);
+            if (entries.size() == before) {
+                // Nothing replayable, drop it now so a new segment can never reuse its name
+                segment.delete();
+            } else {
+                sealedSegments.add(segment);
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::getSequence));
+        if (!entries.isEmpty()) {
+            lastSequence = Math.max(lastSequence, entries.get(entries.size() - 1).getSequence());
+        }
+        return entries;
+    }
+
+    /**
+     * Starts a fresh segment, sequences continue after {@code minimumSequence} or the last replayed record
+     */
+    public synchronized void open(long minimumSequence) {
+        lastSequence = Math.max(lastSequence, minimumSequence);
+        activeSegment = createSegment();
+    }
+
+    public synchronized long append(Operation operation, String targetId, byte[] payload) {
+        if (activeSegment == null) {
+            throw new IllegalStateException("Journal is not open, cannot append " + operation + " for " + targetId);
+        }
+        long sequence = ++lastSequence;
+        String body = sequence + "\t" + operation.name() + "\t" + targetId + "\t"
+                + (payload == null ? "" : Base64.getEncoder().encodeToString(payload));
+
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(bodyBytes);
+        String checksum = Long.toHexString(crc.getValue());
+
+        try {
+            activeSegment.writer.write(body);
+            activeSegment.writer.write('\t');
+            activeSegment.writer.write(checksum);
+            activeSegment.writer.write('\n');
+            activeRecords++;
+            if (syncEveryRecord) {
+                activeSegment.writer.flush();
+                activeSegment.stream.getFD().sync();
+            } else {
+                unsynced = true;
+            }
+            SilkRoad.getInstance().getMetrics().add(SilkRoadMetrics.JOURNAL_BYTES_WRITTEN, bodyBytes.length + checksum.length() + 2L);
+        } catch (IOException e) {
+            logger.severe("Failed to append journal record " + operation + " for " + targetId + ": " + e.getMessage());
+        }
+        return sequence;
+    }
+
+    /**
+     * Group commit of every record appended since the last call. Only the buffer flush happens under
+     * the journal lock, appends never wait for the fsync.
+     */
+    public void sync() {
+        Segment segment;
+        synchronized (this) {
+            if (activeSegment == null || !unsynced) {
+                return;
+            }
+            try {
+                activeSegment.writer.flush();
+            } catch (IOException e) {
+                logger.severe("Failed to flush journal segment " + activeSegment.file.getName() + ": " + e.getMessage());
+                return;
+            }
+            unsynced = false;
+            segment = activeSegment;
+        }
+        segment.force();
+    }
+
+    public synchronized boolean hasPendingSegments() {
+        return activeRecords > 0 || !sealedSegments.isEmpty();
+    }
+
+    /**
+     * Seals the active segment and starts a new one. The returned segments must be synced before
+     * the snapshots covering them are written and may be deleted once those writes have completed.
+     */
+    public synchronized List<Segment> rotate() {
+        if (activeRecords > 0) {
+            sealedSegments.add(activeSegment);
+            activeSegment = createSegment();
+            activeRecords = 0;
+            unsynced = false;
+        }
+        List<Segment> sealed = new ArrayList<>(sealedSegments);
+        sealedSegments.clear();
+        return sealed;
+    }
+
+    /**
+     * Takes back segments returned by {@link #rotate()} whose batch failed, the next rotate returns them again
+     */
+    public synchronized void keep(List<Segment> segments) {
+        sealedSegments.addAll(0, segments);
+    }
+
+    public synchronized void close() {
+        if (activeSegment != null) {
+            activeSegment.syncAndClose();
+            if (activeRecords == 0) {
+                activeSegment.delete();
+            }
+            activeSegment = null;
+        }
+    }
+
+    private Segment createSegment() {
+        File file = new File(journalDir, SEGMENT_PREFIX + String.format("%020d", lastSequence + 1) + SEGMENT_SUFFIX);
+        try {
+            return new Segment(file, new FileOutputStream(file, true));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to open journal segment " + file.getName(), e);
+        }
+    }
+
+    private List<File> listSegmentFiles() {
+        File[] files = journalDir.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    private void readSegment(File file, List<Entry> entries) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                Entry entry = parseLine(line);
+                if (entry == null) {
+                    logger.warning("Journal segment " + file.getName() + " is truncated at line " + lineNumber + ", ignoring the rest");
+                    return;
+                }
+                entries.add(entry);
+            }
+        } catch (IOException e) {
+            logger.severe("Failed to read journal segment " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private Entry parseLine(String line) {
+        int crcSeparator = line.lastIndexOf('\t');
+        if (crcSeparator <= 0) {
+            return null;
+        }
+
+        String body = line.substring(0, crcSeparator);
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        if (!Long.toHexString(crc.getValue()).equals(line.substring(crcSeparator + 1))) {
+            return null;
+        }
+
+        String[] parts = body.split("\t", -1);
+        if (parts.length != 4) {
+            return null;
+        }
+
+        try {
+            byte[] payload = parts[3].isEmpty() ? null : Base64.getDecoder().decode(parts[3]);
+            return new Entry(Long.parseLong(parts[0]), Operation.valueOf(parts[1]), parts[2], payload);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
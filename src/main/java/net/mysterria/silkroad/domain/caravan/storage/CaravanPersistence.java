@@ -0,0 +1,448 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.config.SilkRoadConfig;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.domain.caravan.model.CaravanStorage;
+import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.scheduler.TaskHandle;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind persistence pipeline in front of {@link CaravanStorage}.
+ *
+ * In write-behind mode a save only marks the caravan or transfer dirty and returns at once.
+ * A flush task snapshots every dirty entity once per interval, so repeated saves of the same
+ * entity are coalesced, and a single I/O thread writes the snapshots as one {@link StorageBatch},
+ * which a transactional backend commits in one transaction.
+ * When the I/O queue is full the flush blocks until there is room again instead of dropping or
+ * reordering writes. With write-behind disabled every call writes through synchronously and a
+ * failed write is logged.
+ *
+ * Item movements and transfer state changes are also appended to a {@link CaravanJournal} before
+ * the entity is marked dirty, so whatever the flush has not written yet is replayed after a crash.
+ * A journal segment is deleted only after the batch covering it was written. When the batch fails
+ * its entities are queued again and the segment is kept until a later flush succeeds.
+ */
+public class CaravanPersistence {
+
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30L;
+
+    private final CaravanStorage storage;
+    private final Logger logger;
+    private final boolean writeBehind;
+    private final long flushIntervalTicks;
+    private final long journalSyncIntervalTicks;
+    // Pending writes keyed by entity ID, a null value marks a pending delete
+    private final Map<String, Caravan> pendingCaravans = new LinkedHashMap<>();
+    private final Map<String, ResourceTransfer> pendingTransfers = new LinkedHashMap<>();
+    // Caravan deletes that are queued or still running on the I/O thread
+    private final Set<String> inFlightCaravanDeletes = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor ioExecutor;
+    private final CaravanJournal journal;
+    private final Yaml yaml = new Yaml();
+    private TaskHandle flushTask;
+    private TaskHandle journalSyncTask;
+    // Set on shutdown, later writes go straight to storage since nothing flushes the queue or journal any more
+    private boolean closed;
+
+    public CaravanPersistence(CaravanStorage storage, SilkRoadConfig config) {
+        this(storage, config, new File(SilkRoad.getInstance().getDataFolder(), "journal"));
+    }
+
+    public CaravanPersistence(CaravanStorage storage, SilkRoadConfig config, File journalDir) {
+        this.storage = storage;
+        this.logger = SilkRoad.getInstance().getLogger();
+        this.writeBehind = config.isWriteBehindEnabled();
+        this.flushIntervalTicks = config.getWriteBehindFlushIntervalTicks();
+        this.journalSyncIntervalTicks = config.getJournalSyncIntervalTicks();
+        // Always readable so leftovers are replayed even after write-behind has been switched off
+        this.journal = new CaravanJournal(journalDir, journalSyncIntervalTicks == 0);
+
+        if (writeBehind) {
+            this.ioExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(config.getWriteBehindQueueCapacity()),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "SilkRoad-IO");
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (runnable, executor) -> {
+                        // Queue is full - block the flushing thread instead of losing ordering
+                        if (executor.isShutdown()) {
+                            throw new RejectedExecutionException("SilkRoad I/O executor has been shut down");
+                        }
+                        try {
+                            executor.getQueue().put(runnable);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RejectedExecutionException("Interrupted while waiting for the I/O queue", e);
+                        }
+                    });
+            logger.info("Write-behind persistence enabled (flush every " + flushIntervalTicks + " ticks)");
+        } else {
+            this.ioExecutor = null;
+        }
+    }
+
+    public void start() {
+        if (!writeBehind) {
+            return;
+        }
+
+        // Snapshots take each caravan's lock, so the flush needs no server thread
+        flushTask = SilkRoad.getInstance().getTaskScheduler().runAsyncTimer(this::flush, flushIntervalTicks, flushIntervalTicks);
+        if (journalSyncIntervalTicks > 0) {
+            journalSyncTask = SilkRoad.getInstance().getTaskScheduler().runAsyncTimer(journal::sync, journalSyncIntervalTicks, journalSyncIntervalTicks);
+        }
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    /**
+     * Whether a caravan delete is queued but not yet written, its file must not be reloaded meanwhile
+     */
+    public synchronized boolean isDeletePending(String caravanId) {
+        return (pendingCaravans.containsKey(caravanId) && pendingCaravans.get(caravanId) == null)
+                || inFlightCaravanDeletes.contains(caravanId);
+    }
+
+    public synchronized void saveCaravan(Caravan caravan) {
+        if (!writeBehind || closed) {
+            writeThrough(() -> storage.saveCaravan(caravan));
+            return;
+        }
+        pendingCaravans.put(caravan.getId(), caravan);
+    }
+
+    public synchronized void deleteCaravan(String id) {
+        if (!writeBehind || closed) {
+            writeThrough(() -> storage.deleteCaravan(id));
+            return;
+        }
+        journal.append(CaravanJournal.Operation.CARAVAN_DELETE, id, null);
+        pendingCaravans.put(id, null);
+    }
+
+    /**
+     * Saves a transfer, in write-behind mode the full transfer is journaled first since every
+     * transfer save is a state change (creation, delivery or failure)
+     */
+    public synchronized void saveTransfer(ResourceTransfer transfer) {
+        if (!writeBehind || closed) {
+            writeThrough(() -> storage.saveTransfer(transfer));
+            return;
+        }
+        transfer.setJournalSequence(journal.append(CaravanJournal.Operation.TRANSFER_PUT, transfer.getId(), encodeTransfer(transfer)));
+        pendingTransfers.put(transfer.getId(), transfer);
+    }
+
+    /**
+     * Writes a transfer again without a state change, so no journal record is needed
+     */
+    public synchronized void rewriteTransfer(ResourceTransfer transfer) {
+        if (!writeBehind || closed) {
+            writeThrough(() -> storage.saveTransfer(transfer));
+            return;
+        }
+        pendingTransfers.put(transfer.getId(), transfer);
+    }
+
+    public synchronized void deleteTransfer(String id) {
+        if (!writeBehind || closed) {
+            writeThrough(() -> storage.deleteTransfer(id));
+            return;
+        }
+        journal.append(CaravanJournal.Operation.TRANSFER_DELETE, id, null);
+        pendingTransfers.put(id, null);
+    }
+
+    /**
+     * Deletes several transfers as one storage batch, in write-behind mode they share the next flush
+     */
+    public synchronized void deleteTransfers(Collection<String> ids) {
+        if (!writeBehind || closed) {
+            StorageBatch batch = new StorageBatch();
+            ids.forEach(batch::deleteTransfer);
+            writeThrough(() -> storage.writeBatch(batch));
+            return;
+        }
+        for (String id : ids) {
+            journal.append(CaravanJournal.Operation.TRANSFER_DELETE, id, null);
+            pendingTransfers.put(id, null);
+        }
+    }
+
+    // Journal records for caravan state changes, each one also marks the caravan dirty
+
+    public void recordCaravanCreated(Caravan caravan) {
+        record(caravan, CaravanJournal.Operation.CARAVAN_CREATE, null);
+    }
+
+    public void recordItemAdded(Caravan caravan, ItemStack itemStack) {
+        record(caravan, CaravanJournal.Operation.ITEM_ADD, itemStack.serializeAsBytes());
+    }
+
+    public void recordItemRemoved(Caravan caravan, ItemStack itemStack) {
+        record(caravan, CaravanJournal.Operation.ITEM_REMOVE, itemStack.serializeAsBytes());
+    }
+
+    public void recordResourceAdded(Caravan caravan, Material material, int amount) {
+        record(caravan, CaravanJournal.Operation.RESOURCE_ADD, encodeResource(material, amount));
+    }
+
+    public void recordResourceRemoved(Caravan caravan, Material material, int amount) {
+        record(caravan, CaravanJournal.Operation.RESOURCE_REMOVE, encodeResource(material, amount));
+    }
+
+    private synchronized void record(Caravan caravan, CaravanJournal.Operation operation, byte[] payload) {
+        if (!writeBehind) {
+            return;
+        }
+        if (closed) {
+            writeThrough(() -> storage.saveCaravan(caravan));
+            return;
+        }
+        caravan.setJournalSequence(journal.append(operation, caravan.getId(), payload));
+        pendingCaravans.put(caravan.getId(), caravan);
+    }
+
+    /**
+     * Returns the records left over from the previous run, to be applied by the caller on top of the loaded snapshots
+     */
+    public List<CaravanJournal.Entry> readJournal() {
+        return journal.readAll();
+    }
+
+    /**
+     * Opens the journal for new records. The replayed segments are dropped when the caller has written
+     * every entity it changed during replay, otherwise they are kept until a flush has written them
+     * or, with write-behind off, replayed again on the next start.
+     */
+    public void completeReplay(long highestSequence, boolean replayWritten) {
+        List<CaravanJournal.Segment> replayed = journal.rotate();
+        if (replayWritten) {
+            replayed.forEach(CaravanJournal.Segment::delete);
+        } else {
+            journal.keep(replayed);
+        }
+        if (writeBehind) {
+            journal.open(highestSequence);
+        }
+    }
+
+    public ItemStack decodeItem(byte[] payload) {
+        return ItemStack.deserializeBytes(payload);
+    }
+
+    /**
+     * Decodes a resource payload as a single entry map of material to amount
+     */
+    public Map<Material, Integer> decodeResource(byte[] payload) {
+        String[] parts = new String(payload, StandardCharsets.UTF_8).split(":", 2);
+        return Collections.singletonMap(Material.valueOf(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    @SuppressWarnings("unchecked")
+    public ResourceTransfer decodeTransfer(String id, byte[] payload) {
+        Object data = yaml.load(new String(payload, StandardCharsets.UTF_8));
+        return data instanceof Map ? storage.readTransfer(id, (Map<String, Object>) data) : null;
+    }
+
+    private byte[] encodeResource(Material material, int amount) {
+        return (material.name() + ":" + amount).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] encodeTransfer(ResourceTransfer transfer) {
+        Map<String, Object> snapshot = storage.snapshotTransfer(transfer);
+        // Items go in binary form, plain YAML cannot round-trip item meta
+        List<Object> itemResources = new ArrayList<>();
+        for (ItemStack item : transfer.getItemResources()) {
+            itemResources.add(ItemStackCodec.encode(item, ItemStackCodec.Format.BINARY));
+        }
+        snapshot.put("itemResources", itemResources);
+        return yaml.dump(snapshot).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Snapshots all dirty entities and queues their writes on the I/O thread.
+     * Each caravan is snapshotted under its own lock, so saves may come from any thread.
+     */
+    public void flush() {
+        List<CaravanJournal.Segment> sealed;
+        Map<String, Caravan> dirtyCaravans;
+        Map<String, ResourceTransfer> dirtyTransfers;
+        synchronized (this) {
+            if (!writeBehind || (pendingCaravans.isEmpty() && pendingTransfers.isEmpty() && !journal.hasPendingSegments())) {
+                return;
+            }
+
+            // Every record appended since the last flush is synced before the snapshots covering it
+            // are written, and dropped only after those writes have completed
+            sealed = journal.rotate();
+            dirtyCaravans = new LinkedHashMap<>(pendingCaravans);
+            dirtyTransfers = new LinkedHashMap<>(pendingTransfers);
+            pendingCaravans.forEach((id, caravan) -> {
+                if (caravan == null) {
+                    inFlightCaravanDeletes.add(id);
+                }
+            });
+            pendingCaravans.clear();
+            pendingTransfers.clear();
+        }
+
+        // The whole flush is one batch, so a transactional backend commits all of it or nothing
+        StorageBatch batch = new StorageBatch();
+        // Dirty bits taken per caravan, given back if the batch fails
+        Map<Caravan, Integer> takenSections = new HashMap<>();
+        for (Map.Entry<String, Caravan> entry : dirtyCaravans.entrySet()) {
+            if (entry.getValue() == null) {
+                batch.deleteCaravan(entry.getKey());
+            } else {
+                int sections = snapshotLocked(entry.getValue(), batch);
+                if (sections != 0) {
+                    takenSections.put(entry.getValue(), sections);
+                }
+            }
+        }
+
+        for (Map.Entry<String, ResourceTransfer> entry : dirtyTransfers.entrySet()) {
+            if (entry.getValue() == null) {
+                batch.deleteTransfer(entry.getKey());
+            } else {
+                batch.writeTransfer(entry.getKey(), storage.snapshotTransfer(entry.getValue()));
+            }
+        }
+        submitBatch(batch, sealed, dirtyCaravans, dirtyTransfers, takenSections);
+    }
+
+    /**
+     * Snapshots the sections changed since the caravan was last written into the batch and returns their bits
+     */
+    private int snapshotLocked(Caravan caravan, StorageBatch batch) {
+        caravan.getLock().lock();
+        try {
+            return storage.snapshotChanges(caravan, batch);
+        } finally {
+            caravan.getLock().unlock();
+        }
+    }
+
+    private void submitBatch(StorageBatch batch, List<CaravanJournal.Segment> sealed, Map<String, Caravan> dirtyCaravans,
+                             Map<String, ResourceTransfer> dirtyTransfers, Map<Caravan, Integer> takenSections) {
+        if (batch.isEmpty() && sealed.isEmpty()) {
+            return;
+        }
+        submit(() -> {
+            sealed.forEach(CaravanJournal.Segment::syncAndClose);
+            try {
+                storage.writeBatch(batch);
+            } catch (StorageException e) {
+                logger.severe(e.getMessage() + ", retrying with the next flush");
+                requeue(sealed, dirtyCaravans, dirtyTransfers, takenSections);
+                return;
+            } finally {
+                inFlightCaravanDeletes.removeAll(batch.getCaravanDeletes());
+            }
+            sealed.forEach(CaravanJournal.Segment::delete);
+        });
+    }
+
+    /**
+     * Queues the entities of a failed batch again unless a newer save or delete of them is already
+     * queued, marks the caravan sections it carried dirty again and hands its journal segments back,
+     * so nothing of the batch is lost before a later flush succeeds
+     */
+    private synchronized void requeue(List<CaravanJournal.Segment> sealed, Map<String, Caravan> dirtyCaravans,
+                                      Map<String, ResourceTransfer> dirtyTransfers, Map<Caravan, Integer> takenSections) {
+        takenSections.forEach(Caravan::restoreDirtySections);
+        dirtyCaravans.forEach((id, caravan) -> {
+            if (!pendingCaravans.containsKey(id)) {
+                pendingCaravans.put(id, caravan);
+            }
+        });
+        dirtyTransfers.forEach((id, transfer) -> {
+            if (!pendingTransfers.containsKey(id)) {
+                pendingTransfers.put(id, transfer);
+            }
+        });
+        journal.keep(sealed);
+    }
+
+    /**
+     * Runs a synchronous write, a failure is logged since there is nothing queued to retry it from
+     */
+    private void writeThrough(Runnable write) {
+        try {
+            write.run();
+        } catch (StorageException e) {
+            logger.severe(e.getMessage());
+        }
+    }
+
+    private void submit(Runnable write) {
+        try {
+            ioExecutor.execute(write);
+        } catch (RejectedExecutionException e) {
+            // Executor is gone (shutdown race) - never drop a write, do it here
+            logger.warning("I/O queue unavailable, writing synchronously: " + e.getMessage());
+            write.run();
+        }
+    }
+
+    /**
+     * Flushes every pending write and waits for the I/O thread to finish
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        if (journalSyncTask != null) {
+            journalSyncTask.cancel();
+            journalSyncTask = null;
+        }
+
+        if (!writeBehind) {
+            return;
+        }
+
+        flush();
+        ioExecutor.shutdown();
+        try {
+            if (!ioExecutor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                logger.severe("Timed out waiting for pending caravan writes, " + ioExecutor.getQueue().size() + " writes were not flushed");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.severe("Interrupted while flushing pending caravan writes");
+        }
+        // Writes that arrived during the final flush are written here, anything later goes straight to storage
+        synchronized (this) {
+            closed = true;
+        }
+        flush();
+        journal.close();
+    }
+}
@@ -0,0 +1,52 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage backend for caravan and transfer documents.
+ *
+ * Documents are the plain maps produced by {@link net.mysterria.silkroad.domain.caravan.model.CaravanStorage},
+ * encoding and decoding of the domain objects stays there. Implementations must be safe to call
+ * from the I/O thread and the main thread, but never concurrently for the same entity.
+ *
+ * Reads log and return null or an empty list on failure, writes and deletes throw {@link StorageException}
+ * so the caller can keep what it has not persisted yet.
+ */
+public interface CaravanRepository {
+
+    Map<String, Object> readCaravan(String id);
+
+    /**
+     * Writes a caravan document. Sections ({@link net.mysterria.silkroad.domain.caravan.model.Caravan.Section})
+     * whose keys are missing from the document keep their stored value, so partial documents only touch what changed.
+     */
+    void writeCaravan(String id, Map<String, Object> document);
+
+    void deleteCaravan(String id);
+
+    List<String> getCaravanIds();
+
+    Map<String, Object> readTransfer(String id);
+
+    void writeTransfer(String id, Map<String, Object> document);
+
+    void deleteTransfer(String id);
+
+    List<String> getTransferIds();
+
+    /**
+     * IDs of transfers in one of the given statuses, backends without an index may return every ID
+     */
+    List<String> getTransferIds(Collection<String> statuses);
+
+    /**
+     * Applies all writes and deletes of a batch, atomically where the backend supports it
+     *
+     * @throws StorageException when any part of the batch failed, a transactional backend has then written none of it
+     */
+    void writeBatch(StorageBatch batch);
+
+    void close();
+}
@@ -0,0 +1,85 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import net.mysterria.silkroad.SilkRoad;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * One-shot import of the YAML caravans/ and transfers/ folders into another backend.
+ * Runs only while the target is still empty; the imported folders are renamed afterwards
+ * so they are neither imported twice nor picked up again if the backend is switched back.
+ */
+public class CaravanStorageMigrator {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final YamlCaravanRepository source;
+    private final CaravanRepository target;
+    private final Logger logger;
+
+    public CaravanStorageMigrator(YamlCaravanRepository source, CaravanRepository target) {
+        this.source = source;
+        this.target = target;
+        this.logger = SilkRoad.getInstance().getLogger();
+    }
+
+    public boolean isNeeded() {
+        return !source.isEmpty() && target.getCaravanIds().isEmpty() && target.getTransferIds().isEmpty();
+    }
+
+    public void migrate() {
+        long start = System.currentTimeMillis();
+        List<String> caravanIds = source.getCaravanIds();
+        List<String> transferIds = source.getTransferIds();
+        logger.info("Importing " + caravanIds.size() + " caravans and " + transferIds.size() + " transfers from YAML storage...");
+
+        StorageBatch batch = new StorageBatch();
+        int caravans = 0;
+        int transfers = 0;
+
+        for (String id : caravanIds) {
+            Map<String, Object> document = source.readCaravan(id);
+            if (document != null) {
+                batch.writeCaravan(id, document);
+                caravans++;
+            }
+            batch = flushIfFull(batch);
+        }
+        for (String id : transferIds) {
+            Map<String, Object> document = source.readTransfer(id);
+            if (document != null) {
+                batch.writeTransfer(id, document);
+                transfers++;
+            }
+            batch = flushIfFull(batch);
+        }
+        target.writeBatch(batch);
+
+        if (target.getCaravanIds().size() < caravans || target.getTransferIds().size() < transfers) {
+            logger.severe("YAML import incomplete, keeping caravans/ and transfers/ folders for the next attempt");
+            return;
+        }
+
+        archive(source.getCaravanDir());
+        archive(source.getTransferDir());
+        logger.info("Imported " + caravans + " caravans and " + transfers + " transfers in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private StorageBatch flushIfFull(StorageBatch batch) {
+        if (batch.size() < BATCH_SIZE) {
+            return batch;
+        }
+        target.writeBatch(batch);
+        return new StorageBatch();
+    }
+
+    private void archive(File dir) {
+        File archived = new File(dir.getParentFile(), dir.getName() + ".migrated");
+        if (!dir.renameTo(archived)) {
+            logger.warning("Failed to rename " + dir.getName() + " to " + archived.getName() + ", remove it manually");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.domain.caravan.model.CaravanStorage;
+import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.scheduler.TaskHandle;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Re-saves caravans and transfers that were loaded with items in a format other than
+ * {@code storage.item_format}, a small batch per run so conversion never stalls the server.
+ * The actual encoding and writing happens on the regular persistence path.
+ */
+public class ItemFormatConverter implements Runnable {
+
+    private static final long INTERVAL_TICKS = 20L;
+
+    private final CaravanStorage storage;
+    private final CaravanPersistence persistence;
+    private final Function<String, Caravan> caravanLookup;
+    private final Function<String, ResourceTransfer> transferLookup;
+    private final int batchSize;
+    private int converted;
+    private TaskHandle task;
+
+    public ItemFormatConverter(CaravanStorage storage, CaravanPersistence persistence,
+                               Function<String, Caravan> caravanLookup,
+                               Function<String, ResourceTransfer> transferLookup, int batchSize) {
+        this.storage = storage;
+        this.persistence = persistence;
+        this.caravanLookup = caravanLookup;
+        this.transferLookup = transferLookup;
+        this.batchSize = batchSize;
+    }
+
+    public void start() {
+        task = SilkRoad.getInstance().getTaskScheduler().runGlobalTimer(this, INTERVAL_TICKS, INTERVAL_TICKS);
+    }
+
+    @Override
+    public void run() {
+        List<String> caravanIds = storage.pollOutdatedCaravans(batchSize);
+        for (String id : caravanIds) {
+            Caravan caravan = caravanLookup.apply(id);
+            if (caravan != null) {
+                caravan.markDirty(Caravan.Section.INVENTORY);
+                persistence.saveCaravan(caravan);
+                converted++;
+            }
+        }
+
+        List<String> transferIds = storage.pollOutdatedTransfers(batchSize - caravanIds.size());
+        for (String id : transferIds) {
+            ResourceTransfer transfer = transferLookup.apply(id);
+            if (transfer != null) {
+                persistence.rewriteTransfer(transfer);
+                converted++;
+            }
+        }
+
+        if (caravanIds.isEmpty() && transferIds.isEmpty()) {
+            if (converted > 0) {
+                SilkRoad.getInstance().getLogger().info("Converted " + converted + " caravans and transfers to " + storage.getItemFormat() + " item format");
+            }
+            task.cancel();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import org.bukkit.inventory.ItemStack;
+
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Encodes item stacks inside caravan and transfer documents.
+ *
+ * {@link Format#MAP} is the original {@link ItemStack#serialize()} map. {@link Format#BINARY} is Paper's
+ * NBT encoding from {@link ItemStack#serializeAsBytes()}, which is already gzip compressed and runs
+ * through the data converter on load, stored as a base64 string. Both are recognised on load.
+ */
+public final class ItemStackCodec {
+
+    public enum Format {
+        MAP,
+        BINARY;
+
+        public static Format fromConfig(String value) {
+            return "binary".equalsIgnoreCase(value) ? BINARY : MAP;
+        }
+    }
+
+    private ItemStackCodec() {
+    }
+
+    public static Object encode(ItemStack itemStack, Format format) {
+        if (format == Format.BINARY) {
+            return Base64.getEncoder().encodeToString(itemStack.serializeAsBytes());
+        }
+        return itemStack.serialize();
+    }
+
+    /**
+     * Decodes an element in either format
+     * @throws IllegalArgumentException if the element is neither a map nor a base64 string
+     */
+    @SuppressWarnings("unchecked")
+    public static ItemStack decode(Object element) {
+        if (element instanceof String encoded) {
+            return ItemStack.deserializeBytes(Base64.getDecoder().decode(encoded));
+        }
+        if (element instanceof Map<?, ?> map) {
+            return ItemStack.deserialize((Map<String, Object>) map);
+        }
+        throw new IllegalArgumentException("Unsupported item element: " + (element == null ? "null" : element.getClass().getSimpleName()));
+    }
+
+    public static Format detect(Object element) {
+        return element instanceof String ? Format.BINARY : Format.MAP;
+    }
+}
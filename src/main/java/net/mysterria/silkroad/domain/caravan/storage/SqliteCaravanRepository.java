@@ -0,0 +1,492 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import net.mysterria.silkroad.SilkRoad;
+import org.yaml.snakeyaml.Yaml;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Single SQLite database with indexed tables for caravans, their members, territory chunks,
+ * item stacks and transfers. Every batch is written in one transaction, a failed batch is rolled
+ * back and reported as a {@link StorageException}.
+ *
+ * Item stacks are stored per slot as text: binary encoded items as-is and map encoded items as YAML.
+ */
+public class SqliteCaravanRepository implements CaravanRepository {
+
+    private static final String FORMAT_MAP = "map";
+    private static final String FORMAT_BINARY = "binary";
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS caravans (id TEXT PRIMARY KEY, name TEXT, world TEXT, x REAL, y REAL, z REAL, "
+                    + "yaw REAL, pitch REAL, created_at INTEGER, active INTEGER, owning_town_name TEXT, "
+                    + "owning_town_id INTEGER, journal_seq INTEGER)",
+            "CREATE INDEX IF NOT EXISTS idx_caravans_town ON caravans (owning_town_id)",
+            "CREATE TABLE IF NOT EXISTS caravan_members (caravan_id TEXT NOT NULL, member_uuid TEXT NOT NULL, "
+                    + "PRIMARY KEY (caravan_id, member_uuid))",
+            "CREATE INDEX IF NOT EXISTS idx_caravan_members_member ON caravan_members (member_uuid)",
+            "CREATE TABLE IF NOT EXISTS caravan_territory (caravan_id TEXT NOT NULL, chunk TEXT NOT NULL, "
+                    + "PRIMARY KEY (caravan_id, chunk))",
+            "CREATE INDEX IF NOT EXISTS idx_caravan_territory_chunk ON caravan_territory (chunk)",
+            "CREATE TABLE IF NOT EXISTS caravan_items (caravan_id TEXT NOT NULL, slot INTEGER NOT NULL, "
+                    + "format TEXT NOT NULL, data TEXT NOT NULL, PRIMARY KEY (caravan_id, slot))",
+            "CREATE TABLE IF NOT EXISTS caravan_resources (caravan_id TEXT NOT NULL, material TEXT NOT NULL, "
+                    + "amount INTEGER NOT NULL, PRIMARY KEY (caravan_id, material))",
+            "CREATE TABLE IF NOT EXISTS transfers (id TEXT PRIMARY KEY, source_caravan_id TEXT, destination_caravan_id TEXT, "
+                    + "player_id TEXT, player_name TEXT, created_at INTEGER, delivery_time INTEGER, distance REAL, "
+                    + "cost INTEGER, status TEXT, journal_seq INTEGER)",
+            "CREATE INDEX IF NOT EXISTS idx_transfers_player ON transfers (player_id)",
+            "CREATE INDEX IF NOT EXISTS idx_transfers_status ON transfers (status, delivery_time)",
+            "CREATE INDEX IF NOT EXISTS idx_transfers_destination ON transfers (destination_caravan_id)",
+            "CREATE TABLE IF NOT EXISTS transfer_items (transfer_id TEXT NOT NULL, slot INTEGER NOT NULL, "
+                    + "format TEXT NOT NULL, data TEXT NOT NULL, PRIMARY KEY (transfer_id, slot))",
+            "CREATE TABLE IF NOT EXISTS transfer_resources (transfer_id TEXT NOT NULL, material TEXT NOT NULL, "
+                    + "amount INTEGER NOT NULL, PRIMARY KEY (transfer_id, material))"
+    };
+
+    private final Connection connection;
+    private final Logger logger;
+    private final Yaml yaml = new Yaml();
+
+    public SqliteCaravanRepository(File databaseFile) throws SQLException {
+        this.logger = SilkRoad.getInstance().getLogger();
+        this.connection = DriverManager.getConnection("jdbc:sqlite:" + databaseFile.getAbsolutePath());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("PRAGMA journal_mode=WAL");
+            // FULL keeps a committed batch durable before the caravan journal segments behind it are dropped
+            statement.execute("PRAGMA synchronous=FULL");
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Object> readCaravan(String id) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM caravans WHERE id = ?")) {
+            statement.setString(1, id);
+            try (ResultSet row = statement.executeQuery()) {
+                if (!row.next()) {
+                    return null;
+                }
+
+                Map<String, Object> document = new LinkedHashMap<>();
+                document.put("id", id);
+                document.put("name", row.getString("name"));
+
+                Map<String, Object> location = new HashMap<>();
+                location.put("world", row.getString("world"));
+                location.put("x", row.getDouble("x"));
+                location.put("y", row.getDouble("y"));
+                location.put("z", row.getDouble("z"));
+                location.put("yaw", row.getDouble("yaw"));
+                location.put("pitch", row.getDouble("pitch"));
+                document.put("location", location);
+
+                document.put("createdAt", row.getLong("created_at"));
+                document.put("active", row.getInt("active") != 0);
+                if (row.getString("owning_town_name") != null) {
+                    document.put("owningTownName", row.getString("owning_town_name"));
+                }
+                if (row.getInt("owning_town_id") != -1) {
+                    document.put("owningTownId", row.getInt("owning_town_id"));
+                }
+                document.put("journalSeq", row.getLong("journal_seq"));
+
+                document.put("inventory", readResources("caravan_resources", "caravan_id", id));
+                document.put("itemInventory", readItems("caravan_items", "caravan_id", id));
+                document.put("territory", readStrings("SELECT chunk FROM caravan_territory WHERE caravan_id = ?", id));
+                document.put("members", readStrings("SELECT member_uuid FROM caravan_members WHERE caravan_id = ?", id));
+                return document;
+            }
+        } catch (SQLException e) {
+            logger.severe("Failed to load caravan " + id + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void writeCaravan(String id, Map<String, Object> document) {
+        StorageBatch batch = new StorageBatch();
+        batch.writeCaravan(id, document);
+        writeBatch(batch);
+    }
+
+    @Override
+    public void deleteCaravan(String id) {
+        StorageBatch batch = new StorageBatch();
+        batch.deleteCaravan(id);
+        writeBatch(batch);
+    }
+
+    @Override
+    public synchronized List<String> getCaravanIds() {
+        return queryIds("SELECT id FROM caravans");
+    }
+
+    @Override
+    public synchronized Map<String, Object> readTransfer(String id) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM transfers WHERE id = ?")) {
+            statement.setString(1, id);
+            try (ResultSet row = statement.executeQuery()) {
+                if (!row.next()) {
+                    return null;
+                }
+
+                Map<String, Object> document = new LinkedHashMap<>();
+                document.put("id", id);
+                document.put("sourceCaravanId", row.getString("source_caravan_id"));
+                document.put("destinationCaravanId", row.getString("destination_caravan_id"));
+                document.put("playerId", row.getString("player_id"));
+                document.put("playerName", row.getString("player_name"));
+                document.put("createdAt", row.getLong("created_at"));
+                document.put("deliveryTime", row.getLong("delivery_time"));
+                document.put("distance", row.getDouble("distance"));
+                document.put("cost", row.getInt("cost"));
+                document.put("status", row.getString("status"));
+                document.put("journalSeq", row.getLong("journal_seq"));
+                document.put("resources", readResources("transfer_resources", "transfer_id", id));
+                document.put("itemResources", readItems("transfer_items", "transfer_id", id));
+                return document;
+            }
+        } catch (SQLException e) {
+            logger.severe("Failed to load transfer " + id + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void writeTransfer(String id, Map<String, Object> document) {
+        StorageBatch batch = new StorageBatch();
+        batch.writeTransfer(id, document);
+        writeBatch(batch);
+    }
+
+    @Override
+    public void deleteTransfer(String id) {
+        StorageBatch batch = new StorageBatch();
+        batch.deleteTransfer(id);
+        writeBatch(batch);
+    }
+
+    @Override
+    public synchronized List<String> getTransferIds() {
+        return queryIds("SELECT id FROM transfers");
+    }
+
+    @Override
+    public synchronized List<String> getTransferIds(Collection<String> statuses) {
+        if (statuses.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(statuses.size(), "?"));
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id FROM transfers WHERE status IN (" + placeholders + ")")) {
+            int index = 1;
+            for (String status : statuses) {
+                statement.setString(index++, status);
+            }
+            return collectIds(statement);
+        } catch (SQLException e) {
+            logger.severe("Failed to list transfers: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    @Override
+    public synchronized void writeBatch(StorageBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            connection.setAutoCommit(false);
+            for (Map.Entry<String, Map<String, Object>> entry : batch.getCaravanWrites().entrySet()) {
+                writeCaravanRows(entry.getKey(), entry.getValue());
+            }
+            for (String id : batch.getCaravanDeletes()) {
+                deleteCaravanRows(id);
+            }
+            for (Map.Entry<String, Map<String, Object>> entry : batch.getTransferWrites().entrySet()) {
+                deleteTransferRows(entry.getKey());
+                insertTransfer(entry.getKey(), entry.getValue());
+            }
+            for (String id : batch.getTransferDeletes()) {
+                deleteTransferRows(id);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackError) {
+                logger.severe("Failed to roll back storage batch: " + rollbackError.getMessage());
+            }
+            throw new StorageException("Failed to write batch of " + batch.size() + " caravan/transfer changes", e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.warning("Failed to close caravan database: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Upserts the caravan row and replaces the child rows of every section present in the document,
+     * child tables of sections the document leaves out are not touched
+     */
+    private void writeCaravanRows(String id, Map<String, Object> document) throws SQLException {
+        Map<String, Object> location = section(document, "location");
+        if (location.isEmpty()) {
+            // Very old caravan files used dotted keys
+            for (String key : new String[]{"world", "x", "y", "z", "yaw", "pitch"}) {
+                location.put(key, document.get("location." + key));
+            }
+        }
+        // The journal sequence comes with the inventory section, a document without it keeps the stored one
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO caravans (id, name, world, x, y, z, yaw, pitch, created_at, active, owning_town_name, "
+                        + "owning_town_id, journal_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                        + "ON CONFLICT (id) DO UPDATE SET name = excluded.name, world = excluded.world, x = excluded.x, "
+                        + "y = excluded.y, z = excluded.z, yaw = excluded.yaw, pitch = excluded.pitch, "
+                        + "created_at = excluded.created_at, active = excluded.active, "
+                        + "owning_town_name = excluded.owning_town_name, owning_town_id = excluded.owning_town_id"
+                        + (document.containsKey("journalSeq") ? ", journal_seq = excluded.journal_seq" : ""))) {
+            statement.setString(1, id);
+            statement.setString(2, string(document.get("name")));
+            statement.setString(3, string(location.get("world")));
+            statement.setDouble(4, number(location.get("x")).doubleValue());
+            statement.setDouble(5, number(location.get("y")).doubleValue());
+            statement.setDouble(6, number(location.get("z")).doubleValue());
+            statement.setDouble(7, number(location.get("yaw")).doubleValue());
+            statement.setDouble(8, number(location.get("pitch")).doubleValue());
+            statement.setLong(9, number(document.get("createdAt")).longValue());
+            statement.setInt(10, Boolean.FALSE.equals(document.get("active")) ? 0 : 1);
+            statement.setString(11, string(document.get("owningTownName")));
+            statement.setInt(12, document.containsKey("owningTownId") ? number(document.get("owningTownId")).intValue() : -1);
+            statement.setLong(13, number(document.get("journalSeq")).longValue());
+            statement.executeUpdate();
+        }
+
+        if (document.containsKey("members")) {
+            execute("DELETE FROM caravan_members WHERE caravan_id = ?", id);
+            insertStrings("INSERT INTO caravan_members (caravan_id, member_uuid) VALUES (?, ?)", id, document.get("members"));
+        }
+        if (document.containsKey("territory")) {
+            execute("DELETE FROM caravan_territory WHERE caravan_id = ?", id);
+            insertStrings("INSERT INTO caravan_territory (caravan_id, chunk) VALUES (?, ?)", id, document.get("territory"));
+        }
+        if (document.containsKey("itemInventory")) {
+            execute("DELETE FROM caravan_items WHERE caravan_id = ?", id);
+            insertItems("caravan_items", "caravan_id", id, document.get("itemInventory"));
+        }
+        if (document.containsKey("inventory")) {
+            execute("DELETE FROM caravan_resources WHERE caravan_id = ?", id);
+            insertResources("caravan_resources", "caravan_id", id, section(document, "inventory"));
+        }
+    }
+
+    private void insertTransfer(String id, Map<String, Object> document) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO transfers (id, source_caravan_id, destination_caravan_id, player_id, player_name, created_at, "
+                        + "delivery_time, distance, cost, status, journal_seq) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            statement.setString(1, id);
+            statement.setString(2, string(document.get("sourceCaravanId")));
+            statement.setString(3, string(document.get("destinationCaravanId")));
+            statement.setString(4, string(document.get("playerId")));
+            statement.setString(5, string(document.get("playerName")));
+            statement.setLong(6, number(document.get("createdAt")).longValue());
+            statement.setLong(7, number(document.get("deliveryTime")).longValue());
+            statement.setDouble(8, number(document.get("distance")).doubleValue());
+            statement.setInt(9, number(document.get("cost")).intValue());
+            statement.setString(10, string(document.get("status")));
+            statement.setLong(11, number(document.get("journalSeq")).longValue());
+            statement.executeUpdate();
+        }
+
+        insertItems("transfer_items", "transfer_id", id, document.get("itemResources"));
+        insertResources("transfer_resources", "transfer_id", id, section(document, "resources"));
+    }
+
+    private void deleteCaravanRows(String id) throws SQLException {
+        for (String table : new String[]{"caravan_members", "caravan_territory", "caravan_items", "caravan_resources"}) {
+            execute("DELETE FROM " + table + " WHERE caravan_id = ?", id);
+        }
+        execute("DELETE FROM caravans WHERE id = ?", id);
+    }
+
+    private void deleteTransferRows(String id) throws SQLException {
+        execute("DELETE FROM transfer_items WHERE transfer_id = ?", id);
+        execute("DELETE FROM transfer_resources WHERE transfer_id = ?", id);
+        execute("DELETE FROM transfers WHERE id = ?", id);
+    }
+
+    private void execute(String sql, String id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, id);
+            statement.executeUpdate();
+        }
+    }
+
+    private void insertStrings(String sql, String id, Object values) throws SQLException {
+        if (!(values instanceof Collection<?> collection) || collection.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (Object value : collection) {
+                if (value == null) {
+                    continue;
+                }
+                statement.setString(1, id);
+                statement.setString(2, String.valueOf(value));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertItems(String table, String idColumn, String id, Object items) throws SQLException {
+        if (!(items instanceof List<?> list) || list.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + table + " (" + idColumn + ", slot, format, data) VALUES (?, ?, ?, ?)")) {
+            int slot = 0;
+            for (Object item : list) {
+                if (item instanceof String encoded) {
+                    statement.setString(3, FORMAT_BINARY);
+                    statement.setString(4, encoded);
+                } else if (item instanceof Map<?, ?>) {
+                    statement.setString(3, FORMAT_MAP);
+                    statement.setString(4, yaml.dump(item));
+                } else {
+                    continue;
+                }
+                statement.setString(1, id);
+                statement.setInt(2, slot++);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private void insertResources(String table, String idColumn, String id, Map<String, Object> resources) throws SQLException {
+        if (resources.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + table + " (" + idColumn + ", material, amount) VALUES (?, ?, ?)")) {
+            for (Map.Entry<String, Object> entry : resources.entrySet()) {
+                statement.setString(1, id);
+                statement.setString(2, entry.getKey());
+                statement.setInt(3, number(entry.getValue()).intValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private List<Object> readItems(String table, String idColumn, String id) throws SQLException {
+        List<Object> items = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT format, data FROM " + table + " WHERE " + idColumn + " = ? ORDER BY slot")) {
+            statement.setString(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    String data = rows.getString("data");
+                    items.add(FORMAT_BINARY.equals(rows.getString("format")) ? data : yaml.load(data));
+                }
+            }
+        }
+        return items;
+    }
+
+    private Map<String, Object> readResources(String table, String idColumn, String id) throws SQLException {
+        Map<String, Object> resources = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT material, amount FROM " + table + " WHERE " + idColumn + " = ?")) {
+            statement.setString(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    resources.put(rows.getString("material"), rows.getInt("amount"));
+                }
+            }
+        }
+        return resources;
+    }
+
+    private List<String> readStrings(String sql, String id) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, id);
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    values.add(rows.getString(1));
+                }
+            }
+        }
+        return values;
+    }
+
+    private List<String> queryIds(String sql) {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            return collectIds(statement);
+        } catch (SQLException e) {
+            logger.severe("Failed to list IDs: " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+
+    private List<String> collectIds(PreparedStatement statement) throws SQLException {
+        List<String> ids = new ArrayList<>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getString(1));
+            }
+        }
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> section(Map<String, Object> document, String key) {
+        Object section = document.get(key);
+        return (section instanceof Map) ? (Map<String, Object>) section : new HashMap<>();
+    }
+
+    private static String string(Object o) {
+        return o == null ? null : String.valueOf(o);
+    }
+
+    private static Number number(Object o) {
+        if (o instanceof Number) return (Number) o;
+        if (o == null) return 0;
+        try {
+            return Double.parseDouble(o.toString());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
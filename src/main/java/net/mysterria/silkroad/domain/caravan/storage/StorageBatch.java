@@ -0,0 +1,55 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Document writes and deletes collected by one flush, applied by {@link CaravanRepository#writeBatch}
+ */
+@Getter
+public class StorageBatch {
+
+    private final Map<String, Map<String, Object>> caravanWrites = new LinkedHashMap<>();
+    private final Set<String> caravanDeletes = new LinkedHashSet<>();
+    private final Map<String, Map<String, Object>> transferWrites = new LinkedHashMap<>();
+    private final Set<String> transferDeletes = new LinkedHashSet<>();
+
+    /**
+     * Queues a caravan document, a partial document is merged over an earlier write of the same caravan
+     */
+    public void writeCaravan(String id, Map<String, Object> document) {
+        caravanDeletes.remove(id);
+        caravanWrites.merge(id, document, (earlier, later) -> {
+            Map<String, Object> merged = new LinkedHashMap<>(earlier);
+            merged.putAll(later);
+            return merged;
+        });
+    }
+
+    public void deleteCaravan(String id) {
+        caravanWrites.remove(id);
+        caravanDeletes.add(id);
+    }
+
+    public void writeTransfer(String id, Map<String, Object> document) {
+        transferDeletes.remove(id);
+        transferWrites.put(id, document);
+    }
+
+    public void deleteTransfer(String id) {
+        transferWrites.remove(id);
+        transferDeletes.add(id);
+    }
+
+    public int size() {
+        return caravanWrites.size() + caravanDeletes.size() + transferWrites.size() + transferDeletes.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,16 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+/**
+ * A write or delete that did not reach storage. A failed batch of a transactional backend left
+ * nothing behind, callers keep whatever they need to retry it.
+ */
+public class StorageException extends RuntimeException {
+
+    public StorageException(String message) {
+        super(message);
+    }
+
+    public StorageException(String message, Throwable cause) {
+        super(message + ": " + cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,226 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
+import net.mysterria.silkroad.utils.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One YAML file per caravan in caravans/ and per transfer in transfers/.
+ *
+ * A caravan's inventory, members and territory are kept in their own files next to it
+ * (<id>.inventory.yml and so on), so a partial document only rewrites the sections it carries.
+ * Older caravans with everything in <id>.yml are split on their first partial write.
+ *
+ * Files are written one after another, so a failed batch or a crash may leave a caravan partially
+ * written. Every file is replaced atomically and the journal sequence is stored in the inventory
+ * file, the only section journal records change, so replay always matches the items on disk.
+ * Older split caravans may still carry it in <id>.yml, the inventory file's value wins on read.
+ */
+public class YamlCaravanRepository implements CaravanRepository {
+
+    private static final List<Caravan.Section> SPLIT_SECTIONS = List.of(
+            Caravan.Section.INVENTORY, Caravan.Section.MEMBERS, Caravan.Section.TERRITORY);
+
+    private final File caravanDir;
+    private final File transferDir;
+
+    public YamlCaravanRepository(File dataFolder) {
+        this.caravanDir = new File(dataFolder, "caravans");
+        this.transferDir = new File(dataFolder, "transfers");
+
+        if (!caravanDir.exists()) {
+            caravanDir.mkdirs();
+        }
+        if (!transferDir.exists()) {
+            transferDir.mkdirs();
+        }
+    }
+
+    @Override
+    public Map<String, Object> readCaravan(String id) {
+        Map<String, Object> document = read(new File(caravanDir, id + ".yml"));
+        if (document == null) {
+            return null;
+        }
+        for (Caravan.Section section : SPLIT_SECTIONS) {
+            Map<String, Object> part = read(sectionFile(id, section));
+            if (part != null) {
+                document.putAll(part);
+            }
+        }
+        return document;
+    }
+
+    @Override
+    public void writeCaravan(String id, Map<String, Object> document) {
+        File file = new File(caravanDir, id + ".yml");
+        try {
+            Map<String, Object> metadata = new LinkedHashMap<>(document);
+            List<Caravan.Section> unwritten = new ArrayList<>();
+            for (Caravan.Section section : SPLIT_SECTIONS) {
+                Map<String, Object> part = new LinkedHashMap<>();
+                for (String key : section.getDocumentKeys()) {
+                    if (metadata.containsKey(key)) {
+                        part.put(key, metadata.remove(key));
+                    }
+                }
+                if (!part.isEmpty()) {
+                    save(sectionFile(id, section), part);
+                } else if (!sectionFile(id, section).exists()) {
+                    unwritten.add(section);
+                }
+            }
+            if (!unwritten.isEmpty()) {
+                splitLegacyFile(id, file, unwritten);
+            }
+            save(file, metadata);
+        } catch (RuntimeException e) {
+            throw new StorageException("Failed to save caravan " + id, e);
+        }
+    }
+
+    /**
+     * Moves sections still stored in the single-file layout into their own files before
+     * the main file is overwritten with metadata only
+     */
+    private void splitLegacyFile(String id, File file, List<Caravan.Section> sections) {
+        Map<String, Object> legacy = read(file);
+        if (legacy == null) {
+            return;
+        }
+        for (Caravan.Section section : sections) {
+            Map<String, Object> part = new LinkedHashMap<>();
+            for (String key : section.getDocumentKeys()) {
+                if (legacy.containsKey(key)) {
+                    part.put(key, legacy.get(key));
+                }
+            }
+            if (!part.isEmpty()) {
+                save(sectionFile(id, section), part);
+            }
+        }
+    }
+
+    @Override
+    public void deleteCaravan(String id) {
+        delete(new File(caravanDir, id + ".yml"));
+        for (Caravan.Section section : SPLIT_SECTIONS) {
+            delete(sectionFile(id, section));
+        }
+    }
+
+    @Override
+    public List<String> getCaravanIds() {
+        return listIds(caravanDir);
+    }
+
+    @Override
+    public Map<String, Object> readTransfer(String id) {
+        return read(new File(transferDir, id + ".yml"));
+    }
+
+    @Override
+    public void writeTransfer(String id, Map<String, Object> document) {
+        File file = new File(transferDir, id + ".yml");
+        try {
+            save(file, document);
+        } catch (RuntimeException e) {
+            throw new StorageException("Failed to save transfer " + id, e);
+        }
+    }
+
+    @Override
+    public void deleteTransfer(String id) {
+        delete(new File(transferDir, id + ".yml"));
+    }
+
+    @Override
+    public List<String> getTransferIds() {
+        return listIds(transferDir);
+    }
+
+    @Override
+    public List<String> getTransferIds(Collection<String> statuses) {
+        // Status is only known after parsing the file
+        return getTransferIds();
+    }
+
+    @Override
+    public void writeBatch(StorageBatch batch) {
+        batch.getCaravanWrites().forEach(this::writeCaravan);
+        batch.getCaravanDeletes().forEach(this::deleteCaravan);
+        batch.getTransferWrites().forEach(this::writeTransfer);
+        batch.getTransferDeletes().forEach(this::deleteTransfer);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Whether there is anything to import from this repository
+     */
+    public boolean isEmpty() {
+        return getCaravanIds().isEmpty() && getTransferIds().isEmpty();
+    }
+
+    public File getCaravanDir() {
+        return caravanDir;
+    }
+
+    public File getTransferDir() {
+        return transferDir;
+    }
+
+    private File sectionFile(String id, Caravan.Section section) {
+        return new File(caravanDir, id + "." + section.name().toLowerCase() + ".yml");
+    }
+
+    private void save(File file, Map<String, Object> document) {
+        new YamlConfiguration(file, document).save();
+        SilkRoad.getInstance().getMetrics().add(SilkRoadMetrics.STORAGE_BYTES_WRITTEN, file.length());
+    }
+
+    private Map<String, Object> read(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return YamlConfiguration.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void delete(File file) {
+        if (file.exists() && !file.delete()) {
+            throw new StorageException("Failed to delete " + file.getName());
+        }
+    }
+
+    private List<String> listIds(File dir) {
+        List<String> ids = new ArrayList<>();
+        File[] files = dir.listFiles((d, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (File file : files) {
+                String name = file.getName();
+                String id = name.substring(0, name.length() - 4);
+                // IDs never contain dots, anything that does is a caravan section file
+                if (id.indexOf('.') < 0) {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+}
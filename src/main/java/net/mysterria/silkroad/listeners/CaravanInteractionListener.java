@@ -11,8 +11,6 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.EquipmentSlot;
 
-import java.util.List;
-
 public class CaravanInteractionListener implements Listener {
     
     private final CaravanManager caravanManager;
@@ -38,16 +36,14 @@ public class CaravanInteractionListener implements Listener {
             return;
         }
         
-        List<Caravan> nearbyCaravans = caravanManager.getCaravansInRange(event.getClickedBlock().getLocation(), 5.0);
+        Caravan caravan = caravanManager.getNearestCaravan(event.getClickedBlock().getLocation(), 5.0).orElse(null);
         
-        if (nearbyCaravans.isEmpty()) {
+        if (caravan == null) {
             return;
         }
         
         event.setCancelled(true);
         
-        Caravan caravan = nearbyCaravans.get(0);
-        
         if (event.getAction().isRightClick()) {
             new CaravanMainGUI(caravanManager, player, caravan).open();
         } else {
@@ -0,0 +1,48 @@
+package net.mysterria.silkroad.listeners;
+
+import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
+import net.mysterria.silkroad.SilkRoad;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Captures the next chat message of a player as input for a GUI, e.g. a search query.
+ * The message is not broadcast and the callback runs on the player's thread.
+ */
+public class ChatPromptListener implements Listener {
+
+    private final Map<UUID, Consumer<String>> prompts = new ConcurrentHashMap<>();
+
+    /**
+     * Waits for the player's next chat message, replacing any prompt that is still open
+     */
+    public void prompt(Player player, Consumer<String> callback) {
+        prompts.put(player.getUniqueId(), callback);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST, ignoreCancelled = true)
+    public void onChat(AsyncChatEvent event) {
+        Player player = event.getPlayer();
+        Consumer<String> callback = prompts.remove(player.getUniqueId());
+        if (callback == null) {
+            return;
+        }
+        event.setCancelled(true);
+        String input = PlainTextComponentSerializer.plainText().serialize(event.message());
+        SilkRoad.getInstance().getTaskScheduler().runForEntity(player, () -> callback.accept(input));
+    }
+
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        prompts.remove(event.getPlayer().getUniqueId());
+    }
+}
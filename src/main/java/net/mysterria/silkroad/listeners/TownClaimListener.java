@@ -0,0 +1,53 @@
+package net.mysterria.silkroad.listeners;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.utils.HuskTownsIntegration;
+import net.william278.husktowns.claim.Chunk;
+import net.william278.husktowns.claim.TownClaim;
+import net.william278.husktowns.events.ClaimEvent;
+import net.william278.husktowns.events.TownDisbandEvent;
+import net.william278.husktowns.events.UnClaimAllEvent;
+import net.william278.husktowns.events.UnClaimEvent;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+/**
+ * Keeps the HuskTowns claim lookup cache in sync with claim changes.
+ * A single claim or unclaim drops only its chunk, changes to a whole town drop the whole cache.
+ * The events fire before HuskTowns applies the change, so the cache is dropped a tick later; a lookup
+ * made in between would otherwise cache the old owner again.
+ */
+public class TownClaimListener implements Listener {
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onClaim(ClaimEvent event) {
+        invalidate(event.getTownClaim());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onUnClaim(UnClaimEvent event) {
+        invalidate(event.getTownClaim());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onUnClaimAll(UnClaimAllEvent event) {
+        afterChange(HuskTownsIntegration::invalidateClaimCache);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onTownDisband(TownDisbandEvent event) {
+        afterChange(HuskTownsIntegration::invalidateClaimCache);
+    }
+
+    private static void invalidate(TownClaim townClaim) {
+        Chunk chunk = townClaim.claim().getChunk();
+        int chunkX = chunk.getX();
+        int chunkZ = chunk.getZ();
+        afterChange(() -> HuskTownsIntegration.invalidateClaim(chunkX, chunkZ));
+    }
+
+    private static void afterChange(Runnable invalidation) {
+        SilkRoad.getInstance().getTaskScheduler().runGlobalLater(invalidation, 1L);
+    }
+}
@@ -8,6 +8,7 @@ import net.william278.husktowns.events.MemberLeaveEvent;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
+import org.bukkit.event.server.ServerLoadEvent;
 
 import java.util.Set;
 import java.util.UUID;
@@ -26,6 +27,14 @@ public class TownMembershipListener implements Listener {
         this.logger = Logger.getLogger("SilkRoad");
     }
     
+    /**
+     * Resolves the owning towns of legacy caravans once every plugin is enabled, in case HuskTowns was not at load
+     */
+    @EventHandler
+    public void onServerLoad(ServerLoadEvent event) {
+        caravanManager.resolveLegacyTowns();
+    }
+    
     @EventHandler
     public void onMemberJoin(MemberJoinEvent event) {
         if (!HuskTownsIntegration.isAvailable()) {
@@ -41,10 +50,10 @@ public class TownMembershipListener implements Listener {
             logger.info("Player " + playerName + " joined town " + townName + " (ID: " + townId + ")");
             
             // Find caravan belonging to this town
-            Caravan townCaravan = findCaravanByTownId(townId);
+            Caravan townCaravan = caravanManager.getCaravanByTownId(townId).orElse(null);
             if (townCaravan != null) {
                 // Add player to caravan members
-                townCaravan.addMember(playerUuid);
+                caravanManager.addCaravanMember(townCaravan, playerUuid);
                 // Save the updated caravan
                 caravanManager.saveCaravan(townCaravan);
                 
@@ -73,10 +82,10 @@ public class TownMembershipListener implements Listener {
             logger.info("Player " + playerName + " left town " + townName + " (ID: " + townId + ")");
             
             // Find caravan belonging to this town
-            Caravan townCaravan = findCaravanByTownId(townId);
+            Caravan townCaravan = caravanManager.getCaravanByTownId(townId).orElse(null);
             if (townCaravan != null) {
                 // Remove player from caravan members
-                townCaravan.removeMember(playerUuid);
+                caravanManager.removeCaravanMember(townCaravan, playerUuid);
                 // Save the updated caravan
                 caravanManager.saveCaravan(townCaravan);
                 
@@ -89,16 +98,4 @@ public class TownMembershipListener implements Listener {
             e.printStackTrace();
         }
     }
-    
-    /**
-     * Find a caravan that belongs to the specified town ID
-     * @param townId The town ID to search for
-     * @return The caravan belonging to the town, or null if not found
-     */
-    private Caravan findCaravanByTownId(int townId) {
-        return caravanManager.getAllCaravans().stream()
-                .filter(caravan -> caravan.getOwningTownId() == townId)
-                .findFirst()
-                .orElse(null);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+package net.mysterria.silkroad.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two microsecond buckets.
+ * Percentiles are reported as the upper bound of the bucket they fall in, so they are accurate to a factor of two.
+ */
+public class LatencyHistogram {
+
+    // Bucket i holds samples up to 2^i microseconds, the last one everything above
+    private static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = Math.max(0L, nanos) / 1000L;
+        int bucket = micros <= 1L ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+        buckets[Math.min(bucket, BUCKETS - 1)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getMeanMicros() {
+        long samples = count.sum();
+        return samples == 0 ? 0.0 : totalNanos.sum() / 1000.0 / samples;
+    }
+
+    public long getMaxMicros() {
+        return maxNanos.get() / 1000L;
+    }
+
+    /**
+     * @param percentile between 0 and 1
+     */
+    public long getPercentileMicros(double percentile) {
+        long samples = count.sum();
+        if (samples == 0) {
+            return 0L;
+        }
+        long target = Math.max(1L, (long) Math.ceil(samples * percentile));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= target) {
+                return Math.min(1L << i, getMaxMicros());
+            }
+        }
+        return getMaxMicros();
+    }
+}
@@ -0,0 +1,159 @@
+package net.mysterria.silkroad.metrics;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.scheduler.TaskHandle;
+import net.mysterria.silkroad.scheduler.TaskScheduler;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms for caravan operations, shown by /silkroad stats and
+ * optionally appended to a CSV or JSON lines file in the data folder.
+ * Everything is safe to record from any thread.
+ */
+public class SilkRoadMetrics {
+
+    // Counters
+    public static final String TRANSFERS_CREATED = "transfers.created";
+    public static final String TRANSFERS_DELIVERED = "transfers.delivered";
+    public static final String TRANSFERS_FAILED = "transfers.failed";
+    public static final String TRANSFERS_CLAIMED = "transfers.claimed";
+    public static final String STORAGE_BYTES_WRITTEN = "storage.bytes_written";
+    public static final String JOURNAL_BYTES_WRITTEN = "journal.bytes_written";
+    public static final String SHARD_SCANS = "shards.scans";
+    public static final String SHARD_CACHE_HITS = "shards.cache_hits";
+    public static final String CLAIM_CACHE_HITS = "husktowns.claim_cache_hits";
+    public static final String CLAIM_CACHE_MISSES = "husktowns.claim_cache_misses";
+
+    // Timers
+    public static final String TRANSFER_PROCESS = "transfers.process";
+    public static final String STORAGE_SAVE_CARAVAN = "storage.save.caravan";
+    public static final String STORAGE_SAVE_TRANSFER = "storage.save.transfer";
+    public static final String STORAGE_SAVE_BATCH = "storage.save.batch";
+    public static final String STORAGE_LOAD = "storage.load";
+    public static final String TOWN_VALIDATION = "husktowns.validate";
+    // Building a GUI's items and opening it for the player
+    public static final String GUI_OPEN = "gui.open";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> timers = new ConcurrentHashMap<>();
+    private TaskHandle dumpTask;
+
+    public void increment(String counter) {
+        add(counter, 1L);
+    }
+
+    public void add(String counter, long amount) {
+        counters.computeIfAbsent(counter, name -> new LongAdder()).add(amount);
+    }
+
+    public void record(String timer, long nanos) {
+        timers.computeIfAbsent(timer, name -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Records the time elapsed since a {@link System#nanoTime()} reading
+     */
+    public void stop(String timer, long startNanos) {
+        record(timer, System.nanoTime() - startNanos);
+    }
+
+    public void time(String timer, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } finally {
+            stop(timer, start);
+        }
+    }
+
+    public SortedMap<String, Long> getCounters() {
+        SortedMap<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, value) -> snapshot.put(name, value.sum()));
+        return snapshot;
+    }
+
+    public SortedMap<String, LatencyHistogram> getTimers() {
+        return new TreeMap<>(timers);
+    }
+
+    /**
+     * Appends a snapshot to the dump file every interval, "json" writes one JSON object per line, anything else CSV
+     */
+    public void startDump(TaskScheduler scheduler, File dataFolder, String format, long intervalTicks) {
+        boolean json = "json".equalsIgnoreCase(format);
+        File file = new File(dataFolder, json ? "metrics.jsonl" : "metrics.csv");
+        dumpTask = scheduler.runAsyncTimer(() -> dump(file, json), intervalTicks, intervalTicks);
+        SilkRoad.getInstance().getLogger().info("Dumping metrics to " + file.getName() + " every " + (intervalTicks / 20L) + "s");
+    }
+
+    public void stopDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel();
+            dumpTask = null;
+        }
+    }
+
+    private synchronized void dump(File file, boolean json) {
+        boolean newFile = !file.exists();
+        long timestamp = System.currentTimeMillis();
+        try (Writer writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true))) {
+            if (json) {
+                writer.write(toJson(timestamp));
+                writer.write('\n');
+                return;
+            }
+
+            if (newFile) {
+                writer.write("timestamp,metric,count,mean_us,p50_us,p95_us,p99_us,max_us\n");
+            }
+            for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+                writer.write(timestamp + "," + counter.getKey() + "," + counter.getValue() + ",,,,,\n");
+            }
+            for (Map.Entry<String, LatencyHistogram> timer : getTimers().entrySet()) {
+                LatencyHistogram histogram = timer.getValue();
+                writer.write(timestamp + "," + timer.getKey() + "," + histogram.getCount() + ","
+                        + String.format(Locale.ROOT, "%.1f", histogram.getMeanMicros()) + ","
+                        + histogram.getPercentileMicros(0.50) + "," + histogram.getPercentileMicros(0.95) + ","
+                        + histogram.getPercentileMicros(0.99) + "," + histogram.getMaxMicros() + "\n");
+            }
+        } catch (IOException e) {
+            SilkRoad.getInstance().getLogger().warning("Failed to write metrics to " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private String toJson(long timestamp) {
+        StringBuilder json = new StringBuilder("{\"timestamp\":").append(timestamp).append(",\"counters\":{");
+        String separator = "";
+        for (Map.Entry<String, Long> counter : getCounters().entrySet()) {
+            json.append(separator).append('"').append(counter.getKey()).append("\":").append(counter.getValue());
+            separator = ",";
+        }
+        json.append("},\"timers\":{");
+        separator = "";
+        for (Map.Entry<String, LatencyHistogram> timer : getTimers().entrySet()) {
+            LatencyHistogram histogram = timer.getValue();
+            json.append(separator).append('"').append(timer.getKey()).append("\":{")
+                    .append("\"count\":").append(histogram.getCount())
+                    .append(",\"mean_us\":").append(String.format(Locale.ROOT, "%.1f", histogram.getMeanMicros()))
+                    .append(",\"p50_us\":").append(histogram.getPercentileMicros(0.50))
+                    .append(",\"p95_us\":").append(histogram.getPercentileMicros(0.95))
+                    .append(",\"p99_us\":").append(histogram.getPercentileMicros(0.99))
+                    .append(",\"max_us\":").append(histogram.getMaxMicros())
+                    .append('}');
+            separator = ",";
+        }
+        return json.append("}}").toString();
+    }
+}
@@ -0,0 +1,71 @@
+package net.mysterria.silkroad.scheduler;
+
+import io.papermc.paper.threadedregions.scheduler.ScheduledTask;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folia scheduler, tasks run on the global region, the owning region or the async pool
+ */
+public class FoliaTaskScheduler implements TaskScheduler {
+
+    private static final long MILLIS_PER_TICK = 50L;
+
+    private final Plugin plugin;
+
+    public FoliaTaskScheduler(Plugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public TaskHandle runGlobalTimer(Runnable task, long delayTicks, long periodTicks) {
+        // Folia rejects delays below one tick
+        ScheduledTask scheduled = Bukkit.getGlobalRegionScheduler()
+                .runAtFixedRate(plugin, ignored -> task.run(), Math.max(1L, delayTicks), periodTicks);
+        return scheduled::cancel;
+    }
+
+    @Override
+    public void runGlobalLater(Runnable task, long delayTicks) {
+        Bukkit.getGlobalRegionScheduler().runDelayed(plugin, ignored -> task.run(), Math.max(1L, delayTicks));
+    }
+
+    @Override
+    public TaskHandle runAsyncTimer(Runnable task, long delayTicks, long periodTicks) {
+        ScheduledTask scheduled = Bukkit.getAsyncScheduler().runAtFixedRate(plugin, ignored -> task.run(),
+                delayTicks * MILLIS_PER_TICK, periodTicks * MILLIS_PER_TICK, TimeUnit.MILLISECONDS);
+        return scheduled::cancel;
+    }
+
+    @Override
+    public void runAsync(Runnable task) {
+        Bukkit.getAsyncScheduler().runNow(plugin, ignored -> task.run());
+    }
+
+    @Override
+    public void runForEntity(Entity entity, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(entity)) {
+            task.run();
+        } else {
+            entity.getScheduler().run(plugin, ignored -> task.run(), null);
+        }
+    }
+
+    @Override
+    public void runForEntityLater(Entity entity, Runnable task, long delayTicks) {
+        entity.getScheduler().runDelayed(plugin, ignored -> task.run(), null, Math.max(1L, delayTicks));
+    }
+
+    @Override
+    public void runAtLocation(Location location, Runnable task) {
+        if (Bukkit.isOwnedByCurrentRegion(location)) {
+            task.run();
+        } else {
+            Bukkit.getRegionScheduler().execute(plugin, location, task);
+        }
+    }
+}
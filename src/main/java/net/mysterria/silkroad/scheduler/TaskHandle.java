@@ -0,0 +1,9 @@
+package net.mysterria.silkroad.scheduler;
+
+/**
+ * A repeating task started through {@link TaskScheduler}
+ */
+public interface TaskHandle {
+
+    void cancel();
+}
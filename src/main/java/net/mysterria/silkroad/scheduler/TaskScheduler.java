@@ -0,0 +1,57 @@
+package net.mysterria.silkroad.scheduler;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Runs plugin tasks on the thread that owns the data they touch.
+ *
+ * On Paper everything except async work runs on the main thread. On Folia players and other entities are
+ * owned by their region thread, world data by the region around a location, and global work such as
+ * transfer processing runs on the global region thread.
+ */
+public interface TaskScheduler {
+
+    static TaskScheduler create(Plugin plugin) {
+        return isFolia() ? new FoliaTaskScheduler(plugin) : new BukkitTaskScheduler(plugin);
+    }
+
+    static boolean isFolia() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Repeats a task that touches plugin state only, never an entity or world
+     */
+    TaskHandle runGlobalTimer(Runnable task, long delayTicks, long periodTicks);
+
+    /**
+     * Runs a task that touches plugin state only after a delay of at least one tick
+     */
+    void runGlobalLater(Runnable task, long delayTicks);
+
+    /**
+     * Repeats a task off the server threads, for I/O
+     */
+    TaskHandle runAsyncTimer(Runnable task, long delayTicks, long periodTicks);
+
+    void runAsync(Runnable task);
+
+    /**
+     * Runs a task on the thread owning the entity, the task is dropped if the entity is gone by then
+     */
+    void runForEntity(Entity entity, Runnable task);
+
+    void runForEntityLater(Entity entity, Runnable task, long delayTicks);
+
+    /**
+     * Runs a task on the thread owning the region around a location
+     */
+    void runAtLocation(Location location, Runnable task);
+}
@@ -0,0 +1,58 @@
+package net.mysterria.silkroad.utils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Packs chunk coordinates into a single long, x in the high and z in the low 32 bits.
+ *
+ * The "world:x:z" string form is only used when territory is persisted.
+ */
+public final class ChunkKey {
+
+    private ChunkKey() {
+    }
+
+    public static long pack(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public static int x(long key) {
+        return (int) (key >> 32);
+    }
+
+    public static int z(long key) {
+        return (int) key;
+    }
+
+    public static String toString(String worldName, long key) {
+        return worldName + ":" + x(key) + ":" + z(key);
+    }
+
+    /**
+     * Parses a "world:x:z" string, world names may contain colons themselves
+     * @return the world name and packed key, or null if the string is malformed
+     */
+    public static Parsed parse(String value) {
+        int zSeparator = value.lastIndexOf(':');
+        int xSeparator = zSeparator <= 0 ? -1 : value.lastIndexOf(':', zSeparator - 1);
+        if (xSeparator <= 0) {
+            return null;
+        }
+        try {
+            int x = Integer.parseInt(value, xSeparator + 1, zSeparator, 10);
+            int z = Integer.parseInt(value, zSeparator + 1, value.length(), 10);
+            return new Parsed(value.substring(0, xSeparator), pack(x, z));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class Parsed {
+        private final String worldName;
+        private final long key;
+    }
+}
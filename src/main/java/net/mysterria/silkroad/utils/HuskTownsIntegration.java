@@ -1,14 +1,17 @@
 package net.mysterria.silkroad.utils;
 
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.domain.caravan.model.ChunkTerritory;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
 import net.william278.husktowns.api.HuskTownsAPI;
 import net.william278.husktowns.claim.Position;
 import net.william278.husktowns.claim.TownClaim;
 import net.william278.husktowns.town.Town;
 import org.bukkit.Bukkit;
-import org.bukkit.Chunk;
-import org.bukkit.Location;
 import org.bukkit.World;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.HashSet;
@@ -25,7 +28,15 @@ import java.util.logging.Logger;
 public class HuskTownsIntegration {
     
     private static final Logger logger = Logger.getLogger("SilkRoad");
+    private static final int CLAIM_CACHE_SIZE = 4096;
     private static HuskTownsAPI huskTownsAPI;
+    // Chunk -> claiming town ID (-1 for wilderness), least recently used entries are evicted first
+    private static final Map<ClaimKey, Integer> claimCache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ClaimKey, Integer> eldest) {
+            return size() > CLAIM_CACHE_SIZE;
+        }
+    };
     
     static {
         try {
@@ -50,10 +61,19 @@ public class HuskTownsIntegration {
     
     /**
      * Validates that all chunks belong to the same town
-     * @param territoryChunks Set of chunk keys in format "world:x:z"
+     * @param territoryChunks Territory chunks to validate
      * @return ValidationResult with success status and details
      */
-    public static ValidationResult validateCaravanTerritory(Set<String> territoryChunks) {
+    public static ValidationResult validateCaravanTerritory(ChunkTerritory territoryChunks) {
+        long start = System.nanoTime();
+        try {
+            return validateTerritory(territoryChunks);
+        } finally {
+            SilkRoad.getInstance().getMetrics().stop(SilkRoadMetrics.TOWN_VALIDATION, start);
+        }
+    }
+    
+    private static ValidationResult validateTerritory(ChunkTerritory territoryChunks) {
         if (!isAvailable()) {
             return ValidationResult.success("HuskTowns not available - validation skipped");
         }
@@ -62,49 +82,33 @@ public class HuskTownsIntegration {
             return ValidationResult.error("No territory chunks provided");
         }
         
-        String firstTownName = null;
         int townId = -1;
         
         try {
-            for (String chunkKey : territoryChunks) {
-                String[] parts = chunkKey.split(":");
-                if (parts.length != 3) {
-                    return ValidationResult.error("Invalid chunk format: " + chunkKey);
-                }
-                
-                String worldName = parts[0];
-                int x = Integer.parseInt(parts[1]);
-                int z = Integer.parseInt(parts[2]);
-                
-                World world = Bukkit.getWorld(worldName);
-                if (world == null) {
+            for (String worldName : territoryChunks.getWorldNames()) {
+                if (Bukkit.getWorld(worldName) == null) {
                     return ValidationResult.error("World not found: " + worldName);
                 }
-
-                Chunk chunk = world.getChunkAt(x, z);
-                
-                // Check if chunk is claimed using HuskTowns API
-                boolean isClaimed = isChunkClaimed(chunk);
-                if (!isClaimed) {
-                    return ValidationResult.error("Chunk " + chunkKey + " is not claimed by any town");
-                }
-                
-                String townName = getChunkTownName(chunk);
-                int currentTownId = getChunkTownId(chunk);
-                
-                if (townName == null) {
-                    return ValidationResult.error("Unable to determine town for chunk " + chunkKey);
-                }
                 
-                if (firstTownName == null) {
-                    firstTownName = townName;
-                    townId = currentTownId;
-                } else if (!firstTownName.equals(townName)) {
-                    return ValidationResult.error("Chunks belong to different towns: '" + firstTownName + "' and '" + townName + "'");
+                for (long key : territoryChunks.toArray(worldName)) {
+                    int currentTownId = resolveClaim(worldName, ChunkKey.x(key), ChunkKey.z(key));
+                    if (currentTownId == -1) {
+                        return ValidationResult.error("Chunk " + ChunkKey.toString(worldName, key) + " is not claimed by any town");
+                    }
+                    
+                    if (townId == -1) {
+                        townId = currentTownId;
+                    } else if (townId != currentTownId) {
+                        return ValidationResult.error("Chunks belong to different towns: '" + getTownName(townId) + "' and '" + getTownName(currentTownId) + "'");
+                    }
                 }
             }
             
-            return ValidationResult.success("All chunks belong to town: " + firstTownName, townId, firstTownName);
+            String townName = getTownName(townId);
+            if (townName == null) {
+                return ValidationResult.error("Unable to determine town with ID " + townId);
+            }
+            return ValidationResult.success("All chunks belong to town: " + townName, townId, townName);
             
         } catch (Exception e) {
             logger.warning("Error validating caravan territory with HuskTowns: " + e.getMessage());
@@ -113,101 +117,79 @@ public class HuskTownsIntegration {
     }
     
     /**
-     * Check if a chunk is claimed by any town
+     * Resolves the town claiming a chunk from its coordinates, without loading the chunk
+     * @return the town ID, or -1 if the chunk is unclaimed or HuskTowns is unavailable
      */
-    private static boolean isChunkClaimed(Chunk chunk) {
+    public static int resolveClaim(String worldName, int chunkX, int chunkZ) {
+        if (huskTownsAPI == null) {
+            return -1;
+        }
+        
+        ClaimKey cacheKey = new ClaimKey(worldName, ChunkKey.pack(chunkX, chunkZ));
+        synchronized (claimCache) {
+            Integer cached = claimCache.get(cacheKey);
+            if (cached != null) {
+                SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.CLAIM_CACHE_HITS);
+                return cached;
+            }
+        }
+        SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.CLAIM_CACHE_MISSES);
+        
+        int townId = -1;
         try {
-            if (huskTownsAPI == null) return false;
-            HuskTownsAPI huskTowns = HuskTownsAPI.getInstance();
-            // Convert chunk center to Location for HuskTowns API
-            Location chunkCenter = new Location(chunk.getWorld(),
-                chunk.getX() * 16 + 8, 64, chunk.getZ() * 16 + 8);
-            net.william278.husktowns.claim.World hw = huskTownsAPI.getWorld(chunkCenter.getWorld().getName());
-            if (hw == null) {
-                return false;
+            net.william278.husktowns.claim.World hw = huskTownsAPI.getWorld(worldName);
+            if (hw != null) {
+                Position position = Position.at(chunkX * 16 + 8, 64, chunkZ * 16 + 8, hw);
+                Optional<TownClaim> claim = huskTownsAPI.getClaimAt(position);
+                if (claim.isPresent()) {
+                    townId = claim.get().town().getId();
+                }
             }
-            Position position = Position.at(chunkCenter.getX(), chunkCenter.getY(), chunkCenter.getZ(), hw);
-            Optional<TownClaim> claim = huskTowns.getClaimAt(position);
-
-            return claim.isPresent();
         } catch (Exception e) {
-            logger.warning("Error checking if chunk is claimed: " + e.getMessage());
-            return false;
+            logger.warning("Error resolving claim at " + worldName + ":" + chunkX + ":" + chunkZ + ": " + e.getMessage());
+            return -1;
         }
+        
+        synchronized (claimCache) {
+            claimCache.put(cacheKey, townId);
+        }
+        return townId;
     }
-
+    
     /**
-     * Get the town name for a claimed chunk
+     * Get the name of a town by ID, or null if it does not exist
      */
-    private static String getChunkTownName(Chunk chunk) {
-        try {
-            if (huskTownsAPI == null) return null;
-            // Convert chunk center to Location for HuskTowns API
-            Location chunkCenter = new Location(chunk.getWorld(),
-                chunk.getX() * 16 + 8, 64, chunk.getZ() * 16 + 8);
-            net.william278.husktowns.claim.World hw = huskTownsAPI.getWorld(chunkCenter.getWorld().getName());
-            if (hw == null) {
-                return null;
-            }
-            Position position = Position.at(chunkCenter.getX(), chunkCenter.getY(), chunkCenter.getZ(), hw);
-            Optional<TownClaim> claim = huskTownsAPI.getClaimAt(position);
-
-            if (claim.isPresent()) {
-                return claim.get().town().getName();
-            }
+    public static String getTownName(int townId) {
+        if (huskTownsAPI == null || townId == -1) {
             return null;
+        }
+        try {
+            return huskTownsAPI.getTown(townId).map(Town::getName).orElse(null);
         } catch (Exception e) {
-            logger.warning("Error getting chunk town name: " + e.getMessage());
+            logger.warning("Error getting town name for town ID " + townId + ": " + e.getMessage());
             return null;
         }
     }
-
+    
     /**
-     * Get the town ID for a claimed chunk
+     * Drops the cached lookups of one chunk, in every world since claim events do not carry a Bukkit world
      */
-    private static int getChunkTownId(Chunk chunk) {
-        try {
-            if (huskTownsAPI == null) return -1;
-
-            // Convert chunk center to Location for HuskTowns API
-            Location chunkCenter = new Location(chunk.getWorld(),
-                chunk.getX() * 16 + 8, 64, chunk.getZ() * 16 + 8);
-            net.william278.husktowns.claim.World hw = huskTownsAPI.getWorld(chunkCenter.getWorld().getName());
-            if (hw == null) {
-                return -1;
+    public static void invalidateClaim(int chunkX, int chunkZ) {
+        long chunk = ChunkKey.pack(chunkX, chunkZ);
+        synchronized (claimCache) {
+            for (World world : Bukkit.getWorlds()) {
+                claimCache.remove(new ClaimKey(world.getName(), chunk));
             }
-            Position position = Position.at(chunkCenter.getX(), chunkCenter.getY(), chunkCenter.getZ(), hw);
-            Optional<TownClaim> claim = huskTownsAPI.getClaimAt(position);
-
-            if (claim.isPresent()) {
-                return claim.get().town().getId();
-            }
-            return -1;
-        } catch (Exception e) {
-            logger.warning("Error getting chunk town ID: " + e.getMessage());
-            return -1;
         }
     }
     
     /**
-     * Check if a town already has a caravan
-     * @param townId The town ID to check
-     * @param existingCaravans Set of existing caravan territory chunks to check against
-     * @return true if town already has a caravan
+     * Drops all cached claim lookups, for changes touching many chunks at once
      */
-    public static boolean townHasCaravan(int townId, Set<Set<String>> existingCaravans) {
-        if (!isAvailable()) {
-            return false;
+    public static void invalidateClaimCache() {
+        synchronized (claimCache) {
+            claimCache.clear();
         }
-        
-        for (Set<String> caravanChunks : existingCaravans) {
-            ValidationResult result = validateCaravanTerritory(caravanChunks);
-            if (result.isSuccess() && result.getTownId() == townId) {
-                return true;
-            }
-        }
-        
-        return false;
     }
     
     /**
@@ -289,4 +271,7 @@ public class HuskTownsIntegration {
             return townName;
         }
     }
+    
+    private record ClaimKey(String worldName, long chunk) {
+    }
 }
\ No newline at end of file
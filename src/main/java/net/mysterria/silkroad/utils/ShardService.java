@@ -0,0 +1,145 @@
+package net.mysterria.silkroad.utils;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
+import org.bukkit.Bukkit;
+import org.bukkit.NamespacedKey;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts and consumes SacredOrder energy shards in player inventories.
+ *
+ * Shard counts are cached per player. ShardCacheListener invalidates them on inventory events;
+ * entries also expire after {@link #MAX_CACHE_AGE_NANOS} to cover changes that fire no event.
+ * Ages are wall-clock since Folia has no single server tick, one second matches the former 20 ticks.
+ */
+public class ShardService {
+
+    private static final long MAX_CACHE_AGE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // Null when SacredOrder is not installed, nothing counts as a shard then
+    private final NamespacedKey shardKey;
+    private final Map<UUID, CachedCount> cachedCounts = new ConcurrentHashMap<>();
+
+    public ShardService() {
+        Plugin sacredOrderPlugin = Bukkit.getPluginManager().getPlugin("SacredOrder");
+        if (sacredOrderPlugin != null) {
+            this.shardKey = new NamespacedKey(sacredOrderPlugin, "shard");
+        } else {
+            this.shardKey = null;
+            SilkRoad.getInstance().log("SacredOrder plugin not found - shard value disabled");
+        }
+    }
+
+    /**
+     * Checks if an item has shard value
+     */
+    public boolean hasShardValue(ItemStack item) {
+        if (shardKey == null || item == null || !item.hasItemMeta()) {
+            return false;
+        }
+
+        ItemMeta meta = item.getItemMeta();
+        if (meta == null) {
+            return false;
+        }
+
+        return meta.getPersistentDataContainer().has(shardKey, PersistentDataType.BOOLEAN);
+    }
+
+    /**
+     * Gets the total shard value from a player's inventory, served from the cache when possible
+     */
+    public int getTotalPlayerShards(Player player) {
+        long now = System.nanoTime();
+        CachedCount cached = cachedCounts.get(player.getUniqueId());
+        if (cached != null && now - cached.createdAt <= MAX_CACHE_AGE_NANOS) {
+            SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.SHARD_CACHE_HITS);
+            return cached.count;
+        }
+        SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.SHARD_SCANS);
+
+        int totalShards = 0;
+        for (ItemStack item : player.getInventory().getContents()) {
+            if (hasShardValue(item)) {
+                totalShards += item.getAmount();
+            }
+        }
+        cachedCounts.put(player.getUniqueId(), new CachedCount(totalShards, now));
+        return totalShards;
+    }
+
+    /**
+     * Consumes shards from a player's inventory in a single pass over its contents
+     * Returns true if successful, false if not enough shards
+     */
+    public boolean consumeShards(Player player, int requiredShards) {
+        SilkRoad.getInstance().getMetrics().increment(SilkRoadMetrics.SHARD_SCANS);
+        PlayerInventory inventory = player.getInventory();
+        ItemStack[] contents = inventory.getContents();
+        int[] shardSlots = new int[contents.length];
+        int shardSlotCount = 0;
+        int totalShards = 0;
+
+        for (int i = 0; i < contents.length; i++) {
+            if (hasShardValue(contents[i])) {
+                shardSlots[shardSlotCount++] = i;
+                totalShards += contents[i].getAmount();
+            }
+        }
+
+        if (totalShards < requiredShards) {
+            cachedCounts.put(player.getUniqueId(), new CachedCount(totalShards, System.nanoTime()));
+            return false;
+        }
+
+        int remaining = requiredShards;
+        for (int i = 0; i < shardSlotCount && remaining > 0; i++) {
+            int slot = shardSlots[i];
+            ItemStack item = contents[slot];
+            int itemAmount = item.getAmount();
+            if (itemAmount <= remaining) {
+                remaining -= itemAmount;
+                inventory.setItem(slot, null);
+            } else {
+                item.setAmount(itemAmount - remaining);
+                inventory.setItem(slot, item);
+                remaining = 0;
+            }
+        }
+
+        cachedCounts.put(player.getUniqueId(), new CachedCount(totalShards - requiredShards, System.nanoTime()));
+        return true;
+    }
+
+    public void invalidate(UUID playerId) {
+        cachedCounts.remove(playerId);
+    }
+
+    /**
+     * Creates a display string for shard cost
+     */
+    public static String formatShardCost(int cost) {
+        return cost + " Shards";
+    }
+
+    private static class CachedCount {
+        private final int count;
+        private final long createdAt;
+
+        private CachedCount(int count, long createdAt) {
+            this.count = count;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -7,10 +7,13 @@ import net.kyori.adventure.translation.TranslationStore;
 import net.kyori.adventure.util.UTF8ResourceBundleControl;
 
 import java.text.MessageFormat;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public class TranslationManager {
@@ -19,6 +22,10 @@ public class TranslationManager {
     private static final Key REGISTRY_KEY = Key.key(NAMESPACE, "translations");
     private static TranslationStore.StringBased<MessageFormat> translationStore;
     private static boolean initialized = false;
+    // Formats compiled once per locale and key (without namespace), shared with the translation store
+    private static final Map<Locale, Map<String, MessageFormat>> compiledFormats = new ConcurrentHashMap<>();
+    // Argument-free messages rendered once per locale and key
+    private static final Map<Locale, Map<String, String>> renderedMessages = new ConcurrentHashMap<>();
 
     public static void initialize() {
         if (initialized) {
@@ -51,15 +58,15 @@ public class TranslationManager {
 
             Set<String> originalKeys = bundle.keySet();
             Set<String> namespacedKeys = new HashSet<>();
+            Map<String, MessageFormat> formats = new HashMap<>();
             
             for (String key : originalKeys) {
                 namespacedKeys.add(NAMESPACE + ":" + key);
+                formats.put(key, new MessageFormat(bundle.getString(key), locale));
             }
+            compiledFormats.put(locale, formats);
             
-            Function<String, MessageFormat> function = namespacedKey -> {
-                String actualKey = namespacedKey.substring(NAMESPACE.length() + 1);
-                return new MessageFormat(bundle.getString(actualKey), locale);
-            };
+            Function<String, MessageFormat> function = namespacedKey -> formats.get(namespacedKey.substring(NAMESPACE.length() + 1));
 
             translationStore.registerAll(locale, namespacedKeys, function);
 
@@ -72,6 +79,8 @@ public class TranslationManager {
     public static void reload() {
         if (translationStore != null) {
             GlobalTranslator.translator().removeSource(translationStore);
+            compiledFormats.clear();
+            renderedMessages.clear();
             initialized = false;
             initialize();
         }
@@ -93,19 +102,27 @@ public class TranslationManager {
                 return key; // Return the key as fallback if not initialized
             }
             
-            // Get the MessageFormat from the translation store
-            String namespacedKey = NAMESPACE + ":" + key;
-            MessageFormat format = translationStore.translate(namespacedKey, Locale.ENGLISH);
-            
+            Map<String, MessageFormat> formats = compiledFormats.get(Locale.ENGLISH);
+            MessageFormat format = formats == null ? null : formats.get(key);
             if (format == null) {
                 return key; // Return the key as fallback if translation not found
             }
             
-            // Format the message with the provided arguments
-            return format.format(args);
+            if (args.length == 0) {
+                return renderedMessages.computeIfAbsent(Locale.ENGLISH, locale -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(key, k -> format(format, args));
+            }
+            return format(format, args);
         } catch (Exception e) {
             // Return the key as fallback if there's any error
             return key;
         }
     }
-}
\ No newline at end of file
+    
+    // MessageFormat is not thread-safe and the compiled instances are shared
+    private static String format(MessageFormat format, Object[] args) {
+        synchronized (format) {
+            return format.format(args);
+        }
+    }
+}
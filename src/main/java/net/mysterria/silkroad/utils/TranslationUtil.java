@@ -7,9 +7,15 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TranslationUtil {
     
+    // Components are immutable, so argument-free ones are built once per key (and color) and shared
+    private static final Map<String, Component> plainComponents = new ConcurrentHashMap<>();
+    private static final Map<NamedTextColor, Map<String, Component>> coloredComponents = new ConcurrentHashMap<>();
+    
     /**
      * Creates a translatable component with the raidstorm namespace
      * @param key The translation key
@@ -17,8 +23,9 @@ public class TranslationUtil {
      * @return The translatable component
      */
     public static Component translatable(String key, Object... args) {
-
-        Component.translatable("");
+        if (args.length == 0) {
+            return plainComponents.computeIfAbsent(key, k -> Component.translatable(TranslationManager.getNamespace() + ":" + k));
+        }
 
         ComponentLike[] componentArgs = convertToComponentLike(args);
         return Component.translatable(TranslationManager.getNamespace() + ":" + key, componentArgs);
@@ -32,6 +39,10 @@ public class TranslationUtil {
      * @return The translatable component
      */
     public static Component translatable(String key, NamedTextColor color, Object... args) {
+        if (args.length == 0) {
+            return coloredComponents.computeIfAbsent(color, c -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(key, k -> translatable(k).color(color));
+        }
         ComponentLike[] componentArgs = convertToComponentLike(args);
         return Component.translatable(TranslationManager.getNamespace() + ":" + key, componentArgs).color(color);
     }
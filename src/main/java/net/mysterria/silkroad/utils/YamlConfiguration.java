@@ -4,11 +4,18 @@ import org.yaml.snakeyaml.DumperOptions;
 import org.yaml.snakeyaml.Yaml;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Map;
 
 public class YamlConfiguration {
 
+    // Yaml instances are not thread-safe, parallel loaders each get their own
+    private static final ThreadLocal<Yaml> READER = ThreadLocal.withInitial(Yaml::new);
+
     private final File file;
     private final Yaml yaml;
     private Map<String, Object> data;
@@ -24,6 +31,34 @@ public class YamlConfiguration {
         load();
     }
 
+    /**
+     * Creates a configuration backed by already prepared data without reading the file,
+     * used when the whole document is about to be overwritten
+     */
+    public YamlConfiguration(File file, Map<String, Object> data) {
+        this.file = file;
+
+        DumperOptions options = new DumperOptions();
+        options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+        this.yaml = new Yaml(options);
+        this.data = data;
+
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+    }
+
+    /**
+     * Parses a file without creating it, safe to call from several threads at once
+     */
+    public static Map<String, Object> read(File file) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            Map<String, Object> data = READER.get().load(reader);
+            return data == null ? new HashMap<>() : data;
+        }
+    }
+
     private void ensureFileExists() {
         try {
             File parentDir = file.getParentFile();
@@ -57,11 +92,33 @@ public class YamlConfiguration {
         }
     }
 
+    /**
+     * Writes the document to a temporary file, syncs it to disk and atomically renames it over
+     * the target, so a crash mid-save leaves either the old or the new file but never a truncated one
+     *
+     * @throws UncheckedIOException when the file could not be written, the old file is then left as it was
+     */
     public void save() {
-        try (Writer writer = new FileWriter(file)) {
+        File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tempFile);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
             yaml.dump(data, writer);
+            writer.flush();
+            out.getFD().sync();
         } catch (IOException e) {
-            e.printStackTrace();
+            tempFile.delete();
+            throw new UncheckedIOException("Failed to write " + file.getName(), e);
+        }
+
+        try {
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            tempFile.delete();
+            throw new UncheckedIOException("Failed to replace " + file.getName(), e);
         }
     }
 
@@ -73,6 +130,10 @@ public class YamlConfiguration {
         data.put(path, value);
     }
 
+    public Map<String, Object> getData() {
+        return data;
+    }
+
     public Map<String, Object> getSection(String path) {
         Object section = data.get(path);
         return (section instanceof Map) ? (Map<String, Object>) section : new HashMap<>();
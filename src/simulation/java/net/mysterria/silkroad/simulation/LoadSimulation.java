@@ -0,0 +1,392 @@
+package net.mysterria.silkroad.simulation;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.domain.caravan.gui.CaravanInventoryManagementGUI;
+import net.mysterria.silkroad.domain.caravan.gui.CaravanManagementGUI;
+import net.mysterria.silkroad.domain.caravan.gui.GuiPager;
+import net.mysterria.silkroad.domain.caravan.manager.CaravanManager;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.domain.caravan.model.ChunkTerritory;
+import net.mysterria.silkroad.domain.caravan.model.ResourceTransfer;
+import net.mysterria.silkroad.metrics.LatencyHistogram;
+import net.mysterria.silkroad.metrics.SilkRoadMetrics;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.World;
+import org.bukkit.event.inventory.ClickType;
+import org.bukkit.event.inventory.InventoryAction;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.inventory.InventoryView;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.plugin.Plugin;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+import org.mockbukkit.mockbukkit.entity.PlayerMock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Headless whole-plugin load test. Boots SilkRoad on MockBukkit, creates caravans with territories and
+ * member players, then drives randomized deposit, withdraw, transfer, claim and GUI traffic through the
+ * real CaravanManager and GUIs for a number of simulated ticks, ticking the mock scheduler in between so
+ * the transfer processor and write-behind flush run as on a server.
+ *
+ * GUI traffic is synthesized InventoryClickEvents on the opened GUIs. Inventory GUIs stay open until the
+ * player's next GUI operation, so the slot repaints of their own and everyone else's changes run too.
+ *
+ * Run with ./gradlew simulate --args="--caravans=100 --players=500 --duration=600"
+ */
+public class LoadSimulation {
+
+    private static final int SHARD_TOP_UP = 640;
+    private static final int CARAVAN_SPACING_CHUNKS = 64;
+    // Layout of the six-row GUIs the clicks are aimed at
+    private static final int GUI_SIZE = 54;
+    private static final int CARAVAN_GUI_FIRST_SLOT = 9;
+    private static final int SEND_RESOURCES_SLOT = 21;
+    private static final int NEXT_PAGE_SLOT = 52;
+
+    private enum Operation {
+        DEPOSIT(35), WITHDRAW(25), TRANSFER(15), CLAIM(15), GUI_CLICK(6), GUI_PAGE(4);
+
+        private final int weight;
+
+        Operation(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    private final SimulationOptions options;
+    private final Random random;
+    private final Map<Operation, LatencyHistogram> operationTimes = new EnumMap<>(Operation.class);
+    private final Map<Operation, long[]> operationResults = new EnumMap<>(Operation.class);
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final List<Material> cargoMaterials = new ArrayList<>();
+    private final List<PlayerMock> players = new ArrayList<>();
+    private final List<Caravan> caravans = new ArrayList<>();
+    private final Map<PlayerMock, List<Caravan>> memberships = new HashMap<>();
+    private ServerMock server;
+    private SilkRoad plugin;
+    private CaravanManager manager;
+    private NamespacedKey shardKey;
+
+    public LoadSimulation(SimulationOptions options) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        for (Operation operation : Operation.values()) {
+            operationTimes.put(operation, new LatencyHistogram());
+            operationResults.put(operation, new long[2]);
+        }
+    }
+
+    public static void main(String[] args) {
+        new LoadSimulation(SimulationOptions.parse(args)).run();
+    }
+
+    public void run() {
+        System.out.println("Simulating " + options);
+        boot();
+        try {
+            populate();
+            long start = System.nanoTime();
+            for (long tick = 0; tick < options.durationTicks; tick++) {
+                long tickStart = System.nanoTime();
+                for (int i = 0; i < options.operationsPerTick; i++) {
+                    perform(pickOperation());
+                }
+                server.getScheduler().performOneTick();
+                tickTimes.record(System.nanoTime() - tickStart);
+            }
+            server.getScheduler().waitAsyncTasksFinished();
+            report(System.nanoTime() - start);
+        } finally {
+            MockBukkit.unmock();
+        }
+    }
+
+    private void boot() {
+        server = MockBukkit.mock();
+        Plugin sacredOrder = MockBukkit.createMockPlugin("SacredOrder");
+        shardKey = new NamespacedKey(sacredOrder, "shard");
+        plugin = MockBukkit.load(SilkRoad.class);
+        plugin.getConfig().set("delivery.base_time_ms", options.deliveryMs);
+        plugin.getConfig().set("delivery.time_per_block_ms", 0L);
+        plugin.getConfig().set("debug.transfer_debug", false);
+        manager = plugin.getCaravanManager();
+
+        for (Material material : Material.values()) {
+            // Shards are amethyst shards, keep them out of the cargo so clearing cargo never takes shards
+            if (!material.isLegacy() && material.isItem() && !material.isAir() && material.getMaxStackSize() == 64
+                    && material != Material.AMETHYST_SHARD) {
+                cargoMaterials.add(material);
+            }
+            if (cargoMaterials.size() == 64) {
+                break;
+            }
+        }
+    }
+
+    private void populate() {
+        World world = server.addSimpleWorld("world");
+        int side = (int) Math.ceil(Math.sqrt(options.caravans));
+        int territorySide = Math.max(1, (int) Math.sqrt(options.chunksPerCaravan));
+        for (int i = 0; i < options.caravans; i++) {
+            int baseX = (i % side) * CARAVAN_SPACING_CHUNKS;
+            int baseZ = (i / side) * CARAVAN_SPACING_CHUNKS;
+            ChunkTerritory territory = new ChunkTerritory();
+            for (int x = 0; x < territorySide; x++) {
+                for (int z = 0; z < territorySide; z++) {
+                    territory.add(world.getName(), baseX + x, baseZ + z);
+                }
+            }
+            Location location = new Location(world, baseX * 16 + 8, 64, baseZ * 16 + 8);
+            caravans.add(manager.createCaravan("sim-" + i, "Simulated " + i, location, territory));
+        }
+
+        for (int i = 0; i < options.players; i++) {
+            PlayerMock player = server.addPlayer();
+            List<Caravan> memberOf = new ArrayList<>();
+            int count = 1 + random.nextInt(3);
+            for (int j = 0; j < count; j++) {
+                Caravan caravan = caravans.get(random.nextInt(caravans.size()));
+                if (manager.addCaravanMember(caravan, player.getUniqueId())) {
+                    memberOf.add(caravan);
+                }
+            }
+            players.add(player);
+            memberships.put(player, memberOf);
+            giveShards(player, SHARD_TOP_UP);
+        }
+    }
+
+    private Operation pickOperation() {
+        int roll = random.nextInt(100);
+        for (Operation operation : Operation.values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return Operation.DEPOSIT;
+    }
+
+    private void perform(Operation operation) {
+        PlayerMock player = players.get(random.nextInt(players.size()));
+        List<Caravan> memberOf = memberships.get(player);
+        Caravan caravan = memberOf.get(random.nextInt(memberOf.size()));
+
+        long start = System.nanoTime();
+        boolean succeeded = switch (operation) {
+            case DEPOSIT -> deposit(player, caravan);
+            case WITHDRAW -> withdraw(player, caravan);
+            case TRANSFER -> transfer(player, caravan);
+            case CLAIM -> claim(player);
+            case GUI_CLICK -> clickInventoryGui(player, caravan);
+            case GUI_PAGE -> pageDestinations(player);
+        };
+        operationTimes.get(operation).record(System.nanoTime() - start);
+        operationResults.get(operation)[succeeded ? 0 : 1]++;
+    }
+
+    private boolean deposit(PlayerMock player, Caravan caravan) {
+        ItemStack cargo = new ItemStack(cargoMaterials.get(random.nextInt(cargoMaterials.size())), 1 + random.nextInt(64));
+        player.getInventory().addItem(cargo.clone());
+        return manager.addItemStackToCaravan(caravan.getId(), player, cargo);
+    }
+
+    private boolean withdraw(PlayerMock player, Caravan caravan) {
+        List<ItemStack> stored = caravan.getItemInventory();
+        if (stored.isEmpty()) {
+            return false;
+        }
+        ItemStack stack = stored.get(random.nextInt(stored.size())).clone();
+        boolean withdrawn = manager.removeItemStackFromCaravan(caravan.getId(), player, stack, 1 + random.nextInt(stack.getAmount()));
+        // Keep the player inventory from filling up, only shards stay
+        player.getInventory().remove(stack.getType());
+        return withdrawn;
+    }
+
+    private boolean transfer(PlayerMock player, Caravan source) {
+        List<ItemStack> stored = source.getItemInventory();
+        if (stored.isEmpty()) {
+            return false;
+        }
+        Caravan destination = caravans.get(random.nextInt(caravans.size()));
+        if (destination == source) {
+            return false;
+        }
+        ItemStack cargo = stored.get(random.nextInt(stored.size())).clone();
+        cargo.setAmount(1 + random.nextInt(cargo.getAmount()));
+
+        if (plugin.getShardService().getTotalPlayerShards(player) < SHARD_TOP_UP / 2) {
+            giveShards(player, SHARD_TOP_UP);
+        }
+        return manager.createTransfer(player, source.getId(), destination.getId(), List.of(cargo)) != null;
+    }
+
+    private boolean claim(PlayerMock player) {
+        List<ResourceTransfer> delivered = manager.getDeliveredTransfersForPlayer(player.getUniqueId());
+        if (delivered.isEmpty()) {
+            return false;
+        }
+        boolean claimed = manager.claimTransferToInventory(delivered.get(0).getId(), player);
+        for (ItemStack item : delivered.get(0).getItemResources()) {
+            player.getInventory().remove(item.getType());
+        }
+        return claimed;
+    }
+
+    /**
+     * Opens the caravan inventory GUI and shift-clicks cargo into it or clicks a caravan slot to withdraw it
+     */
+    private boolean clickInventoryGui(PlayerMock player, Caravan caravan) {
+        player.closeInventory();
+        new CaravanInventoryManagementGUI(manager, player, caravan).open();
+        if (!isShowingGui(player)) {
+            return false;
+        }
+
+        int usedSlots = caravan.getUsedSlots();
+        if (usedSlots == 0 || random.nextBoolean()) {
+            int playerSlot = player.getInventory().firstEmpty();
+            if (playerSlot < 0) {
+                return false;
+            }
+            ItemStack cargo = new ItemStack(cargoMaterials.get(random.nextInt(cargoMaterials.size())), 1 + random.nextInt(64));
+            player.getInventory().setItem(playerSlot, cargo);
+            click(player, toRawSlot(player, playerSlot), ClickType.SHIFT_LEFT, InventoryAction.MOVE_TO_OTHER_INVENTORY);
+            // Left in the player inventory only if the deposit was rejected
+            boolean deposited = !cargo.equals(player.getInventory().getItem(playerSlot));
+            player.getInventory().clear(playerSlot);
+            return deposited;
+        }
+
+        int rawSlot = CARAVAN_GUI_FIRST_SLOT + random.nextInt(usedSlots);
+        ItemStack shown = player.getOpenInventory().getTopInventory().getItem(rawSlot);
+        if (shown == null || shown.getType().isAir()) {
+            return false;
+        }
+        click(player, rawSlot, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        boolean withdrawn = player.getInventory().contains(shown.getType());
+        player.getInventory().remove(shown.getType());
+        return withdrawn;
+    }
+
+    /**
+     * Walks from the caravan menu to the destination menu of the first caravan and turns a few pages
+     */
+    private boolean pageDestinations(PlayerMock player) {
+        player.closeInventory();
+        new CaravanManagementGUI(manager, player).open();
+        if (!isShowingGui(player)) {
+            return false;
+        }
+        click(player, GuiPager.CONTENT_SLOTS[0], ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        click(player, SEND_RESOURCES_SLOT, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+
+        int turned = 0;
+        for (int pages = 1 + random.nextInt(3); turned < pages && isShowingGui(player); turned++) {
+            ItemStack next = player.getOpenInventory().getTopInventory().getItem(NEXT_PAGE_SLOT);
+            if (next == null || next.getType() != Material.ARROW) {
+                break;
+            }
+            click(player, NEXT_PAGE_SLOT, ClickType.LEFT, InventoryAction.PICKUP_ALL);
+        }
+        player.closeInventory();
+        return turned > 0;
+    }
+
+    private static boolean isShowingGui(PlayerMock player) {
+        return player.getOpenInventory().getTopInventory().getSize() == GUI_SIZE;
+    }
+
+    /**
+     * Fires a click on a raw slot of the player's open view, the way the server reports a real click
+     */
+    private void click(PlayerMock player, int rawSlot, ClickType clickType, InventoryAction action) {
+        InventoryView view = player.getOpenInventory();
+        server.getPluginManager().callEvent(new InventoryClickEvent(view, view.getSlotType(rawSlot), rawSlot, clickType, action));
+    }
+
+    /**
+     * Raw slot of a player inventory slot below a six-row GUI, the hotbar comes after the main inventory
+     */
+    private static int toRawSlot(PlayerMock player, int playerSlot) {
+        int topSize = player.getOpenInventory().getTopInventory().getSize();
+        return playerSlot < 9 ? topSize + 27 + playerSlot : topSize + playerSlot - 9;
+    }
+
+    private void giveShards(PlayerMock player, int amount) {
+        ItemStack shard = new ItemStack(Material.AMETHYST_SHARD);
+        ItemMeta meta = shard.getItemMeta();
+        meta.getPersistentDataContainer().set(shardKey, PersistentDataType.BOOLEAN, true);
+        shard.setItemMeta(meta);
+        for (int remaining = amount; remaining > 0; remaining -= 64) {
+            ItemStack stack = shard.clone();
+            stack.setAmount(Math.min(64, remaining));
+            player.getInventory().addItem(stack);
+        }
+        plugin.getShardService().invalidate(player.getUniqueId());
+    }
+
+    private void report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        long totalOperations = 0;
+        for (long[] results : operationResults.values()) {
+            totalOperations += results[0] + results[1];
+        }
+
+        System.out.printf(Locale.ROOT, "%nSimulated %d ticks in %.1fs real time (%.1f ticks/s)%n",
+                options.durationTicks, seconds, options.durationTicks / seconds);
+        System.out.printf(Locale.ROOT, "%d operations, %.0f ops/s%n%n", totalOperations, totalOperations / seconds);
+
+        System.out.printf(Locale.ROOT, "%-10s %10s %10s %10s %10s %10s %10s%n", "operation", "ok", "rejected", "p50 µs", "p95 µs", "p99 µs", "max µs");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = operationTimes.get(operation);
+            long[] results = operationResults.get(operation);
+            System.out.printf(Locale.ROOT, "%-10s %10d %10d %10d %10d %10d %10d%n", operation.name().toLowerCase(Locale.ROOT),
+                    results[0], results[1], histogram.getPercentileMicros(0.50), histogram.getPercentileMicros(0.95),
+                    histogram.getPercentileMicros(0.99), histogram.getMaxMicros());
+        }
+        System.out.printf(Locale.ROOT, "%-10s %10s %10s %10d %10d %10d %10d%n%n", "tick", "", "",
+                tickTimes.getPercentileMicros(0.50), tickTimes.getPercentileMicros(0.95),
+                tickTimes.getPercentileMicros(0.99), tickTimes.getMaxMicros());
+
+        Map<String, Long> counters = plugin.getMetrics().getCounters();
+        long storageBytes = counters.getOrDefault(SilkRoadMetrics.STORAGE_BYTES_WRITTEN, 0L);
+        long journalBytes = counters.getOrDefault(SilkRoadMetrics.JOURNAL_BYTES_WRITTEN, 0L);
+        System.out.printf(Locale.ROOT, "Bytes written: %d storage, %d journal, %d on disk now%n",
+                storageBytes, journalBytes, directorySize(plugin.getDataFolder().toPath()));
+        System.out.printf(Locale.ROOT, "Transfers: %d created, %d delivered, %d claimed%n",
+                counters.getOrDefault(SilkRoadMetrics.TRANSFERS_CREATED, 0L),
+                counters.getOrDefault(SilkRoadMetrics.TRANSFERS_DELIVERED, 0L),
+                counters.getOrDefault(SilkRoadMetrics.TRANSFERS_CLAIMED, 0L));
+
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.out.printf(Locale.ROOT, "Heap after GC: %.1f MiB used of %.1f MiB%n",
+                (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0, runtime.totalMemory() / 1048576.0);
+    }
+
+    private static long directorySize(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.mysterria.silkroad.simulation;
+
+/**
+ * Command line options of the load simulation, given as --name=value
+ */
+public class SimulationOptions {
+
+    int caravans = 50;
+    int players = 200;
+    // Simulated server ticks, 20 per virtual second
+    long durationTicks = 20L * 60L * 10L;
+    int operationsPerTick = 20;
+    int chunksPerCaravan = 16;
+    // Real time a transfer spends in transit, short so deliveries and claims happen within the run
+    long deliveryMs = 2000L;
+    long seed = 42L;
+
+    static SimulationOptions parse(String[] args) {
+        SimulationOptions options = new SimulationOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "caravans" -> options.caravans = Integer.parseInt(value);
+                case "players" -> options.players = Integer.parseInt(value);
+                case "duration" -> options.durationTicks = Long.parseLong(value) * 20L;
+                case "ops-per-tick" -> options.operationsPerTick = Integer.parseInt(value);
+                case "chunks-per-caravan" -> options.chunksPerCaravan = Integer.parseInt(value);
+                case "delivery-ms" -> options.deliveryMs = Long.parseLong(value);
+                case "seed" -> options.seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option --" + name);
+            }
+        }
+        if (options.caravans < 2) {
+            throw new IllegalArgumentException("At least two caravans are needed for transfers");
+        }
+        return options;
+    }
+
+    @Override
+    public String toString() {
+        return caravans + " caravans, " + players + " players, " + (durationTicks / 20L) + " virtual seconds, "
+                + operationsPerTick + " operations per tick, seed " + seed;
+    }
+}
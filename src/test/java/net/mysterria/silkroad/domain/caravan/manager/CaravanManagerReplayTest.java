@@ -0,0 +1,83 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.domain.caravan.model.CaravanStorage;
+import net.mysterria.silkroad.domain.caravan.storage.CaravanPersistence;
+import net.mysterria.silkroad.domain.caravan.storage.InMemoryCaravanRepository;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaravanManagerReplayTest {
+
+    @TempDir
+    File journalDir;
+
+    private ServerMock server;
+    private SilkRoad plugin;
+    private InMemoryCaravanRepository repository;
+    private CaravanPersistence persistence;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        MockBukkit.createMockPlugin("SacredOrder");
+        plugin = MockBukkit.load(SilkRoad.class);
+        repository = new InMemoryCaravanRepository();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void replaysDepositsOfAFlushThatNeverLanded() throws InterruptedException {
+        CaravanManager manager = startManager();
+        Caravan caravan = manager.createCaravan("market", "Market", new Location(server.addSimpleWorld("world"), 0, 64, 0));
+        persistence.flush();
+        assertTrue(repository.awaitBatch());
+
+        manager.depositItemStack(caravan, new ItemStack(Material.DIAMOND, 16));
+        // The flush carrying the deposit dies before its batch reaches storage
+        repository.setFailWrites(true);
+        persistence.flush();
+        assertTrue(repository.awaitBatch());
+        repository.setFailWrites(false);
+
+        // Restart on the same storage and journal without shutting down, as after a crash
+        CaravanManager restarted = startManager();
+        assertEquals(16, diamonds(restarted));
+        assertEquals(1, ((List<?>) repository.getStoredCaravan("market").get("itemInventory")).size());
+
+        // The replayed state was written with its sequence, another restart must not apply the records twice
+        restarted.shutdown();
+        assertEquals(16, diamonds(startManager()));
+    }
+
+    private CaravanManager startManager() {
+        CaravanStorage storage = new CaravanStorage(repository);
+        persistence = new CaravanPersistence(storage, plugin.getPluginConfig(), journalDir);
+        return new CaravanManager(storage, persistence);
+    }
+
+    private static int diamonds(CaravanManager manager) {
+        return manager.getCaravan("market").orElseThrow().getItemInventory().stream()
+                .filter(item -> item.getType() == Material.DIAMOND)
+                .mapToInt(ItemStack::getAmount)
+                .sum();
+    }
+}
@@ -0,0 +1,77 @@
+package net.mysterria.silkroad.domain.caravan.manager;
+
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryPlanTest {
+
+    private ServerMock server;
+    private PlayerInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        inventory = server.addPlayer().getInventory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void topsUpSimilarStacksBeforeEmptySlots() {
+        inventory.setItem(3, new ItemStack(Material.DIAMOND, 60));
+        InventoryPlan plan = new InventoryPlan(inventory.getStorageContents());
+
+        assertTrue(plan.tryAdd(List.of(new ItemStack(Material.DIAMOND, 10))));
+        plan.applyTo(inventory);
+
+        assertEquals(64, inventory.getItem(3).getAmount());
+        assertEquals(Material.DIAMOND, inventory.getItem(0).getType());
+        assertEquals(6, inventory.getItem(0).getAmount());
+        assertTrue(inventory.getItem(1) == null || inventory.getItem(1).getType().isAir());
+    }
+
+    @Test
+    void itemsThatOverflowAreNotPlacedAtAll() {
+        for (int slot = 0; slot < inventory.getStorageContents().length; slot++) {
+            inventory.setItem(slot, new ItemStack(Material.STONE, 64));
+        }
+        inventory.setItem(5, new ItemStack(Material.DIAMOND, 63));
+        InventoryPlan plan = new InventoryPlan(inventory.getStorageContents());
+
+        // The diamond would fit, the dirt would not, so neither is placed
+        assertFalse(plan.tryAdd(List.of(new ItemStack(Material.DIAMOND, 1), new ItemStack(Material.DIRT, 1))));
+        assertTrue(plan.tryAdd(List.of(new ItemStack(Material.DIAMOND, 1))));
+        assertFalse(plan.tryAdd(List.of(new ItemStack(Material.DIAMOND, 1))));
+        plan.applyTo(inventory);
+
+        assertEquals(64, inventory.getItem(5).getAmount());
+        assertFalse(inventory.contains(Material.DIRT));
+    }
+
+    @Test
+    void laterClaimsSeeEarlierOnes() {
+        InventoryPlan plan = new InventoryPlan(inventory.getStorageContents());
+
+        assertTrue(plan.tryAdd(List.of(new ItemStack(Material.EMERALD, 40))));
+        assertTrue(plan.tryAdd(List.of(new ItemStack(Material.EMERALD, 40))));
+        plan.applyTo(inventory);
+
+        assertEquals(64, inventory.getItem(0).getAmount());
+        assertEquals(16, inventory.getItem(1).getAmount());
+    }
+}
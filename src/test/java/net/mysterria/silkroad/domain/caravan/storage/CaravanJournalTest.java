@@ -0,0 +1,65 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import net.mysterria.silkroad.SilkRoad;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CaravanJournalTest {
+
+    @TempDir
+    File journalDir;
+
+    @BeforeEach
+    void setUp() {
+        MockBukkit.mock();
+        MockBukkit.createMockPlugin("SacredOrder");
+        MockBukkit.load(SilkRoad.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void syncedRecordsSurviveWithoutClose() {
+        CaravanJournal journal = new CaravanJournal(journalDir, false);
+        journal.open(0);
+        journal.append(CaravanJournal.Operation.ITEM_ADD, "market", "diamond".getBytes(StandardCharsets.UTF_8));
+        journal.append(CaravanJournal.Operation.ITEM_REMOVE, "market", "emerald".getBytes(StandardCharsets.UTF_8));
+        journal.sync();
+
+        // Read by a second journal as after a crash, the first one is never closed
+        List<CaravanJournal.Entry> entries = new CaravanJournal(journalDir, false).readAll();
+        assertEquals(2, entries.size());
+        assertEquals(CaravanJournal.Operation.ITEM_REMOVE, entries.get(1).getOperation());
+        assertArrayEquals("emerald".getBytes(StandardCharsets.UTF_8), entries.get(1).getPayload());
+    }
+
+    @Test
+    void tornTailIsIgnored() throws IOException {
+        CaravanJournal journal = new CaravanJournal(journalDir, true);
+        journal.open(0);
+        journal.append(CaravanJournal.Operation.TRANSFER_DELETE, "transfer-1", null);
+        File[] segments = journalDir.listFiles((dir, name) -> name.endsWith(".log"));
+        try (FileWriter writer = new FileWriter(segments[0], StandardCharsets.UTF_8, true)) {
+            writer.write("2\tTRANSFER_DELETE\ttransfer-2");
+        }
+
+        List<CaravanJournal.Entry> entries = new CaravanJournal(journalDir, true).readAll();
+        assertEquals(1, entries.size());
+        assertEquals("transfer-1", entries.get(0).getTargetId());
+    }
+}
@@ -0,0 +1,114 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import net.mysterria.silkroad.SilkRoad;
+import net.mysterria.silkroad.domain.caravan.model.Caravan;
+import net.mysterria.silkroad.domain.caravan.model.CaravanStorage;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockbukkit.mockbukkit.MockBukkit;
+import org.mockbukkit.mockbukkit.ServerMock;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CaravanPersistenceTest {
+
+    @TempDir
+    File journalDir;
+
+    private ServerMock server;
+    private InMemoryCaravanRepository repository;
+    private CaravanStorage storage;
+    private CaravanPersistence persistence;
+
+    @BeforeEach
+    void setUp() {
+        server = MockBukkit.mock();
+        MockBukkit.createMockPlugin("SacredOrder");
+        SilkRoad plugin = MockBukkit.load(SilkRoad.class);
+        repository = new InMemoryCaravanRepository();
+        storage = new CaravanStorage(repository);
+        persistence = new CaravanPersistence(storage, plugin.getPluginConfig(), journalDir);
+        persistence.readJournal();
+        persistence.completeReplay(0, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        MockBukkit.unmock();
+    }
+
+    @Test
+    void failedBatchKeepsJournalAndDirtySections() {
+        Caravan caravan = new Caravan("market", "Market", new Location(server.addSimpleWorld("world"), 0, 64, 0));
+        storage.saveCaravan(caravan);
+        ItemStack diamonds = new ItemStack(Material.DIAMOND, 16);
+        caravan.addItemStack(diamonds);
+        persistence.recordItemAdded(caravan, diamonds);
+
+        repository.setFailWrites(true);
+        // Shutdown flushes and waits for the I/O thread, flushes after it run on the calling thread
+        persistence.shutdown();
+        assertTrue(hasJournalRecords(), "segments of a failed batch must be kept");
+        assertTrue(storedItems().isEmpty());
+
+        repository.setFailWrites(false);
+        persistence.flush();
+        assertEquals(1, storedItems().size(), "the inventory must still be dirty after the failed batch");
+        assertFalse(hasJournalRecords(), "segments are dropped once their batch is written");
+    }
+
+    @Test
+    void failedSynchronousSaveKeepsDirtySections() {
+        Caravan caravan = new Caravan("market", "Market", new Location(server.addSimpleWorld("world"), 0, 64, 0));
+        repository.setFailWrites(true);
+        assertThrows(StorageException.class, () -> storage.saveCaravan(caravan));
+
+        repository.setFailWrites(false);
+        storage.saveCaravan(caravan);
+        assertEquals("Market", repository.getStoredCaravan("market").get("name"));
+        assertTrue(storedItems().isEmpty());
+    }
+
+    @Test
+    void writesAfterShutdownGoStraightToStorage() {
+        Caravan caravan = new Caravan("market", "Market", new Location(server.addSimpleWorld("world"), 0, 64, 0));
+        storage.saveCaravan(caravan);
+        persistence.shutdown();
+
+        // A late mutation, e.g. from a GUI closed while the plugin disables
+        ItemStack diamonds = new ItemStack(Material.DIAMOND, 16);
+        caravan.addItemStack(diamonds);
+        persistence.recordItemAdded(caravan, diamonds);
+
+        assertEquals(1, storedItems().size());
+        assertFalse(hasJournalRecords());
+    }
+
+    private List<?> storedItems() {
+        return (List<?>) repository.getStoredCaravan("market").get("itemInventory");
+    }
+
+    private boolean hasJournalRecords() {
+        File[] segments = journalDir.listFiles((dir, name) -> name.endsWith(".log"));
+        if (segments == null) {
+            return false;
+        }
+        for (File segment : segments) {
+            if (segment.length() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,116 @@
+package net.mysterria.silkroad.domain.caravan.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository keeping documents in memory, whose writes can be made to fail like a broken disk
+ */
+public class InMemoryCaravanRepository implements CaravanRepository {
+
+    private final Map<String, Map<String, Object>> caravans = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> transfers = new ConcurrentHashMap<>();
+    // Released after every batch, whether it failed or not
+    private final Semaphore batches = new Semaphore(0);
+    private volatile boolean failWrites;
+
+    public void setFailWrites(boolean failWrites) {
+        this.failWrites = failWrites;
+    }
+
+    /**
+     * Waits for the next batch to have been attempted
+     */
+    public boolean awaitBatch() throws InterruptedException {
+        return batches.tryAcquire(10, TimeUnit.SECONDS);
+    }
+
+    public Map<String, Object> getStoredCaravan(String id) {
+        return caravans.get(id);
+    }
+
+    @Override
+    public Map<String, Object> readCaravan(String id) {
+        Map<String, Object> document = caravans.get(id);
+        return document == null ? null : new LinkedHashMap<>(document);
+    }
+
+    @Override
+    public void writeCaravan(String id, Map<String, Object> document) {
+        checkWritable();
+        caravans.merge(id, new LinkedHashMap<>(document), (stored, partial) -> {
+            Map<String, Object> merged = new LinkedHashMap<>(stored);
+            merged.putAll(partial);
+            return merged;
+        });
+    }
+
+    @Override
+    public void deleteCaravan(String id) {
+        checkWritable();
+        caravans.remove(id);
+    }
+
+    @Override
+    public List<String> getCaravanIds() {
+        return new ArrayList<>(caravans.keySet());
+    }
+
+    @Override
+    public Map<String, Object> readTransfer(String id) {
+        Map<String, Object> document = transfers.get(id);
+        return document == null ? null : new LinkedHashMap<>(document);
+    }
+
+    @Override
+    public void writeTransfer(String id, Map<String, Object> document) {
+        checkWritable();
+        transfers.put(id, new LinkedHashMap<>(document));
+    }
+
+    @Override
+    public void deleteTransfer(String id) {
+        checkWritable();
+        transfers.remove(id);
+    }
+
+    @Override
+    public List<String> getTransferIds() {
+        return new ArrayList<>(transfers.keySet());
+    }
+
+    @Override
+    public List<String> getTransferIds(Collection<String> statuses) {
+        return getTransferIds();
+    }
+
+    @Override
+    public void writeBatch(StorageBatch batch) {
+        try {
+            // Nothing of a failed batch is applied, like a rolled back transaction
+            checkWritable();
+            batch.getCaravanWrites().forEach(this::writeCaravan);
+            batch.getCaravanDeletes().forEach(this::deleteCaravan);
+            batch.getTransferWrites().forEach(this::writeTransfer);
+            batch.getTransferDeletes().forEach(this::deleteTransfer);
+        } finally {
+            batches.release();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private void checkWritable() {
+        if (failWrites) {
+            throw new StorageException("Simulated write failure");
+        }
+    }
+}